@@ -1,20 +1,32 @@
 package grammaranalyzer;
 
+import grammaranalyzer.controller.EarleyParser.PrefixStatus;
 import grammaranalyzer.controller.GrammarController;
+import grammaranalyzer.controller.ParsingAlgorithm;
+import grammaranalyzer.model.CompiledGrammar;
 import grammaranalyzer.model.DerivationResult;
 
+import javafx.animation.PauseTransition;
 import javafx.application.Application;
+import javafx.application.Platform;
 import javafx.geometry.Insets;
 import javafx.geometry.Orientation;
 import javafx.geometry.Pos;
 import javafx.scene.Scene;
 import javafx.scene.control.*;
 import javafx.scene.layout.*;
+import javafx.stage.FileChooser;
 import javafx.stage.Stage;
 import javafx.scene.text.Font;
 import javafx.scene.text.FontWeight;
+import javafx.util.Duration;
 
+import java.io.File;
+import java.io.IOException;
 import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Clase principal de la aplicación Analizador de Gramáticas
@@ -22,6 +34,12 @@ import java.util.Optional;
  */
 public class GrammarAnalyzerApp extends Application {
 
+    // Profundidad máxima que se puede pedir para el árbol general
+    private static final int MAX_GENERAL_TREE_DEPTH = 1000;
+
+    // Espera desde la última tecla antes de validar la palabra mientras se escribe
+    private static final Duration LIVE_VALIDATION_DELAY = Duration.millis(150);
+
     // Controlador principal
     private GrammarController controller;
 
@@ -35,6 +53,8 @@ public class GrammarAnalyzerApp extends Application {
 
     // Componentes de la interfaz - Panel de verificación
     private TextField txtWordToCheck;
+    private Label lblLiveStatus;
+    private ComboBox<ParsingAlgorithm> cmbAlgorithm;
     private TextArea txtResultDisplay;
 
     // Componentes de la interfaz - Árboles
@@ -45,10 +65,21 @@ public class GrammarAnalyzerApp extends Application {
     private SplitPane mainSplitPane;
     private BorderPane root;
 
+    // Validación mientras se escribe: espera, hilo de trabajo y número de la última petición
+    private final PauseTransition liveValidationDelay = new PauseTransition(LIVE_VALIDATION_DELAY);
+    private ExecutorService liveValidationExecutor;
+    private final AtomicLong liveValidationRequest = new AtomicLong();
+
     @Override
     public void start(Stage primaryStage) {
         // Inicializar controlador
         controller = new GrammarController();
+        liveValidationExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "validacion-incremental");
+            thread.setDaemon(true);
+            return thread;
+        });
+        liveValidationDelay.setOnFinished(e -> scheduleLiveValidation());
 
         // Crear la interfaz
         root = new BorderPane();
@@ -106,6 +137,11 @@ public class GrammarAnalyzerApp extends Application {
         primaryStage.show();
     }
 
+    @Override
+    public void stop() {
+        liveValidationExecutor.shutdownNow();
+    }
+
     /**
      * Crea una barra de herramientas con opciones de visualización
      */
@@ -116,6 +152,12 @@ public class GrammarAnalyzerApp extends Application {
         Button btnToggleOrientation = new Button("Cambiar Orientación");
         btnToggleOrientation.setOnAction(e -> toggleSplitPaneOrientation());
 
+        // Botones para abrir y guardar la gramática (binario o BNF)
+        Button btnOpenGrammar = new Button("Abrir Gramática");
+        btnOpenGrammar.setOnAction(e -> handleOpenGrammar());
+        Button btnSaveGrammar = new Button("Guardar Gramática");
+        btnSaveGrammar.setOnAction(e -> handleSaveGrammar());
+
         // Añadir un separador
         Separator sep = new Separator();
         sep.setOrientation(Orientation.VERTICAL);
@@ -123,7 +165,7 @@ public class GrammarAnalyzerApp extends Application {
         // Etiqueta de información
         Label lblInfo = new Label("Redimensione la ventana o ajuste los divisores para personalizar la vista");
 
-        toolbar.getItems().addAll(btnToggleOrientation, sep, lblInfo);
+        toolbar.getItems().addAll(btnToggleOrientation, btnOpenGrammar, btnSaveGrammar, sep, lblInfo);
 
         return toolbar;
     }
@@ -257,7 +299,7 @@ public class GrammarAnalyzerApp extends Application {
         productionGrid.add(txtProduction, 3, 0);
         productionGrid.add(btnAddProduction, 4, 0);
 
-        Label lblInfo = new Label("Nota: Use 'ε' para representar la producción vacía");
+        Label lblInfo = new Label("Nota: Use 'ε' para la producción vacía; los símbolos pueden separarse con espacios");
         lblInfo.setStyle("-fx-font-style: italic; -fx-font-size: 11;");
 
         productionBox.getChildren().addAll(lblProduction, productionGrid, lblInfo);
@@ -313,9 +355,29 @@ public class GrammarAnalyzerApp extends Application {
         // Hacer que el campo de texto se expanda horizontalmente
         GridPane.setHgrow(txtWordToCheck, Priority.ALWAYS);
 
+        // Estado de la palabra mientras se escribe (se valida al dejar de teclear)
+        lblLiveStatus = new Label();
+        txtWordToCheck.textProperty().addListener((obs, oldVal, newVal) -> liveValidationDelay.playFromStart());
+
+        Label lblAlgorithm = new Label("Algoritmo:");
+        cmbAlgorithm = new ComboBox<>();
+        cmbAlgorithm.getItems().addAll(ParsingAlgorithm.values());
+        cmbAlgorithm.setValue(controller.getParsingAlgorithm());
+        cmbAlgorithm.setMaxWidth(Double.MAX_VALUE);
+        cmbAlgorithm.setOnAction(e -> controller.setParsingAlgorithm(cmbAlgorithm.getValue()));
+
         wordGrid.add(lblWord, 0, 0);
         wordGrid.add(txtWordToCheck, 1, 0);
         wordGrid.add(btnVerify, 2, 0);
+        Button btnTablesReport = new Button("Informe de tablas");
+        btnTablesReport.setOnAction(e -> txtResultDisplay.setText(
+                controller.getAutomatonReport() + "\n" + controller.getLL1Report()
+                        + "\n" + controller.getLRReport()));
+
+        wordGrid.add(lblLiveStatus, 1, 1, 2, 1);
+        wordGrid.add(lblAlgorithm, 0, 2);
+        wordGrid.add(cmbAlgorithm, 1, 2);
+        wordGrid.add(btnTablesReport, 2, 2);
 
         // Agregar componentes al panel
         panel.getChildren().addAll(
@@ -399,8 +461,8 @@ public class GrammarAnalyzerApp extends Application {
             return;
         }
 
-        if (terminal.length() > 1) {
-            controller.showErrorAlert("Error", "El símbolo terminal debe ser un solo carácter.");
+        if (terminal.chars().anyMatch(Character::isWhitespace)) {
+            controller.showErrorAlert("Error", "El símbolo terminal no puede contener espacios.");
             return;
         }
 
@@ -424,8 +486,8 @@ public class GrammarAnalyzerApp extends Application {
             return;
         }
 
-        if (nonTerminal.length() > 1) {
-            controller.showErrorAlert("Error", "El símbolo no terminal debe ser un solo carácter.");
+        if (nonTerminal.chars().anyMatch(Character::isWhitespace)) {
+            controller.showErrorAlert("Error", "El símbolo no terminal no puede contener espacios.");
             return;
         }
 
@@ -510,7 +572,7 @@ public class GrammarAnalyzerApp extends Application {
         DerivationResult result = controller.analyzeWord(word);
 
         // Mostrar el resultado
-        txtResultDisplay.setText(result.generateDetailedReport());
+        txtResultDisplay.setText(result.generateDetailedReport() + "\n" + controller.getResultCache() + "\n");
 
         // Actualizar el árbol de derivación específico
         controller.populateDerivationTree(treeViewSpecific);
@@ -538,14 +600,15 @@ public class GrammarAnalyzerApp extends Application {
         TextInputDialog dialog = new TextInputDialog("3");
         dialog.setTitle("Profundidad del árbol");
         dialog.setHeaderText("Ingrese la profundidad máxima para el árbol general");
-        dialog.setContentText("Profundidad (1-10):");
+        dialog.setContentText("Profundidad (1-" + MAX_GENERAL_TREE_DEPTH + "):");
 
         Optional<String> result = dialog.showAndWait();
         if (result.isPresent()) {
             try {
                 int depth = Integer.parseInt(result.get());
-                if (depth < 1 || depth > 10) {
-                    controller.showErrorAlert("Error", "La profundidad debe estar entre 1 y 10.");
+                if (depth < 1 || depth > MAX_GENERAL_TREE_DEPTH) {
+                    controller.showErrorAlert("Error",
+                            "La profundidad debe estar entre 1 y " + MAX_GENERAL_TREE_DEPTH + ".");
                     return;
                 }
 
@@ -559,11 +622,115 @@ public class GrammarAnalyzerApp extends Application {
         }
     }
 
+    /**
+     * Crea el selector de archivos de gramática (binario o BNF)
+     */
+    private FileChooser createGrammarFileChooser(String title) {
+        FileChooser chooser = new FileChooser();
+        chooser.setTitle(title);
+        chooser.getExtensionFilters().addAll(
+                new FileChooser.ExtensionFilter("Gramática binaria (*.gram)", "*.gram"),
+                new FileChooser.ExtensionFilter("Gramática BNF (*.bnf)", "*.bnf"));
+        return chooser;
+    }
+
+    /**
+     * Manejador para abrir una gramática guardada
+     */
+    private void handleOpenGrammar() {
+        File file = createGrammarFileChooser("Abrir gramática").showOpenDialog(root.getScene().getWindow());
+        if (file == null) {
+            return;
+        }
+
+        try {
+            controller.loadGrammar(file.toPath());
+        } catch (IOException | IllegalArgumentException e) {
+            controller.showErrorAlert("Error", "No se pudo abrir la gramática: " + e.getMessage());
+            return;
+        }
+
+        // Actualizar los ComboBox con los símbolos de la gramática cargada
+        cmbStartSymbol.getItems().setAll(controller.getNonTerminals());
+        cmbProductionNonTerminal.getItems().setAll(controller.getNonTerminals());
+        cmbStartSymbol.setValue(controller.getStartSymbol());
+        updateGrammarDisplay();
+        controller.showAlert("Éxito", "Gramática cargada desde '" + file.getName() + "'.");
+    }
+
+    /**
+     * Manejador para guardar la gramática actual
+     */
+    private void handleSaveGrammar() {
+        File file = createGrammarFileChooser("Guardar gramática").showSaveDialog(root.getScene().getWindow());
+        if (file == null) {
+            return;
+        }
+
+        try {
+            controller.saveGrammar(file.toPath());
+            controller.showAlert("Éxito", "Gramática guardada en '" + file.getName() + "'.");
+        } catch (IOException e) {
+            controller.showErrorAlert("Error", "No se pudo guardar la gramática: " + e.getMessage());
+        }
+    }
+
     /**
      * Actualiza la visualización de la gramática en el TextArea
      */
     private void updateGrammarDisplay() {
         txtGrammarDisplay.setText(controller.getGrammarAsText());
+        liveValidationDelay.playFromStart();
+    }
+
+    /**
+     * Valida la palabra escrita en un hilo de trabajo, sobre una instantánea de la gramática
+     * tomada en el hilo de la interfaz. Si mientras tanto se pidió otra validación, el
+     * resultado de esta se descarta
+     */
+    private void scheduleLiveValidation() {
+        String word = txtWordToCheck.getText().trim();
+        long request = liveValidationRequest.incrementAndGet();
+        if (word.isEmpty() || !controller.isGrammarValid()) {
+            lblLiveStatus.setText("");
+            return;
+        }
+
+        CompiledGrammar snapshot = controller.getCompiledGrammar();
+        liveValidationExecutor.execute(() -> {
+            if (request != liveValidationRequest.get()) {
+                return;
+            }
+            PrefixStatus status = controller.validateIncrementally(snapshot, word);
+            Platform.runLater(() -> {
+                if (request == liveValidationRequest.get()) {
+                    showLiveStatus(status);
+                }
+            });
+        });
+    }
+
+    /**
+     * Muestra el estado de la palabra escrita
+     */
+    private void showLiveStatus(PrefixStatus status) {
+        switch (status) {
+            case ACCEPTED:
+                lblLiveStatus.setText("✓ Pertenece al lenguaje");
+                lblLiveStatus.setStyle("-fx-text-fill: #2E7D32;");
+                break;
+            case VIABLE_PREFIX:
+                lblLiveStatus.setText("… Aún no pertenece, pero puede completarse");
+                lblLiveStatus.setStyle("-fx-text-fill: #EF6C00;");
+                break;
+            case REJECTED:
+                lblLiveStatus.setText("✗ Ninguna palabra del lenguaje empieza así");
+                lblLiveStatus.setStyle("-fx-text-fill: #C62828;");
+                break;
+            default:
+                lblLiveStatus.setText("? Símbolo desconocido o incompleto");
+                lblLiveStatus.setStyle("-fx-text-fill: #757575;");
+        }
     }
 
     /**
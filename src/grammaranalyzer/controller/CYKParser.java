@@ -0,0 +1,184 @@
+package grammaranalyzer.controller;
+
+import grammaranalyzer.model.ChomskyNormalForm;
+import grammaranalyzer.model.DerivationResult;
+import grammaranalyzer.model.TreeNode;
+
+import java.util.*;
+
+/**
+ * Analizador basado en el algoritmo CYK (Cocke-Younger-Kasami)
+ * Trabaja sobre la gramática ya convertida a Forma Normal de Chomsky, por lo que
+ * cada palabra se decide en O(n³·|G|) con respuesta garantizada
+ */
+public class CYKParser {
+    private final ChomskyNormalForm normalForm;
+
+    /**
+     * Constructor
+     * @param normalForm Gramática en Forma Normal de Chomsky
+     */
+    public CYKParser(ChomskyNormalForm normalForm) {
+        this.normalForm = normalForm;
+    }
+
+    /**
+     * Verifica si una palabra pertenece al lenguaje y reconstruye su árbol
+     * de derivación en términos de la gramática original
+     *
+     * @param word Palabra a verificar
+     * @return Resultado de la derivación
+     */
+    public DerivationResult analyzeWord(String word) {
+        if (normalForm.getStartSymbol() < 0) {
+            return new DerivationResult(word, false);
+        }
+
+        int[] input = normalForm.encodeWord(word);
+        if (input == null) {
+            return new DerivationResult(word, false);
+        }
+
+        if (input.length == 0) {
+            if (!normalForm.acceptsEmptyWord()) {
+                return new DerivationResult(word, false);
+            }
+            TreeNode tree = normalForm.restoreEmptyWord();
+            return new DerivationResult(word, tree, normalForm.getSourceGrammar(), false);
+        }
+
+        Chart chart = fillChart(input);
+        if (!chart.contains(input.length, 0, normalForm.getStartSymbol())) {
+            return new DerivationResult(word, false);
+        }
+
+        TreeNode tree = buildTree(chart, input.length, 0, normalForm.getStartSymbol()).get(0);
+        return new DerivationResult(word, tree, normalForm.getSourceGrammar(), false);
+    }
+
+    /**
+     * Llena la tabla CYK de abajo hacia arriba
+     */
+    private Chart fillChart(int[] input) {
+        int n = input.length;
+        Chart chart = new Chart(n, normalForm.getNonTerminalCount());
+
+        for (int i = 0; i < n; i++) {
+            for (int rule : normalForm.getRulesByTerminal(input[i])) {
+                chart.add(1, i, normalForm.getRuleLhs(rule), rule, 0);
+            }
+        }
+
+        for (int length = 2; length <= n; length++) {
+            for (int start = 0; start + length <= n; start++) {
+                for (int split = 1; split < length; split++) {
+                    long[] left = chart.cell(split, start);
+                    long[] right = chart.cell(length - split, start + split);
+                    if (left == null || right == null) {
+                        continue;
+                    }
+
+                    for (int b = nextSetBit(left, 0); b >= 0; b = nextSetBit(left, b + 1)) {
+                        for (int rule : normalForm.getRulesByLeft(b)) {
+                            if (isSet(right, normalForm.getRuleRight(rule))) {
+                                chart.add(length, start, normalForm.getRuleLhs(rule), rule, split);
+                            }
+                        }
+                    }
+                }
+            }
+        }
+
+        return chart;
+    }
+
+    /**
+     * Reconstruye el árbol siguiendo los punteros de la tabla
+     */
+    private List<TreeNode> buildTree(Chart chart, int length, int start, int nonTerminal) {
+        int rule = chart.rule(length, start, nonTerminal);
+        int split = chart.split(length, start, nonTerminal);
+
+        List<List<TreeNode>> children = new ArrayList<>();
+        if (normalForm.getRuleRight(rule) >= 0) {
+            children.add(buildTree(chart, split, start, normalForm.getRuleLeft(rule)));
+            children.add(buildTree(chart, length - split, start + split,
+                    normalForm.getRuleRight(rule)));
+        }
+        return normalForm.restore(rule, children);
+    }
+
+    private static boolean isSet(long[] bits, int index) {
+        return (bits[index >>> 6] & (1L << index)) != 0;
+    }
+
+    private static int nextSetBit(long[] bits, int from) {
+        int word = from >>> 6;
+        if (word >= bits.length) {
+            return -1;
+        }
+        long current = bits[word] & (-1L << from);
+        while (true) {
+            if (current != 0) {
+                return (word << 6) + Long.numberOfTrailingZeros(current);
+            }
+            if (++word == bits.length) {
+                return -1;
+            }
+            current = bits[word];
+        }
+    }
+
+    /**
+     * Tabla CYK: para cada subcadena (longitud, inicio) guarda el conjunto de
+     * no terminales que la derivan y, para cada uno, la regla y el punto de corte
+     * con que se obtuvo por primera vez. Las celdas se crean solo si no están vacías
+     */
+    private static final class Chart {
+        private final int words;
+        private final int nonTerminals;
+        private final long[][][] sets;
+        private final long[][][] pointers;
+
+        Chart(int n, int nonTerminals) {
+            this.nonTerminals = nonTerminals;
+            this.words = (nonTerminals + 63) >>> 6;
+            this.sets = new long[n + 1][][];
+            this.pointers = new long[n + 1][][];
+            for (int length = 1; length <= n; length++) {
+                sets[length] = new long[n - length + 1][];
+                pointers[length] = new long[n - length + 1][];
+            }
+        }
+
+        long[] cell(int length, int start) {
+            return sets[length][start];
+        }
+
+        boolean contains(int length, int start, int nonTerminal) {
+            long[] cell = sets[length][start];
+            return cell != null && isSet(cell, nonTerminal);
+        }
+
+        void add(int length, int start, int nonTerminal, int rule, int split) {
+            long[] cell = sets[length][start];
+            if (cell == null) {
+                cell = new long[words];
+                sets[length][start] = cell;
+                pointers[length][start] = new long[nonTerminals];
+            } else if (isSet(cell, nonTerminal)) {
+                return;
+            }
+            cell[nonTerminal >>> 6] |= 1L << nonTerminal;
+            pointers[length][start][nonTerminal] = ((long) split << 32) | rule;
+        }
+
+        int rule(int length, int start, int nonTerminal) {
+            return (int) pointers[length][start][nonTerminal];
+        }
+
+        int split(int length, int start, int nonTerminal) {
+            return (int) (pointers[length][start][nonTerminal] >>> 32);
+        }
+    }
+}
@@ -0,0 +1,595 @@
+package grammaranalyzer.controller;
+
+import grammaranalyzer.model.CompiledGrammar;
+import grammaranalyzer.model.DerivationResult;
+import grammaranalyzer.model.GrammarAnalysis;
+import grammaranalyzer.model.ParseForest;
+import grammaranalyzer.model.TreeNode;
+
+import java.math.BigInteger;
+import java.util.*;
+
+/**
+ * Analizador basado en el algoritmo de Earley
+ * Trabaja directamente sobre las producciones de la gramática, sin convertirla
+ * a una forma normal, por lo que acepta recursión por la izquierda y
+ * producciones ε. Su costo es O(n³) en el peor caso, O(n²) para gramáticas
+ * no ambiguas y lineal para las gramáticas LR-regulares (entre ellas las LR(k)):
+ * con los ítems de Leo, una cadena de reducciones deterministas por la derecha
+ * (como en S -> aS) se completa en un solo paso en lugar de un ítem por nivel.
+ * Si la palabra es aceptada, a partir de los conjuntos se construye el bosque
+ * compartido de análisis (SPPF) con todos sus árboles de derivación
+ */
+public class EarleyParser {
+    private final GrammarAnalysis analysis;
+    private final int[] dotBase;    // Numeración de los pares (regla, punto) para las claves del bosque
+    private final int[][] predicted; // Reglas útiles de cada no terminal, las únicas que se predicen
+
+    private static final int[] NO_LEO = new int[0]; // Marca de (conjunto, símbolo) sin ítem de Leo
+
+    /**
+     * Constructor
+     * @param analysis Gramática codificada a analizar
+     */
+    public EarleyParser(GrammarAnalysis analysis) {
+        this.analysis = analysis;
+        this.dotBase = new int[analysis.getRuleCount()];
+        for (int rule = 1; rule < dotBase.length; rule++) {
+            dotBase[rule] = dotBase[rule - 1] + analysis.getRuleRhs(rule - 1).length + 1;
+        }
+        CompiledGrammar grammar = analysis.getGrammar();
+        this.predicted = new int[analysis.getNonTerminalCount()][];
+        for (int a = 0; a < predicted.length; a++) {
+            predicted[a] = Arrays.stream(analysis.getRulesFor(a)).filter(grammar::isUsefulRule).toArray();
+        }
+    }
+
+    /**
+     * Verifica si una palabra pertenece al lenguaje y construye su bosque de análisis
+     * El árbol del resultado es el primero del bosque
+     *
+     * @param word Palabra a verificar
+     * @return Resultado de la derivación
+     */
+    public DerivationResult analyzeWord(String word) {
+        int startSymbol = analysis.getStartSymbol();
+        int[] input = analysis.encodeWord(word);
+        if (startSymbol < 0 || input == null) {
+            return new DerivationResult(word, false);
+        }
+
+        List<ItemSet> sets = new ArrayList<>(input.length + 1);
+        sets.add(initialSet());
+        for (int j = 0; j < input.length; j++) {
+            sets.add(scan(sets, j, input[j]));
+        }
+
+        if (isAccepted(sets.get(input.length))) {
+            ParseForest forest = buildForest(sets, input);
+            TreeNode tree = forest.getTree(BigInteger.ZERO);
+            DerivationResult result = new DerivationResult(word, tree, analysis.getGrammar(), false);
+            result.setParseForest(forest);
+            return result;
+        }
+
+        return new DerivationResult(word, false);
+    }
+
+    /**
+     * Crea una sesión de verificación incremental (ver {@link Session})
+     * @return Sesión vacía
+     */
+    public Session newSession() {
+        return new Session();
+    }
+
+    /**
+     * Construye el conjunto 0: las reglas del símbolo inicial y su cierre
+     * Solo se predicen reglas útiles (ver {@link CompiledGrammar#isUsefulRule(int)}): una regla
+     * con un no terminal improductivo nunca se completa, y sin ellas todo ítem de un conjunto
+     * forma parte de alguna derivación completa, por lo que un conjunto no vacío indica que la
+     * palabra leída es prefijo de una del lenguaje
+     * Las producciones ε se tratan con la técnica de Aycock y Horspool:
+     * al predecir un no terminal anulable el punto avanza de inmediato sobre él
+     */
+    private ItemSet initialSet() {
+        ItemSet set = new ItemSet(analysis.getNonTerminalCount());
+        if (analysis.getStartSymbol() < 0) {
+            return set;
+        }
+        for (int rule : predicted[analysis.getStartSymbol()]) {
+            set.add(rule, 0, 0);
+        }
+        complete(Collections.singletonList(set), set, 0);
+        return set;
+    }
+
+    /**
+     * Construye el conjunto j + 1 leyendo un terminal desde el conjunto j (ya completo)
+     * y calculando su cierre
+     *
+     * @param sets Conjuntos 0..j
+     * @param j Posición del terminal leído
+     * @param terminal Terminal leído
+     * @return Conjunto j + 1 (vacío si ningún ítem esperaba el terminal)
+     */
+    private ItemSet scan(List<ItemSet> sets, int j, int terminal) {
+        ItemSet set = sets.get(j);
+        ItemSet next = new ItemSet(analysis.getNonTerminalCount());
+        for (int item = 0; item < set.size; item++) {
+            int[] rhs = analysis.getRuleRhs(set.rule[item]);
+            int dot = set.dot[item];
+            if (dot < rhs.length && rhs[dot] < 0 && ~rhs[dot] == terminal) {
+                next.add(set.rule[item], dot + 1, set.origin[item]);
+            }
+        }
+        if (next.size > 0) {
+            complete(sets, next, j + 1);
+        }
+        return next;
+    }
+
+    /**
+     * Cierre de un conjunto: predice los no terminales esperados y completa los ítems
+     * terminados, avanzando los que los esperaban en su conjunto de origen
+     *
+     * @param sets Conjuntos anteriores (el de la posición j puede no estar en la lista)
+     * @param set Conjunto de la posición j
+     * @param j Posición del conjunto
+     */
+    private void complete(List<ItemSet> sets, ItemSet set, int j) {
+        for (int item = 0; item < set.size; item++) {
+            int rule = set.rule[item];
+            int dot = set.dot[item];
+            int origin = set.origin[item];
+            int[] rhs = analysis.getRuleRhs(rule);
+
+            if (dot == rhs.length) {
+                // Completar: avanzar los ítems que esperaban este no terminal
+                if (origin == j) {
+                    continue; // Cubierto por el avance sobre anulables
+                }
+                int lhs = analysis.getRuleLhs(rule);
+                int[] top = leoItem(sets, origin, lhs);
+                if (top != null) {
+                    // Reducción determinista: se agrega directamente el ítem completo más alto
+                    set.add(top[0], analysis.getRuleRhs(top[0]).length, top[1]);
+                    set.addLeoTrigger(origin, lhs);
+                    continue;
+                }
+                ItemSet originSet = sets.get(origin);
+                List<Integer> waiting = originSet.waitingFor(lhs);
+                for (int w = 0; w < waiting.size(); w++) {
+                    int parent = waiting.get(w);
+                    set.add(originSet.rule[parent], originSet.dot[parent] + 1, originSet.origin[parent]);
+                }
+                continue;
+            }
+
+            int symbol = rhs[dot];
+            if (symbol >= 0) {
+                // Predecir
+                set.addWaiting(symbol, item);
+                for (int candidate : predicted[symbol]) {
+                    set.add(candidate, 0, j);
+                }
+                if (analysis.isNullable(symbol)) {
+                    set.add(rule, dot + 1, origin);
+                }
+            }
+        }
+    }
+
+    /**
+     * Ítem de Leo (transitivo) de un no terminal en un conjunto ya completo
+     * Si el único ítem del conjunto i que espera a B es (A -> α·B, k), con B al final de la
+     * regla y k < i, completar B solo puede completar A desde k, y así sucesivamente; el
+     * resultado es el ítem completo más alto de esa cadena. Se calcula una sola vez por
+     * (conjunto, símbolo), recorriendo la cadena sin recursión y guardando el resultado en
+     * todos sus eslabones. Como cada eslabón retrocede a un conjunto anterior, no hay ciclos
+     *
+     * @param sets Conjuntos anteriores
+     * @param i Conjunto donde se completó B (el origen del ítem completo)
+     * @param nonTerminal No terminal B
+     * @return {regla, origen} del ítem completo más alto, o null si no hay ítem de Leo
+     */
+    private int[] leoItem(List<ItemSet> sets, int i, int nonTerminal) {
+        List<ItemSet> chain = new ArrayList<>();
+        List<Integer> chainSymbols = new ArrayList<>();
+        int[] top = null;
+        int position = i;
+        int symbol = nonTerminal;
+        while (true) {
+            ItemSet current = sets.get(position);
+            int[] known = current.getLeo(symbol);
+            if (known != null) {
+                if (known != NO_LEO) {
+                    top = known;
+                }
+                break;
+            }
+            int waiter = leoWaiter(current, position, symbol);
+            if (waiter < 0) {
+                current.putLeo(symbol, NO_LEO);
+                break;
+            }
+            chain.add(current);
+            chainSymbols.add(symbol);
+            top = new int[]{current.rule[waiter], current.origin[waiter]};
+            position = current.origin[waiter];
+            symbol = analysis.getRuleLhs(current.rule[waiter]);
+        }
+        for (int link = 0; link < chain.size(); link++) {
+            chain.get(link).putLeo(chainSymbols.get(link), top);
+        }
+        return top;
+    }
+
+    /**
+     * Único ítem del conjunto que espera al no terminal, si este es el último símbolo de su
+     * regla y el ítem empezó en un conjunto anterior
+     * @return Índice del ítem o -1 si no cumple las condiciones de Leo
+     */
+    private int leoWaiter(ItemSet set, int position, int nonTerminal) {
+        List<Integer> waiting = set.waitingFor(nonTerminal);
+        if (waiting.size() != 1) {
+            return -1;
+        }
+        int item = waiting.get(0);
+        int[] rhs = analysis.getRuleRhs(set.rule[item]);
+        return set.dot[item] == rhs.length - 1 && set.origin[item] < position ? item : -1;
+    }
+
+    /**
+     * Obtiene el conjunto j con todos sus ítems completos: agrega los eslabones intermedios
+     * de las cadenas que los ítems de Leo saltaron, necesarios para construir el bosque
+     * Solo se recorren las cadenas de los conjuntos que el bosque consulta
+     */
+    private ItemSet expanded(List<ItemSet> sets, int j) {
+        ItemSet set = sets.get(j);
+        if (set.leoTriggers == null) {
+            return set;
+        }
+        for (long trigger : set.leoTriggers) {
+            int position = (int) (trigger >>> 32);
+            int symbol = (int) trigger;
+            while (true) {
+                ItemSet current = sets.get(position);
+                int waiter = leoWaiter(current, position, symbol);
+                if (waiter < 0) {
+                    break;
+                }
+                int rule = current.rule[waiter];
+                int length = analysis.getRuleRhs(rule).length;
+                if (set.find(rule, length, current.origin[waiter]) >= 0) {
+                    break; // El resto de la cadena ya está en el conjunto
+                }
+                set.add(rule, length, current.origin[waiter]);
+                position = current.origin[waiter];
+                symbol = analysis.getRuleLhs(rule);
+            }
+        }
+        set.leoTriggers = null;
+        set.completed = null;
+        return set;
+    }
+
+    /**
+     * Indica si el conjunto contiene un ítem completo del símbolo inicial con origen 0
+     * (nunca lo salta un ítem de Leo: los eslabones intermedios tienen origen mayor que 0)
+     */
+    private boolean isAccepted(ItemSet set) {
+        int startSymbol = analysis.getStartSymbol();
+        for (int item = 0; item < set.size; item++) {
+            int rule = set.rule[item];
+            if (analysis.getRuleLhs(rule) == startSymbol && set.origin[item] == 0
+                    && set.dot[item] == analysis.getRuleRhs(rule).length) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Construye el bosque de análisis de una palabra aceptada
+     * El nodo (A, i, j) tiene una alternativa por cada regla A -> α con el ítem
+     * completo (A -> α·, i) en el conjunto j. El prefijo X1..Xd de una regla sobre
+     * [i, j] se divide en X1..Xd-1 sobre [i, k] y Xd sobre [k, j] para cada k en que
+     * el ítem (A -> X1..Xd-1·Xd, i) está en el conjunto k y Xd deriva [k, j].
+     * Los nodos se expanden con una pila explícita
+     */
+    private ParseForest buildForest(List<ItemSet> sets, int[] input) {
+        ParseForest forest = new ParseForest(analysis);
+        Map<Long, Integer> nodes = new HashMap<>();
+        Map<Long, List<Integer>> positions = new HashMap<>();
+        Deque<long[]> pending = new ArrayDeque<>();
+
+        int root = forestNode(forest, nodes, pending, analysis.getStartSymbol(), -1, 0, input.length);
+        while (!pending.isEmpty()) {
+            long[] entry = pending.pop();
+            int node = (int) entry[0];
+            int symbol = (int) entry[1];
+            int rule = (int) entry[2];
+            int dot = (int) entry[3];
+            int start = (int) entry[4];
+            int end = (int) entry[5];
+
+            if (symbol >= 0) {
+                for (int candidate : analysis.getRulesFor(symbol)) {
+                    int length = analysis.getRuleRhs(candidate).length;
+                    if (expanded(sets, end).find(candidate, length, start) >= 0) {
+                        forest.addAlternative(node, candidate, ParseForest.NONE,
+                                body(forest, nodes, pending, candidate, length, start, end));
+                    }
+                }
+                continue;
+            }
+
+            int last = analysis.getRuleRhs(rule)[dot - 1];
+            if (last < 0) {
+                int split = end - 1;
+                if (split >= start && input[split] == ~last && sets.get(split).find(rule, dot - 1, start) >= 0) {
+                    forest.addAlternative(node, -1, body(forest, nodes, pending, rule, dot - 1, start, split), last);
+                }
+                continue;
+            }
+            for (int split : splitPoints(sets, positions, rule, dot - 1, start, end, last)) {
+                forest.addAlternative(node, -1, body(forest, nodes, pending, rule, dot - 1, start, split),
+                        forestNode(forest, nodes, pending, last, -1, split, end));
+            }
+        }
+
+        forest.setRoot(root);
+        return forest;
+    }
+
+    /**
+     * Puntos k, en orden creciente, en que el ítem (rule, dot, start) está en el conjunto k
+     * y el no terminal last se completa desde k hasta end
+     * Se recorre la más corta de las dos listas de candidatos (los conjuntos que contienen
+     * el ítem o los orígenes de last completos en end), de modo que una cadena por la
+     * derecha como S -> aS no cuesta O(n) por nodo
+     *
+     * @param positions Conjuntos que contienen cada ítem con el punto en medio de la regla
+     *                  (se llena la primera vez)
+     */
+    private int[] splitPoints(List<ItemSet> sets, Map<Long, List<Integer>> positions,
+                              int rule, int dot, int start, int end, int last) {
+        int[] origins = expanded(sets, end).completedOrigins(analysis, last);
+        List<Integer> containing;
+        if (dot == 0) {
+            containing = Collections.singletonList(start); // Solo el conjunto donde se predijo
+        } else {
+            if (positions.isEmpty()) {
+                for (int k = 0; k < sets.size(); k++) {
+                    ItemSet set = sets.get(k);
+                    for (int item = 0; item < set.size; item++) {
+                        if (set.dot[item] > 0 && set.dot[item] < analysis.getRuleRhs(set.rule[item]).length) {
+                            positions.computeIfAbsent(ItemSet.key(set.rule[item], set.dot[item], set.origin[item]),
+                                    key -> new ArrayList<>()).add(k);
+                        }
+                    }
+                }
+            }
+            containing = positions.getOrDefault(ItemSet.key(rule, dot, start), Collections.emptyList());
+        }
+
+        int count = 0;
+        int[] result = new int[Math.min(containing.size(), origins.length)];
+        if (containing.size() < origins.length) {
+            for (int split : containing) {
+                if (split <= end && Arrays.binarySearch(origins, split) >= 0) {
+                    result[count++] = split;
+                }
+            }
+        } else {
+            for (int split : origins) {
+                if (split >= start && sets.get(split).find(rule, dot, start) >= 0) {
+                    result[count++] = split;
+                }
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    /**
+     * Hijo del bosque que representa el prefijo X1..Xd de una regla sobre [start, end]:
+     * NONE si es vacío, el propio símbolo si tiene longitud 1 o un nodo intermedio
+     */
+    private int body(ParseForest forest, Map<Long, Integer> nodes, Deque<long[]> pending,
+                     int rule, int dot, int start, int end) {
+        if (dot == 0) {
+            return ParseForest.NONE;
+        }
+        if (dot == 1) {
+            int symbol = analysis.getRuleRhs(rule)[0];
+            return symbol < 0 ? symbol : forestNode(forest, nodes, pending, symbol, -1, start, end);
+        }
+        return forestNode(forest, nodes, pending, -1, rule, start, end, dot);
+    }
+
+    private int forestNode(ParseForest forest, Map<Long, Integer> nodes, Deque<long[]> pending,
+                           int symbol, int rule, int start, int end) {
+        return forestNode(forest, nodes, pending, symbol, rule, start, end, 0);
+    }
+
+    /**
+     * Obtiene o crea el nodo de símbolo (symbol, start, end) o el intermedio
+     * (rule, dot, start, end); los nodos nuevos quedan pendientes de expandir
+     * La clave del nodo usa 22 bits para la etiqueta y 21 para cada posición
+     * @throws IllegalArgumentException Si la etiqueta o las posiciones no caben en sus bits,
+     *                                  pues se mezclarían nodos distintos
+     */
+    private int forestNode(ParseForest forest, Map<Long, Integer> nodes, Deque<long[]> pending,
+                           int symbol, int rule, int start, int end, int dot) {
+        long label = symbol >= 0 ? symbol : analysis.getNonTerminalCount() + dotBase[rule] + dot;
+        if (label >= 1 << 22 || end >= 1 << 21) {
+            throw new IllegalArgumentException("La gramática o la palabra son demasiado grandes para construir el bosque de análisis");
+        }
+        long key = (label << 42) | ((long) start << 21) | end;
+        Integer existing = nodes.get(key);
+        if (existing != null) {
+            return existing;
+        }
+        int node = forest.addNode(symbol, start, end);
+        nodes.put(key, node);
+        pending.push(new long[]{node, symbol, rule, dot, start, end});
+        return node;
+    }
+
+    /**
+     * Estado de una palabra en una verificación incremental
+     */
+    public enum PrefixStatus {
+        /** La palabra pertenece al lenguaje */
+        ACCEPTED,
+        /** La palabra no pertenece, pero es prefijo de alguna que sí */
+        VIABLE_PREFIX,
+        /** Ninguna palabra del lenguaje empieza así */
+        REJECTED,
+        /** La palabra contiene símbolos que no son terminales de la gramática */
+        UNKNOWN_SYMBOL
+    }
+
+    /**
+     * Verificación incremental, pensada para validar una palabra mientras se escribe:
+     * conserva los conjuntos de Earley de la última palabra, y como el conjunto j solo
+     * depende de los j primeros terminales, al verificar una palabra nueva reutiliza los
+     * conjuntos de su prefijo común (en terminales) con la anterior y solo construye los
+     * del resto. Agregar o borrar al final cuesta entonces lo que cuestan los terminales
+     * modificados y no la palabra completa. Una sesión no debe usarse desde dos hilos a la vez
+     */
+    public final class Session {
+        private final List<ItemSet> sets = new ArrayList<>();
+        private int[] input = new int[0];
+
+        private Session() {
+            sets.add(initialSet());
+        }
+
+        /**
+         * Verifica una palabra reutilizando el trabajo hecho para la anterior
+         * @param word Palabra a verificar
+         * @return Estado de la palabra
+         */
+        public PrefixStatus update(String word) {
+            int[] symbols = analysis.encodeWord(word);
+            if (symbols == null) {
+                return PrefixStatus.UNKNOWN_SYMBOL;
+            }
+            int common = 0;
+            while (common < symbols.length && common < input.length && symbols[common] == input[common]) {
+                common++;
+            }
+            sets.subList(common + 1, sets.size()).clear();
+            for (int j = common; j < symbols.length; j++) {
+                sets.add(sets.get(j).size == 0 ? new ItemSet(0) : scan(sets, j, symbols[j]));
+            }
+            input = symbols;
+
+            ItemSet last = sets.get(symbols.length);
+            if (isAccepted(last)) {
+                return PrefixStatus.ACCEPTED;
+            }
+            // Solo hay ítems de reglas útiles, así que cualquiera puede completarse
+            return last.size > 0 ? PrefixStatus.VIABLE_PREFIX : PrefixStatus.REJECTED;
+        }
+    }
+
+    /**
+     * Conjunto de Earley: ítems (regla, punto, origen) sin repetir
+     */
+    private static final class ItemSet {
+        int size;
+        int[] rule = new int[16];
+        int[] dot = new int[16];
+        int[] origin = new int[16];
+        private final Map<Long, Integer> index = new HashMap<>();
+        private final List<List<Integer>> waiting;
+        private Map<Integer, int[]> completed;   // Orígenes de los ítems completos de cada no terminal
+        private Map<Integer, int[]> leo;         // Ítem de Leo de cada no terminal (ver leoItem)
+        private Set<Long> leoTriggers;           // (origen, no terminal) completados con un ítem de Leo
+
+        ItemSet(int nonTerminals) {
+            waiting = new ArrayList<>(Collections.nCopies(nonTerminals, null));
+        }
+
+        void add(int itemRule, int itemDot, int itemOrigin) {
+            if (index.putIfAbsent(key(itemRule, itemDot, itemOrigin), size) != null) {
+                return;
+            }
+            if (size == rule.length) {
+                int capacity = size * 2;
+                rule = Arrays.copyOf(rule, capacity);
+                dot = Arrays.copyOf(dot, capacity);
+                origin = Arrays.copyOf(origin, capacity);
+            }
+            rule[size] = itemRule;
+            dot[size] = itemDot;
+            origin[size] = itemOrigin;
+            size++;
+        }
+
+        int find(int itemRule, int itemDot, int itemOrigin) {
+            return index.getOrDefault(key(itemRule, itemDot, itemOrigin), -1);
+        }
+
+        /**
+         * Clave del ítem: 24 bits para el origen, 28 para la regla y 12 para el punto
+         * @throws IllegalArgumentException Si algún campo no cabe en sus bits, pues la clave
+         *                                  coincidiría con la de otro ítem
+         */
+        private static long key(int itemRule, int itemDot, int itemOrigin) {
+            if (itemDot >= 1 << 12 || itemRule >= 1 << 28 || itemOrigin >= 1 << 24) {
+                throw new IllegalArgumentException("La gramática o la palabra son demasiado grandes para el analizador de Earley");
+            }
+            return ((long) itemOrigin << 40) | ((long) itemRule << 12) | itemDot;
+        }
+
+        int[] completedOrigins(GrammarAnalysis analysis, int nonTerminal) {
+            if (completed == null) {
+                Map<Integer, Set<Integer>> origins = new HashMap<>();
+                for (int item = 0; item < size; item++) {
+                    if (dot[item] == analysis.getRuleRhs(rule[item]).length) {
+                        origins.computeIfAbsent(analysis.getRuleLhs(rule[item]), k -> new TreeSet<>()).add(origin[item]);
+                    }
+                }
+                completed = new HashMap<>();
+                for (Map.Entry<Integer, Set<Integer>> entry : origins.entrySet()) {
+                    completed.put(entry.getKey(), entry.getValue().stream().mapToInt(Integer::intValue).toArray());
+                }
+            }
+            return completed.getOrDefault(nonTerminal, new int[0]);
+        }
+
+        int[] getLeo(int nonTerminal) {
+            return leo == null ? null : leo.get(nonTerminal);
+        }
+
+        void putLeo(int nonTerminal, int[] top) {
+            if (leo == null) {
+                leo = new HashMap<>();
+            }
+            leo.put(nonTerminal, top);
+        }
+
+        void addLeoTrigger(int origin, int nonTerminal) {
+            if (leoTriggers == null) {
+                leoTriggers = new HashSet<>();
+            }
+            leoTriggers.add(((long) origin << 32) | nonTerminal);
+        }
+
+        void addWaiting(int nonTerminal, int item) {
+            if (waiting.get(nonTerminal) == null) {
+                waiting.set(nonTerminal, new ArrayList<>());
+            }
+            waiting.get(nonTerminal).add(item);
+        }
+
+        List<Integer> waitingFor(int nonTerminal) {
+            List<Integer> items = waiting.get(nonTerminal);
+            return items != null ? items : Collections.emptyList();
+        }
+    }
+}
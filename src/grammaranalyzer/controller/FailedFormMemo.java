@@ -0,0 +1,115 @@
+package grammaranalyzer.controller;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Tabla acotada de formas sentenciales que ya fallaron durante la búsqueda de derivaciones
+ * Para cada forma se guarda la mayor profundidad restante con la que se demostró que no
+ * deriva la palabra objetivo: con esa profundidad o una menor tampoco puede derivarla.
+ * Cuando se alcanza la capacidad se descarta la forma usada hace más tiempo (LRU); la
+ * variante concurrente (ver {@link #concurrent(int)}) deja de guardar formas nuevas.
+ * Las formas son arreglos de símbolos codificados y no deben modificarse después de guardarse
+ */
+final class FailedFormMemo {
+    private final Map<Form, Integer> failed;
+    private final int capacity;
+    private final boolean concurrent;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * Constructor
+     * @param capacity Número máximo de formas guardadas (0 desactiva la tabla)
+     */
+    FailedFormMemo(int capacity) {
+        this.capacity = capacity;
+        this.concurrent = false;
+        this.failed = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Form, Integer> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    private FailedFormMemo(int capacity, Map<Form, Integer> failed) {
+        this.capacity = capacity;
+        this.concurrent = true;
+        this.failed = failed;
+    }
+
+    /**
+     * Crea una tabla que pueden consultar y completar varios hilos a la vez, como los de la
+     * búsqueda paralela. Sin orden de uso que mantener, al llegar a la capacidad se siguen
+     * actualizando las formas guardadas pero no se agregan nuevas
+     * @param capacity Número máximo de formas guardadas (0 desactiva la tabla)
+     * @return Tabla concurrente
+     */
+    static FailedFormMemo concurrent(int capacity) {
+        return new FailedFormMemo(capacity, new ConcurrentHashMap<>());
+    }
+
+    /**
+     * Consulta si la forma ya falló con al menos la profundidad restante indicada
+     * @param form Forma sentencial
+     * @param remainingDepth Profundidad restante
+     * @return true si se sabe que la forma no deriva la palabra
+     */
+    boolean isKnownFailure(int[] form, int remainingDepth) {
+        Integer depth = failed.get(new Form(form));
+        if (depth != null && depth >= remainingDepth) {
+            hits.increment();
+            return true;
+        }
+        misses.increment();
+        return false;
+    }
+
+    /**
+     * Registra que la forma no deriva la palabra con la profundidad restante indicada
+     * @param form Forma sentencial
+     * @param remainingDepth Profundidad restante
+     */
+    void recordFailure(int[] form, int remainingDepth) {
+        Form key = new Form(form);
+        if (concurrent && failed.size() >= capacity && !failed.containsKey(key)) {
+            return;
+        }
+        failed.merge(key, remainingDepth, Math::max);
+    }
+
+    long getHits() {
+        return hits.sum();
+    }
+
+    long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * Clave de la tabla: forma sentencial codificada con su hash precalculado
+     */
+    private static final class Form {
+        private final int[] symbols;
+        private final int hash;
+
+        Form(int[] symbols) {
+            this.symbols = symbols;
+            this.hash = Arrays.hashCode(symbols);
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof Form && Arrays.equals(symbols, ((Form) other).symbols);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
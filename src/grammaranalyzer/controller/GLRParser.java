@@ -0,0 +1,289 @@
+package grammaranalyzer.controller;
+
+import grammaranalyzer.model.DerivationResult;
+import grammaranalyzer.model.GrammarAnalysis;
+import grammaranalyzer.model.TreeNode;
+
+import java.util.*;
+
+/**
+ * Analizador LR generalizado (GLR, algoritmo de Tomita)
+ * Usa las tablas LR aunque tengan conflictos: ante varias acciones la pila
+ * se bifurca, y las pilas se representan con una pila estructurada en grafo
+ * (GSS) en la que las cimas con el mismo estado en la misma posición se
+ * fusionan. En las zonas deterministas de la entrada el costo es el de un
+ * analizador LR; solo las zonas ambiguas o con conflictos mantienen varias cimas.
+ * Las reducciones ε se tratan con la corrección de Farshi: cuando se agrega una
+ * arista a un nodo ya existente, las cimas ya procesadas repiten solo las reducciones
+ * cuyos caminos pasan por la arista nueva (los demás caminos ya se redujeron)
+ */
+public class GLRParser {
+    private static final String EPSILON = "ε";
+
+    private final LRTable table;
+    private final GrammarAnalysis analysis;
+
+    /**
+     * Nodo de la pila estructurada en grafo
+     */
+    private static final class Node {
+        final int state;
+        final List<Edge> edges = new ArrayList<>(2);
+        final Map<Node, Edge> edgeIndex = new HashMap<>(4); // Nodo anterior -> arista
+        List<Edge> levelEdges; // Aristas hacia nodos de la misma posición (reducciones ε)
+
+        Node(int state) {
+            this.state = state;
+        }
+
+        Edge edgeTo(Node target) {
+            return edgeIndex.get(target);
+        }
+
+        void addEdge(Edge edge, boolean sameLevel) {
+            edges.add(edge);
+            edgeIndex.put(edge.target, edge);
+            if (sameLevel) {
+                if (levelEdges == null) {
+                    levelEdges = new ArrayList<>(2);
+                }
+                levelEdges.add(edge);
+            }
+        }
+    }
+
+    /**
+     * Arista hacia el nodo anterior, etiquetada con el subárbol del símbolo reconocido
+     */
+    private static final class Edge {
+        final Node target;
+        final TreeNode value;
+
+        Edge(Node target, TreeNode value) {
+            this.target = target;
+            this.value = value;
+        }
+    }
+
+    /**
+     * Reducciones pendientes de una cima: todas, o solo las que pasan por alguna de las
+     * aristas nuevas
+     */
+    private static final class Reduction {
+        final Node node;
+        final Map<Node, List<Edge>> links; // Origen -> aristas nuevas, o null para todos los caminos
+
+        Reduction(Node node, Map<Node, List<Edge>> links) {
+            this.node = node;
+            this.links = links;
+        }
+    }
+
+    /**
+     * Constructor
+     * @param table Tablas LR de la gramática (pueden tener conflictos)
+     */
+    public GLRParser(LRTable table) {
+        this.table = table;
+        this.analysis = table.getAnalysis();
+    }
+
+    /**
+     * Analiza una palabra explorando en paralelo todas las acciones de la tabla
+     *
+     * @param word Palabra a verificar
+     * @return Resultado de la derivación
+     */
+    public DerivationResult analyzeWord(String word) {
+        int[] input = analysis.encodeWord(word);
+        if (analysis.getStartSymbol() < 0 || input == null) {
+            return new DerivationResult(word, false);
+        }
+
+        int endMarker = analysis.getTerminalCount();
+        Node bottom = new Node(0);
+        Map<Integer, Node> frontier = new HashMap<>();
+        frontier.put(0, bottom);
+
+        for (int position = 0; position <= input.length; position++) {
+            int lookahead = position < input.length ? input[position] : endMarker;
+            reduceAll(frontier, lookahead);
+
+            if (position == input.length) {
+                break;
+            }
+            frontier = shiftAll(frontier, lookahead);
+            if (frontier.isEmpty()) {
+                return new DerivationResult(word, false);
+            }
+        }
+
+        for (Node node : frontier.values()) {
+            for (int action : table.getActions(node.state, endMarker)) {
+                if (table.isAccept(action)) {
+                    Edge edge = node.edgeTo(bottom);
+                    TreeNode tree = edge.value;
+                    return new DerivationResult(word, tree, analysis.getGrammar(), true);
+                }
+            }
+        }
+
+        return new DerivationResult(word, false);
+    }
+
+    /**
+     * Aplica todas las reducciones posibles sobre las cimas de la posición actual
+     */
+    private void reduceAll(Map<Integer, Node> frontier, int lookahead) {
+        Deque<Reduction> pending = new ArrayDeque<>();
+        Set<Node> queued = new HashSet<>();            // Cimas con todas sus reducciones por aplicar
+        Map<Node, Reduction> limited = new HashMap<>(); // Cimas con reducciones limitadas por aplicar
+        for (Node node : frontier.values()) {
+            pending.add(new Reduction(node, null));
+            queued.add(node);
+        }
+
+        while (!pending.isEmpty()) {
+            Reduction reduction = pending.poll();
+            Node node = reduction.node;
+            if (reduction.links == null) {
+                queued.remove(node);
+            } else {
+                limited.remove(node);
+            }
+
+            for (int action : table.getActions(node.state, lookahead)) {
+                if (LRTable.isShift(action) || table.isAccept(action)) {
+                    continue;
+                }
+
+                int rule = LRTable.target(action);
+                int lhs = analysis.getRuleLhs(rule);
+                int length = analysis.getRuleRhs(rule).length;
+                if (length == 0 && reduction.links != null) {
+                    continue;
+                }
+
+                for (Map.Entry<Node, List<TreeNode>> path : pathsFrom(node, length, reduction.links).entrySet()) {
+                    Node origin = path.getKey();
+                    int state = table.getGoto(origin.state, lhs);
+                    Node target = frontier.get(state);
+
+                    if (target != null && target.edgeTo(origin) != null) {
+                        continue;
+                    }
+
+                    TreeNode value = new TreeNode(analysis.getNonTerminalName(lhs));
+                    if (length == 0) {
+                        value.addChild(EPSILON, true);
+                    }
+                    for (TreeNode child : path.getValue()) {
+                        value.addChild(child);
+                    }
+
+                    Edge edge = new Edge(origin, value);
+                    boolean sameLevel = frontier.get(origin.state) == origin;
+                    if (target == null) {
+                        target = new Node(state);
+                        frontier.put(state, target);
+                        target.addEdge(edge, sameLevel);
+                        pending.add(new Reduction(target, null));
+                        queued.add(target);
+                    } else {
+                        // Nueva arista en una cima existente: solo los caminos que la usan son
+                        // nuevos; las aristas que llegan antes de procesar una cima se agrupan
+                        target.addEdge(edge, sameLevel);
+                        for (Node top : frontier.values()) {
+                            if (queued.contains(top)) {
+                                continue;
+                            }
+                            Reduction next = limited.get(top);
+                            if (next == null) {
+                                next = new Reduction(top, new HashMap<>());
+                                limited.put(top, next);
+                                pending.add(next);
+                            }
+                            next.links.computeIfAbsent(target, key -> new ArrayList<>(1)).add(edge);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Busca los nodos alcanzables retrocediendo exactamente la longitud indicada
+     * Para cada nodo destino se conserva un único camino (el primero encontrado),
+     * lo que evita la explosión de caminos en gramáticas ambiguas. Con aristas nuevas
+     * solo se siguen los caminos que usan alguna: como salen de cimas, antes de usarla el
+     * camino solo puede seguir aristas entre nodos de la posición actual
+     *
+     * @param links Origen y aristas nuevas por las que debe pasar el camino, o null
+     * @return Nodo destino y subárboles del camino, de izquierda a derecha
+     */
+    private Map<Node, List<TreeNode>> pathsFrom(Node node, int length, Map<Node, List<Edge>> links) {
+        Map<Node, Deque<TreeNode>> through = new LinkedHashMap<>(); // Caminos que ya usaron una arista nueva
+        Map<Node, Deque<TreeNode>> before = new LinkedHashMap<>();  // Caminos que aún no la usaron
+        (links == null ? through : before).put(node, new ArrayDeque<>());
+
+        for (int step = 0; step < length; step++) {
+            Map<Node, Deque<TreeNode>> nextThrough = new LinkedHashMap<>();
+            Map<Node, Deque<TreeNode>> nextBefore = new LinkedHashMap<>();
+            for (Map.Entry<Node, Deque<TreeNode>> entry : through.entrySet()) {
+                for (Edge edge : entry.getKey().edges) {
+                    extend(nextThrough, entry.getValue(), edge);
+                }
+            }
+            for (Map.Entry<Node, Deque<TreeNode>> entry : before.entrySet()) {
+                List<Edge> newEdges = links.get(entry.getKey());
+                if (newEdges != null) {
+                    for (Edge edge : newEdges) {
+                        extend(nextThrough, entry.getValue(), edge);
+                    }
+                }
+                if (entry.getKey().levelEdges != null) {
+                    for (Edge edge : entry.getKey().levelEdges) {
+                        extend(nextBefore, entry.getValue(), edge);
+                    }
+                }
+            }
+            through = nextThrough;
+            before = nextBefore;
+        }
+
+        Map<Node, List<TreeNode>> paths = new LinkedHashMap<>();
+        for (Map.Entry<Node, Deque<TreeNode>> entry : through.entrySet()) {
+            paths.put(entry.getKey(), new ArrayList<>(entry.getValue()));
+        }
+        return paths;
+    }
+
+    /**
+     * Agrega el camino extendido por una arista, si su destino no tenía ya uno
+     */
+    private static void extend(Map<Node, Deque<TreeNode>> paths, Deque<TreeNode> values, Edge edge) {
+        if (!paths.containsKey(edge.target)) {
+            Deque<TreeNode> extended = new ArrayDeque<>(values);
+            extended.addFirst(edge.value);
+            paths.put(edge.target, extended);
+        }
+    }
+
+    /**
+     * Desplaza el terminal actual desde todas las cimas que lo permiten
+     * @return Cimas de la siguiente posición
+     */
+    private Map<Integer, Node> shiftAll(Map<Integer, Node> frontier, int lookahead) {
+        Map<Integer, Node> next = new HashMap<>();
+        for (Node node : frontier.values()) {
+            for (int action : table.getActions(node.state, lookahead)) {
+                if (!LRTable.isShift(action)) {
+                    continue;
+                }
+                Node target = next.computeIfAbsent(LRTable.target(action), Node::new);
+                target.addEdge(new Edge(node, new TreeNode(analysis.getTerminalName(lookahead), true)), false);
+            }
+        }
+        return next;
+    }
+}
@@ -1,6 +1,9 @@
 package grammaranalyzer.controller;
 
+import grammaranalyzer.controller.EarleyParser.PrefixStatus;
+import grammaranalyzer.model.CompiledGrammar;
 import grammaranalyzer.model.Grammar;
+import grammaranalyzer.model.GrammarSerializer;
 import grammaranalyzer.model.TreeNode;
 import grammaranalyzer.model.DerivationResult;
 
@@ -9,6 +12,13 @@ import javafx.scene.control.TreeView;
 import javafx.scene.control.Alert;
 import javafx.scene.control.Alert.AlertType;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Stream;
+
 /**
  * Controlador principal que coordina la interacción entre la interfaz de usuario
  * y los modelos de datos y lógica de la aplicación
@@ -17,6 +27,8 @@ public class GrammarController {
     private Grammar grammar;
     private GrammarParser parser;
     private DerivationResult lastResult;
+    private final ResultCache resultCache = new ResultCache();
+    private final IncrementalValidator incrementalValidator = new IncrementalValidator();
 
     /**
      * Constructor
@@ -64,6 +76,56 @@ public class GrammarController {
         return grammar.addProduction(nonTerminal, production);
     }
 
+    /**
+     * Carga una gramática de un archivo y reemplaza la actual: texto BNF si la extensión
+     * es .bnf y formato binario en otro caso (ver {@link GrammarSerializer})
+     * @param path Archivo a leer
+     * @throws IOException Si no se puede leer el archivo o el formato binario no es válido
+     * @throws IllegalArgumentException Si el texto BNF no es válido
+     */
+    public void loadGrammar(Path path) throws IOException {
+        grammar = isBnfFile(path) ? GrammarSerializer.readBnf(path)
+                : Grammar.fromCompiled(GrammarSerializer.readBinary(path));
+        parser.setGrammar(grammar);
+        resultCache.clear();
+        lastResult = null;
+    }
+
+    /**
+     * Guarda la gramática actual: texto BNF si la extensión es .bnf y formato binario en otro caso
+     * @param path Archivo de destino
+     * @throws IOException Si no se puede escribir el archivo
+     */
+    public void saveGrammar(Path path) throws IOException {
+        if (isBnfFile(path)) {
+            GrammarSerializer.writeBnf(grammar.compile(), path);
+        } else {
+            GrammarSerializer.writeBinary(grammar.compile(), path);
+        }
+    }
+
+    private static boolean isBnfFile(Path path) {
+        return path.getFileName().toString().toLowerCase().endsWith(".bnf");
+    }
+
+    /**
+     * Obtiene los símbolos no terminales de la gramática en orden alfabético
+     * @return Lista de no terminales
+     */
+    public List<String> getNonTerminals() {
+        List<String> nonTerminals = new ArrayList<>(grammar.getNonTerminals());
+        Collections.sort(nonTerminals);
+        return nonTerminals;
+    }
+
+    /**
+     * Obtiene el símbolo inicial de la gramática
+     * @return Símbolo inicial (vacío si no está definido)
+     */
+    public String getStartSymbol() {
+        return grammar.getStartSymbol();
+    }
+
     /**
      * Verifica si la gramática actual es válida
      * @return true si es válida, false en caso contrario
@@ -82,6 +144,9 @@ public class GrammarController {
 
     /**
      * Verifica si una palabra pertenece al lenguaje generado por la gramática
+     * Si la palabra ya se verificó con el mismo algoritmo y el resultado sigue siendo válido
+     * para la versión actual de la gramática, se devuelve el guardado en la caché (ver
+     * {@link ResultCache})
      * @param word Palabra a verificar
      * @return Resultado de la derivación
      */
@@ -90,10 +155,105 @@ public class GrammarController {
             return new DerivationResult(word, false);
         }
 
-        lastResult = parser.analyzeWord(word);
+        CompiledGrammar snapshot = grammar.compile();
+        ParsingAlgorithm algorithm = parser.getAlgorithm();
+        DerivationResult result = resultCache.get(snapshot, algorithm, word);
+        if (result == null) {
+            result = parser.analyzeWord(word);
+            resultCache.put(snapshot, algorithm, word, result);
+        }
+        lastResult = result;
         return lastResult;
     }
 
+    /**
+     * Obtiene la caché de resultados de {@link #analyzeWord(String)}, con sus estadísticas
+     * @return Caché de resultados
+     */
+    public ResultCache getResultCache() {
+        return resultCache;
+    }
+
+    /**
+     * Verifica un lote de palabras en paralelo (ver {@link GrammarParser#analyzeAll(Stream)})
+     * No cambia el último resultado
+     * @param words Palabras a verificar
+     * @return Resultados en el mismo orden que las palabras
+     */
+    public List<DerivationResult> analyzeAll(Stream<String> words) {
+        return parser.analyzeAll(words);
+    }
+
+    /**
+     * Obtiene la instantánea compilada de la gramática actual; debe llamarse desde el
+     * hilo que edita la gramática
+     * @return Gramática compilada
+     */
+    public CompiledGrammar getCompiledGrammar() {
+        return grammar.compile();
+    }
+
+    /**
+     * Valida una palabra mientras se escribe (ver {@link IncrementalValidator}). Puede
+     * llamarse desde otro hilo, con una instantánea obtenida de {@link #getCompiledGrammar()}
+     * @param snapshot Instantánea de la gramática
+     * @param word Palabra a validar
+     * @return Estado de la palabra: pertenece, es prefijo de una que pertenece, no lo es
+     *         o tiene símbolos desconocidos
+     */
+    public PrefixStatus validateIncrementally(CompiledGrammar snapshot, String word) {
+        return incrementalValidator.validate(snapshot, word);
+    }
+
+    /**
+     * Obtiene el algoritmo usado para verificar palabras
+     * @return Algoritmo actual
+     */
+    public ParsingAlgorithm getParsingAlgorithm() {
+        return parser.getAlgorithm();
+    }
+
+    /**
+     * Establece el algoritmo usado para verificar palabras
+     * @param algorithm Algoritmo a usar
+     */
+    public void setParsingAlgorithm(ParsingAlgorithm algorithm) {
+        parser.setAlgorithm(algorithm);
+    }
+
+    /**
+     * Genera el informe LL(1) de la gramática (FIRST, FOLLOW y conflictos)
+     * @return Informe en formato texto
+     */
+    public String getLL1Report() {
+        if (!isGrammarValid()) {
+            return "La gramática no está completamente definida.";
+        }
+        return parser.getLL1Report();
+    }
+
+    /**
+     * Genera el informe de las tablas LR de la gramática (SLR(1) y LALR(1))
+     * @return Informe en formato texto
+     */
+    public String getLRReport() {
+        if (!isGrammarValid()) {
+            return "La gramática no está completamente definida.";
+        }
+        return parser.getLRReport();
+    }
+
+    /**
+     * Genera el informe del autómata finito mínimo si la gramática es regular
+     * @return Informe en formato texto
+     */
+    public String getAutomatonReport() {
+        if (!isGrammarValid()) {
+            return "La gramática no está completamente definida.";
+        }
+        return parser.getAutomatonReport();
+    }
+
     /**
      * Obtiene el resultado del último análisis
      * @return Último resultado o null si no hay análisis previo
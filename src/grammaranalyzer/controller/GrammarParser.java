@@ -1,10 +1,21 @@
 package grammaranalyzer.controller;
 
+import grammaranalyzer.model.ChomskyNormalForm;
+import grammaranalyzer.model.CompiledGrammar;
 import grammaranalyzer.model.Grammar;
+import grammaranalyzer.model.GrammarAnalysis;
+import grammaranalyzer.model.GrammarReduction;
+import grammaranalyzer.model.GreibachNormalForm;
+import grammaranalyzer.model.PredictiveTransform;
 import grammaranalyzer.model.TreeNode;
+import grammaranalyzer.model.Derivation;
 import grammaranalyzer.model.DerivationResult;
 
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
 
 /**
  * Analizador de gramáticas que implementa los algoritmos para verificar
@@ -12,7 +23,51 @@ import java.util.*;
  */
 public class GrammarParser {
     private Grammar grammar;
-    private int maxDepth = 10; // Profundidad máxima para evitar recursión infinita
+    /**
+     * Profundidad máxima admitida para la búsqueda de derivaciones y el árbol general
+     */
+    public static final int MAX_DEPTH_LIMIT = 100000;
+
+    private int maxDepth = 100; // Profundidad máxima para evitar búsquedas infinitas
+    private ParsingAlgorithm algorithm = ParsingAlgorithm.AUTO;
+    private boolean leftmostOnly = true; // Expandir solo el no terminal más a la izquierda
+    private int memoCapacity = 10000;    // Máximo de formas fallidas recordadas por palabra
+    private boolean reduceGrammar = true; // Buscar sobre la gramática reducida (sin ε, unitarias ni inútiles)
+    private boolean useGreibachForm = true; // Buscar sobre la FNG (un terminal por paso)
+    private boolean parallelSearch = false; // Repartir las ramas de la búsqueda entre varios hilos
+    private GrammarAnalysis searchAnalysis; // Gramática sobre la que trabaja la búsqueda actual
+    private FailedFormMemo failedForms;
+    private int[] targetSymbols;         // Palabra objetivo codificada (null si tiene símbolos desconocidos)
+    private boolean includeExploredBranches = false; // Depuración: conservar todas las ramas exploradas
+    private int[] pathPositions;         // Posición expandida en cada paso del camino actual
+    private int[] pathRules;             // Regla aplicada en cada paso
+    private int pathLength;              // Longitud del camino que llegó a la palabra
+    private PendingStacks pendingStacks; // Búsqueda sobre la FNG: pilas de no terminales pendientes
+    private AtomicInteger winningBranch; // Búsqueda paralela: menor rama con éxito hasta ahora
+    private int branchIndex;             // Búsqueda paralela: rama que explora esta copia
+    private final boolean pinnedSnapshot; // Copia de trabajo de analyzeAll: no vuelve a compilar la gramática
+
+    // Pilas de trabajo de los recorridos sin recursión (se reutilizan entre llamadas)
+    private final WorkStack<int[], TreeNode> searchStack = new WorkStack<>();
+    private final WorkStack<TreeNode, Integer> treeStack = new WorkStack<>();
+
+    // Analizadores construidos sobre una instantánea de la gramática (se invalidan cuando cambia)
+    private CompiledGrammar snapshot;
+    private GrammarAnalysis analysis;
+    private GrammarReduction reduction;
+    private boolean reductionBuilt;
+    private GreibachNormalForm greibachForm;
+    private boolean greibachBuilt;
+    private RegularParser regularParser;
+    private CYKParser cykParser;
+    private EarleyParser earleyParser;
+    private LL1Parser ll1Parser;
+    private PredictiveTransform predictiveTransform;
+    private LL1Parser transformedLL1Parser; // Sobre la gramática transformada (null si no pudo construirse)
+    private boolean transformBuilt;
+    private LRParser slrParser;
+    private LRParser lalrParser;
+    private GLRParser glrParser;
 
     /**
      * Constructor
@@ -20,6 +75,45 @@ public class GrammarParser {
      */
     public GrammarParser(Grammar grammar) {
         this.grammar = grammar;
+        this.pinnedSnapshot = false;
+    }
+
+    /**
+     * Copia de trabajo para {@link #analyzeAll(Stream)}: trabaja siempre sobre la misma
+     * instantánea y comparte los analizadores ya construidos sobre ella (después de
+     * construirse solo se leen), pero tiene sus propias pilas, caminos y tabla de formas
+     * fallidas, por lo que cada hilo usa su propia copia
+     * @param source Analizador del que se copian la configuración y los analizadores
+     * @param snapshot Instantánea de la gramática
+     */
+    private GrammarParser(GrammarParser source, CompiledGrammar snapshot) {
+        this.grammar = source.grammar;
+        this.pinnedSnapshot = true;
+        this.maxDepth = source.maxDepth;
+        this.algorithm = source.algorithm;
+        this.leftmostOnly = source.leftmostOnly;
+        this.memoCapacity = source.memoCapacity;
+        this.reduceGrammar = source.reduceGrammar;
+        this.useGreibachForm = source.useGreibachForm;
+        this.includeExploredBranches = source.includeExploredBranches;
+        this.snapshot = snapshot;
+        if (source.snapshot == snapshot) {
+            analysis = source.analysis;
+            reduction = source.reduction;
+            reductionBuilt = source.reductionBuilt;
+            greibachForm = source.greibachForm;
+            greibachBuilt = source.greibachBuilt;
+            regularParser = source.regularParser;
+            cykParser = source.cykParser;
+            earleyParser = source.earleyParser;
+            ll1Parser = source.ll1Parser;
+            predictiveTransform = source.predictiveTransform;
+            transformedLL1Parser = source.transformedLL1Parser;
+            transformBuilt = source.transformBuilt;
+            slrParser = source.slrParser;
+            lalrParser = source.lalrParser;
+            glrParser = source.glrParser;
+        }
     }
 
     /**
@@ -28,36 +122,612 @@ public class GrammarParser {
      */
     public void setGrammar(Grammar grammar) {
         this.grammar = grammar;
+        this.snapshot = null;
+    }
+
+    /**
+     * Obtiene el algoritmo usado por defecto en {@link #analyzeWord(String)}
+     * @return Algoritmo actual
+     */
+    public ParsingAlgorithm getAlgorithm() {
+        return algorithm;
+    }
+
+    /**
+     * Establece el algoritmo usado por defecto en {@link #analyzeWord(String)}
+     * @param algorithm Algoritmo a usar
+     */
+    public void setAlgorithm(ParsingAlgorithm algorithm) {
+        this.algorithm = algorithm;
+    }
+
+    /**
+     * Obtiene la profundidad máxima de la búsqueda de derivaciones
+     * @return Número máximo de pasos de derivación
+     */
+    public int getMaxDepth() {
+        return maxDepth;
+    }
+
+    /**
+     * Establece la profundidad máxima de la búsqueda de derivaciones
+     * La búsqueda usa una pila explícita, por lo que admite miles de pasos
+     * @param maxDepth Número máximo de pasos de derivación (entre 1 y MAX_DEPTH_LIMIT)
+     */
+    public void setMaxDepth(int maxDepth) {
+        this.maxDepth = Math.max(1, Math.min(maxDepth, MAX_DEPTH_LIMIT));
+    }
+
+    /**
+     * Indica si la búsqueda de derivaciones expande solo el no terminal más a la izquierda
+     * @return true si solo se buscan derivaciones más a la izquierda
+     */
+    public boolean isLeftmostOnly() {
+        return leftmostOnly;
+    }
+
+    /**
+     * Establece si la búsqueda de derivaciones expande solo el no terminal más a la izquierda
+     * Toda palabra derivable tiene una derivación más a la izquierda con el mismo número de
+     * pasos, por lo que este modo no pierde palabras y evita recorrer la misma forma
+     * sentencial por distintos órdenes de expansión
+     * @param leftmostOnly true para buscar solo derivaciones más a la izquierda
+     */
+    public void setLeftmostOnly(boolean leftmostOnly) {
+        this.leftmostOnly = leftmostOnly;
+    }
+
+    /**
+     * Indica si la búsqueda de derivaciones conserva todas las ramas exploradas
+     * @return true si el modo de depuración está activo
+     */
+    public boolean isIncludeExploredBranches() {
+        return includeExploredBranches;
+    }
+
+    /**
+     * Establece el modo de depuración de la búsqueda de derivaciones: si está activo, el
+     * resultado contiene el árbol de todas las expansiones intentadas y el registro de
+     * todas las formas visitadas; si no (por defecto), solo el árbol y los pasos del
+     * camino que llega a la palabra
+     * @param includeExploredBranches true para conservar las ramas exploradas
+     */
+    public void setIncludeExploredBranches(boolean includeExploredBranches) {
+        this.includeExploredBranches = includeExploredBranches;
+    }
+
+    /**
+     * Indica si la búsqueda de derivaciones trabaja sobre la gramática reducida
+     * @return true si se eliminan producciones ε, unitarias y símbolos inútiles antes de buscar
+     */
+    public boolean isReduceGrammar() {
+        return reduceGrammar;
+    }
+
+    /**
+     * Establece si la búsqueda de derivaciones trabaja sobre la gramática reducida
+     * (ver {@link GrammarReduction}). La gramática reducida genera el mismo lenguaje con
+     * menos ramas inútiles, y el árbol y los pasos se reescriben con las producciones
+     * originales; el registro del modo de depuración muestra las formas reducidas
+     * @param reduceGrammar true para buscar sobre la gramática reducida
+     */
+    public void setReduceGrammar(boolean reduceGrammar) {
+        this.reduceGrammar = reduceGrammar;
+    }
+
+    /**
+     * Indica si la búsqueda de derivaciones trabaja sobre la Forma Normal de Greibach
+     * @return true si cada paso de la búsqueda produce un terminal de la palabra
+     */
+    public boolean isUseGreibachForm() {
+        return useGreibachForm;
+    }
+
+    /**
+     * Establece si la búsqueda de derivaciones trabaja sobre la Forma Normal de Greibach
+     * (ver {@link GreibachNormalForm}). Cada paso produce el siguiente terminal de la palabra,
+     * por lo que la profundidad es exactamente su longitud y no depende de
+     * {@link #setMaxDepth(int)}; las candidatas de cada paso salen del índice (no terminal,
+     * terminal). El modo de depuración y las gramáticas cuya FNG supera el límite de reglas
+     * usan la búsqueda general
+     * @param useGreibachForm true para buscar sobre la FNG
+     */
+    public void setUseGreibachForm(boolean useGreibachForm) {
+        this.useGreibachForm = useGreibachForm;
+    }
+
+    /**
+     * Indica si la búsqueda de derivaciones reparte sus ramas entre varios hilos
+     * @return true si la búsqueda es paralela
+     */
+    public boolean isParallelSearch() {
+        return parallelSearch;
+    }
+
+    /**
+     * Establece si la búsqueda de derivaciones reparte sus ramas entre los hilos del
+     * {@link ForkJoinPool#commonPool() pool común}: los primeros niveles de la búsqueda se
+     * expanden hasta tener varias ramas por hilo, y cada rama se explora en profundidad en
+     * una tarea, con una tabla de formas fallidas compartida. Cuando una rama encuentra la
+     * palabra se cancelan las ramas posteriores, y el resultado es el de la primera rama
+     * con éxito en el orden de la búsqueda secuencial, por lo que no depende de los hilos.
+     * No se aplica en el modo de depuración ni en {@link #analyzeAll(Stream)}, que ya
+     * reparte las palabras
+     * @param parallelSearch true para buscar en paralelo
+     */
+    public void setParallelSearch(boolean parallelSearch) {
+        this.parallelSearch = parallelSearch;
+    }
+
+    /**
+     * Establece la capacidad de la tabla de formas fallidas de la búsqueda de derivaciones
+     * @param memoCapacity Número máximo de formas guardadas (0 desactiva la tabla)
+     */
+    public void setMemoCapacity(int memoCapacity) {
+        this.memoCapacity = Math.max(0, memoCapacity);
     }
 
     /**
      * Verifica si una palabra pertenece al lenguaje generado por la gramática
-     * y genera el árbol de derivación correspondiente
+     * y genera el árbol de derivación correspondiente, usando el algoritmo actual
      *
      * @param word Palabra a verificar
      * @return Resultado de la derivación
      */
     public DerivationResult analyzeWord(String word) {
-        // Verificar que la gramática esté correctamente definida
+        return analyzeWord(word, algorithm);
+    }
+
+    /**
+     * Verifica si una palabra pertenece al lenguaje generado por la gramática
+     * usando un algoritmo específico
+     *
+     * @param word Palabra a verificar
+     * @param algorithm Algoritmo a usar
+     * @return Resultado de la derivación
+     */
+    public DerivationResult analyzeWord(String word, ParsingAlgorithm algorithm) {
+        // Verificar que la gramática esté correctamente definida (las copias de trabajo
+        // reciben una gramática ya verificada)
+        if (!pinnedSnapshot && !grammar.isValid()) {
+            return new DerivationResult(word, false);
+        }
+
+        switch (algorithm) {
+            case DERIVATION:
+                return deriveByBacktracking(word);
+            case DFA:
+                return getRegularParser().isRegular() ? getRegularParser().analyzeWord(word)
+                        : getEarleyParser().analyzeWord(word);
+            case CYK:
+                return getCYKParser().analyzeWord(word);
+            case EARLEY:
+                return getEarleyParser().analyzeWord(word);
+            case LL1:
+                // Si la gramática no es LL(1) se prueba con la gramática sin recursión por la
+                // izquierda y factorizada antes de recurrir a Earley
+                if (getLL1Parser().isLL1()) {
+                    return getLL1Parser().analyzeWord(word);
+                }
+                return isTransformedLL1() ? analyzeTransformed(word) : getEarleyParser().analyzeWord(word);
+            case SLR1:
+                return getSLRParser().isDeterministic() ? getSLRParser().analyzeWord(word)
+                        : getEarleyParser().analyzeWord(word);
+            case LALR1:
+                return getLALRParser().isDeterministic() ? getLALRParser().analyzeWord(word)
+                        : getEarleyParser().analyzeWord(word);
+            case GLR:
+                return getGLRParser().analyzeWord(word);
+            default:
+                // AUTO: el primer analizador lineal que admita la gramática (el AFD mínimo
+                // si es regular, o LL(1) sobre la gramática transformada si la original no lo
+                // es); en otro caso GLR, que acepta cualquier gramática libre de contexto y
+                // solo se bifurca en los conflictos de la tabla LALR(1)
+                if (getRegularParser().isRegular()) {
+                    return getRegularParser().analyzeWord(word);
+                }
+                if (getLL1Parser().isLL1()) {
+                    return getLL1Parser().analyzeWord(word);
+                }
+                if (getLALRParser().isDeterministic()) {
+                    return getLALRParser().analyzeWord(word);
+                }
+                if (isTransformedLL1()) {
+                    return analyzeTransformed(word);
+                }
+                return getGLRParser().analyzeWord(word);
+        }
+    }
+
+    /**
+     * Verifica un lote de palabras en paralelo con el algoritmo actual, en el
+     * {@link ForkJoinPool#commonPool() pool común}
+     *
+     * @param words Palabras a verificar
+     * @return Resultados en el mismo orden que las palabras
+     * @see #analyzeAll(Stream, ForkJoinPool)
+     */
+    public List<DerivationResult> analyzeAll(Stream<String> words) {
+        return analyzeAll(words, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Verifica un lote de palabras en paralelo con el algoritmo actual. Los analizadores
+     * que necesita el algoritmo se construyen una sola vez, en el hilo que llama, sobre
+     * una instantánea fija de la gramática; el lote se reparte en tramos de palabras
+     * consecutivas entre los hilos del pool, y cada hilo trabaja con su propia copia del
+     * analizador (ver {@link #GrammarParser(GrammarParser, CompiledGrammar)}). Cada
+     * resultado se guarda en la posición de su palabra, por lo que se conserva el orden.
+     *
+     * La llamada no modifica este analizador: puede seguir usándose, y la gramática puede
+     * seguir editándose, una vez tomada la instantánea
+     *
+     * @param words Palabras a verificar
+     * @param pool Pool de hilos en el que se reparte el lote
+     * @return Resultados en el mismo orden que las palabras
+     */
+    public List<DerivationResult> analyzeAll(Stream<String> words, ForkJoinPool pool) {
+        String[] input = words.toArray(String[]::new);
+        DerivationResult[] results = new DerivationResult[input.length];
         if (!grammar.isValid()) {
+            for (int i = 0; i < input.length; i++) {
+                results[i] = new DerivationResult(input[i], false);
+            }
+            return Arrays.asList(results);
+        }
+
+        checkGrammarVersion();
+        GrammarParser prototype = new GrammarParser(this, snapshot);
+        prototype.prepareEngines();
+        ThreadLocal<GrammarParser> workers =
+                ThreadLocal.withInitial(() -> new GrammarParser(prototype, prototype.snapshot));
+        // Tramos pequeños: el costo por palabra varía mucho y el robo de trabajo equilibra la carga
+        int leafSize = Math.max(1, input.length / (pool.getParallelism() * 16));
+        pool.invoke(new BatchTask(input, results, 0, input.length, leafSize, workers));
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Construye los analizadores que usa el algoritmo actual, para que las copias de
+     * trabajo los compartan en lugar de construirlos cada una
+     */
+    private void prepareEngines() {
+        switch (algorithm) {
+            case DERIVATION:
+                getAnalysis();
+                if (!useGreibachForm || includeExploredBranches || getGreibachForm() == null) {
+                    if (reduceGrammar) {
+                        getReduction();
+                    }
+                }
+                break;
+            case DFA:
+                if (!getRegularParser().isRegular()) {
+                    getEarleyParser();
+                }
+                break;
+            case CYK:
+                getCYKParser();
+                break;
+            case EARLEY:
+                getEarleyParser();
+                break;
+            case LL1:
+                if (!getLL1Parser().isLL1() && !isTransformedLL1()) {
+                    getEarleyParser();
+                }
+                break;
+            case SLR1:
+                if (!getSLRParser().isDeterministic()) {
+                    getEarleyParser();
+                }
+                break;
+            case LALR1:
+                if (!getLALRParser().isDeterministic()) {
+                    getEarleyParser();
+                }
+                break;
+            case GLR:
+                getGLRParser();
+                break;
+            default:
+                if (getRegularParser().isRegular() || getLL1Parser().isLL1()
+                        || getLALRParser().isDeterministic() || isTransformedLL1()) {
+                    break;
+                }
+                getGLRParser();
+        }
+    }
+
+    /**
+     * Tramo [from, to) de un lote de {@link #analyzeAll(Stream, ForkJoinPool)}: se divide
+     * a la mitad hasta llegar al tamaño de hoja, y cada hoja se verifica con la copia del
+     * analizador del hilo que la ejecuta
+     */
+    private static final class BatchTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final String[] words;
+        private final DerivationResult[] results;
+        private final int from;
+        private final int to;
+        private final int leafSize;
+        private final ThreadLocal<GrammarParser> workers;
+
+        BatchTask(String[] words, DerivationResult[] results, int from, int to, int leafSize,
+                  ThreadLocal<GrammarParser> workers) {
+            this.words = words;
+            this.results = results;
+            this.from = from;
+            this.to = to;
+            this.leafSize = leafSize;
+            this.workers = workers;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= leafSize) {
+                GrammarParser worker = workers.get();
+                for (int i = from; i < to; i++) {
+                    results[i] = worker.analyzeWord(words[i]);
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new BatchTask(words, results, from, middle, leafSize, workers),
+                    new BatchTask(words, results, middle, to, leafSize, workers));
+        }
+    }
+
+    /**
+     * Genera el informe LL(1) de la gramática: FIRST, FOLLOW y conflictos de la tabla
+     * @return Informe en formato texto
+     */
+    public String getLL1Report() {
+        String report = getLL1Parser().getConflictReport();
+        if (getLL1Parser().isLL1() || getTransformedLL1Parser() == null) {
+            return report;
+        }
+        return report + "\n" + predictiveTransform + "\n" + getTransformedLL1Parser().getConflictReport();
+    }
+
+    /**
+     * Verifica una palabra con el analizador LL(1) de la gramática transformada y
+     * reescribe el árbol obtenido con las producciones originales
+     *
+     * @param word Palabra a verificar
+     * @return Resultado de la derivación en términos de la gramática original
+     */
+    private DerivationResult analyzeTransformed(String word) {
+        DerivationResult transformed = getTransformedLL1Parser().analyzeWord(word);
+        if (!transformed.belongsToLanguage()) {
             return new DerivationResult(word, false);
         }
+        TreeNode tree = predictiveTransform.restoreTree(transformed.getDerivationTree());
+        return new DerivationResult(word, tree, snapshot, false);
+    }
+
+    /**
+     * Genera el informe de las tablas SLR(1) y LALR(1) de la gramática
+     * @return Informe en formato texto
+     */
+    public String getLRReport() {
+        return getSLRParser().getTable().getReport() + "\n" + getLALRParser().getTable().getReport();
+    }
+
+    /**
+     * Genera el informe del AFD mínimo de la gramática, si es regular
+     * @return Informe en formato texto
+     */
+    public String getAutomatonReport() {
+        return getRegularParser().getReport();
+    }
+
+    /**
+     * Descarta los analizadores construidos si la gramática cambió, es decir, si su
+     * instantánea compilada ya no es la misma sobre la que se construyeron
+     * Si la instantánea nueva solo agrega producciones a la anterior, el análisis (anulables,
+     * FIRST y FOLLOW) y la tabla LL(1) se actualizan a partir de los anteriores en lugar de
+     * descartarse (ver {@link CompiledGrammar#getRulesAddedSince}); las formas normales y los
+     * autómatas LR y finitos dependen de todas las reglas y se vuelven a construir
+     */
+    private void checkGrammarVersion() {
+        if (pinnedSnapshot) {
+            return;
+        }
+        CompiledGrammar current = grammar.compile();
+        if (snapshot != current) {
+            GrammarAnalysis previousAnalysis = null;
+            LL1Parser previousLL1Parser = null;
+            if (snapshot != null && analysis != null && current.getRulesAddedSince(snapshot) != null) {
+                previousAnalysis = analysis;
+                previousLL1Parser = ll1Parser;
+            }
+            analysis = null;
+            reduction = null;
+            reductionBuilt = false;
+            greibachForm = null;
+            greibachBuilt = false;
+            regularParser = null;
+            cykParser = null;
+            earleyParser = null;
+            ll1Parser = null;
+            predictiveTransform = null;
+            transformedLL1Parser = null;
+            transformBuilt = false;
+            slrParser = null;
+            lalrParser = null;
+            glrParser = null;
+            snapshot = current;
+            if (previousAnalysis != null) {
+                analysis = new GrammarAnalysis(previousAnalysis, current);
+                if (previousLL1Parser != null) {
+                    ll1Parser = new LL1Parser(previousLL1Parser, analysis);
+                }
+            }
+        }
+    }
+
+    private GrammarAnalysis getAnalysis() {
+        checkGrammarVersion();
+        if (analysis == null) {
+            analysis = new GrammarAnalysis(snapshot);
+        }
+        return analysis;
+    }
+
+    /**
+     * Obtiene la gramática reducida
+     * @return Gramática reducida, o null si no pudo construirse
+     */
+    private GrammarReduction getReduction() {
+        checkGrammarVersion();
+        if (!reductionBuilt) {
+            reduction = GrammarReduction.reduce(getAnalysis());
+            reductionBuilt = true;
+        }
+        return reduction;
+    }
+
+    /**
+     * Obtiene la gramática en Forma Normal de Greibach
+     * @return Gramática en FNG, o null si no pudo construirse
+     */
+    private GreibachNormalForm getGreibachForm() {
+        checkGrammarVersion();
+        if (!greibachBuilt) {
+            greibachForm = GreibachNormalForm.fromGrammar(getAnalysis());
+            greibachBuilt = true;
+        }
+        return greibachForm;
+    }
+
+    private RegularParser getRegularParser() {
+        checkGrammarVersion();
+        if (regularParser == null) {
+            regularParser = new RegularParser(getAnalysis());
+        }
+        return regularParser;
+    }
+
+    private CYKParser getCYKParser() {
+        checkGrammarVersion();
+        if (cykParser == null) {
+            cykParser = new CYKParser(ChomskyNormalForm.fromGrammar(snapshot));
+        }
+        return cykParser;
+    }
+
+    private EarleyParser getEarleyParser() {
+        checkGrammarVersion();
+        if (earleyParser == null) {
+            earleyParser = new EarleyParser(getAnalysis());
+        }
+        return earleyParser;
+    }
+
+    private LL1Parser getLL1Parser() {
+        checkGrammarVersion();
+        if (ll1Parser == null) {
+            ll1Parser = new LL1Parser(getAnalysis());
+        }
+        return ll1Parser;
+    }
+
+    /**
+     * Obtiene el analizador LL(1) de la gramática sin recursión por la izquierda y factorizada
+     * @return Analizador, o null si la transformación superó el límite de reglas
+     */
+    private LL1Parser getTransformedLL1Parser() {
+        checkGrammarVersion();
+        if (!transformBuilt) {
+            predictiveTransform = PredictiveTransform.transform(getAnalysis());
+            if (predictiveTransform != null) {
+                transformedLL1Parser = new LL1Parser(predictiveTransform.getAnalysis());
+            }
+            transformBuilt = true;
+        }
+        return transformedLL1Parser;
+    }
+
+    private boolean isTransformedLL1() {
+        return getTransformedLL1Parser() != null && getTransformedLL1Parser().isLL1();
+    }
+
+    private LRParser getSLRParser() {
+        checkGrammarVersion();
+        if (slrParser == null) {
+            slrParser = new LRParser(LRTable.build(getAnalysis(), LRTable.Kind.SLR1));
+        }
+        return slrParser;
+    }
+
+    private LRParser getLALRParser() {
+        checkGrammarVersion();
+        if (lalrParser == null) {
+            lalrParser = new LRParser(LRTable.build(getAnalysis(), LRTable.Kind.LALR1));
+        }
+        return lalrParser;
+    }
+
+    private GLRParser getGLRParser() {
+        checkGrammarVersion();
+        if (glrParser == null) {
+            glrParser = new GLRParser(getLALRParser().getTable());
+        }
+        return glrParser;
+    }
+
+    /**
+     * Verifica una palabra mediante la búsqueda de derivaciones
+     *
+     * @param word Palabra a verificar
+     * @return Resultado de la derivación
+     */
+    private DerivationResult deriveByBacktracking(String word) {
 
         // Inicializar resultado
         DerivationResult result = new DerivationResult(word, false);
 
         // Intentar derivar la palabra
         try {
-            // Para gramáticas regulares, utilizaremos un enfoque de derivación directa
-            // Para gramáticas más complejas se podría implementar CYK u otros algoritmos
+            // Búsqueda de derivación directa, útil para gramáticas regulares simples
+            // Para gramáticas más complejas se recomienda CYK (ver ParsingAlgorithm)
+
+            if (useGreibachForm && !includeExploredBranches && getGreibachForm() != null) {
+                return deriveByGreibach(word, getGreibachForm());
+            }
+
+            GrammarReduction reduction = reduceGrammar ? getReduction() : null;
+            searchAnalysis = reduction != null ? reduction.getAnalysis() : getAnalysis();
+            targetSymbols = searchAnalysis.encodeWord(word);
+            if (reduction != null && targetSymbols != null && targetSymbols.length == 0) {
+                // La gramática reducida no genera ε: se usa la derivación de ε de la original
+                return deriveEmptyWord(word);
+            }
 
             StringBuilder steps = new StringBuilder();
-            TreeNode rootNode = new TreeNode(grammar.getStartSymbol());
+            TreeNode rootNode = includeExploredBranches ? new TreeNode(startSymbolName()) : null;
+            boolean parallel = parallelSearch && !includeExploredBranches;
+            failedForms = parallel ? FailedFormMemo.concurrent(memoCapacity) : new FailedFormMemo(memoCapacity);
+            pathPositions = new int[maxDepth + 1];
+            pathRules = new int[maxDepth + 1];
 
-            boolean canDerive = deriveWord(word, grammar.getStartSymbol(), rootNode, steps, 0);
+            boolean canDerive = parallel ? deriveInParallel(null, targetSymbols)
+                    : deriveWord(rootNode, steps, new int[]{searchAnalysis.getGrammar().getStartSymbol()}, 0);
 
-            // Actualizar el resultado
-            result = new DerivationResult(word, canDerive, rootNode, steps.toString());
+            // Actualizar el resultado: sin depuración, el árbol y los pasos salen del camino exitoso
+            if (includeExploredBranches) {
+                result = new DerivationResult(word, canDerive, rootNode, steps.toString());
+            } else if (canDerive && reduction != null) {
+                TreeNode derivationTree = reduction.restoreTree(pathPositions, pathRules, pathLength);
+                result = new DerivationResult(word, derivationTree, snapshot, false);
+            } else if (canDerive) {
+                // El camino ya es la derivación: el árbol y los pasos se generan al pedirlos
+                result = new DerivationResult(word,
+                        new Derivation(searchAnalysis.getGrammar(), pathPositions, pathRules, pathLength));
+            }
+            result.setMemoStatistics(failedForms.getHits(), failedForms.getMisses());
 
         } catch (Exception e) {
             System.err.println("Error al analizar la palabra: " + e.getMessage());
@@ -68,81 +738,649 @@ public class GrammarParser {
     }
 
     /**
-     * Método recursivo para intentar derivar una palabra
+     * Verifica una palabra buscando su derivación más a la izquierda en la FNG
      *
-     * @param targetWord Palabra objetivo
-     * @param currentString Cadena actual en la derivación
-     * @param parentNode Nodo padre en el árbol de derivación
-     * @param steps Pasos de derivación (output)
-     * @param depth Profundidad actual de recursión
-     * @return true si se puede derivar la palabra, false en caso contrario
+     * @param word Palabra a verificar
+     * @param greibach Gramática en FNG
+     * @return Resultado de la derivación en términos de la gramática original
      */
-    private boolean deriveWord(String targetWord, String currentString,
-                               TreeNode parentNode, StringBuilder steps, int depth) {
-        // Controlar profundidad máxima para evitar recursión infinita
-        if (depth > maxDepth) {
+    private DerivationResult deriveByGreibach(String word, GreibachNormalForm greibach) {
+        int[] target = greibach.getGrammar().encodeWord(word);
+        if (target == null) {
+            return new DerivationResult(word, false);
+        }
+        if (target.length == 0) {
+            return deriveEmptyWord(word);
+        }
+
+        failedForms = parallelSearch ? FailedFormMemo.concurrent(memoCapacity) : new FailedFormMemo(memoCapacity);
+        pendingStacks = new PendingStacks();
+        pathRules = new int[target.length];
+        DerivationResult result = new DerivationResult(word, false);
+        boolean found = parallelSearch ? deriveInParallel(greibach, target)
+                : deriveGreibach(greibach, target, greibachStart(greibach));
+        if (found) {
+            TreeNode derivationTree = greibach.restoreTree(pathRules, target.length);
+            result = new DerivationResult(word, derivationTree, snapshot, false);
+        }
+        result.setMemoStatistics(failedForms.getHits(), failedForms.getMisses());
+        pendingStacks = null;
+        return result;
+    }
+
+    /**
+     * Forma inicial de la búsqueda sobre la FNG: posición 0 y solo el símbolo inicial pendiente
+     */
+    private int[] greibachStart(GreibachNormalForm greibach) {
+        return new int[]{0, pendingStacks.push(PendingStacks.EMPTY, greibach.getGrammar().getStartSymbol())};
+    }
+
+    /**
+     * Búsqueda en profundidad sobre la FNG, con una pila explícita: el marco i corresponde
+     * al paso que produce el terminal i de la palabra. Su forma es el par (posición i, pila
+     * de no terminales pendientes en {@link PendingStacks}); los terminales ya producidos
+     * son el prefijo de la palabra. Su índice es la siguiente regla candidata de (primer
+     * pendiente, terminal i). Como las pilas se comparten entre formas, cada paso cuesta lo
+     * que mide la regla aplicada y no lo que mide la forma. Como cada no terminal produce
+     * al menos un terminal, se descartan las formas con más pendientes que terminales por
+     * producir
+     *
+     * @param greibach Gramática en FNG
+     * @param target Palabra codificada (no vacía)
+     * @param startForm Forma de la que parte la búsqueda (la inicial es la de
+     *                  {@link #greibachStart}); los pasos anteriores a su posición deben
+     *                  estar ya en pathRules
+     * @return true si se encontró la derivación (reglas en pathRules)
+     */
+    private boolean deriveGreibach(GreibachNormalForm greibach, int[] target, int[] startForm) {
+        CompiledGrammar compiled = greibach.getGrammar();
+        WorkStack<int[], TreeNode> stack = searchStack;
+        stack.clear();
+        stack.push(startForm, null);
+        try {
+            while (!stack.isEmpty()) {
+                if (isCancelled()) {
+                    return false;
+                }
+                int frame = stack.size() - 1;
+                int[] form = stack.first(frame);
+                int[] candidates = greibach.getRules(pendingStacks.top(form[1]), target[form[0]]);
+                int candidate = stack.index(frame);
+                if (candidate >= candidates.length) {
+                    failedForms.recordFailure(form, 0);
+                    stack.pop();
+                    continue;
+                }
+                stack.setIndex(frame, candidate + 1);
+
+                int[] newForm = greibachSuccessor(form, compiled.getRuleRhs(candidates[candidate]), target.length);
+                if (newForm == null) {
+                    continue;
+                }
+                if (newForm[0] == target.length) {
+                    for (int step = 0; step <= frame; step++) {
+                        int[] stepForm = stack.first(step);
+                        pathRules[stepForm[0]] = greibach.getRules(pendingStacks.top(stepForm[1]),
+                                target[stepForm[0]])[stack.index(step) - 1];
+                    }
+                    return true;
+                }
+                if (!failedForms.isKnownFailure(newForm, 0)) {
+                    stack.push(newForm, null);
+                }
+            }
             return false;
+        } finally {
+            stack.clear();
+        }
+    }
+
+    /**
+     * Forma de la FNG que resulta de reemplazar el primer pendiente por los no terminales
+     * de una regla, con la posición avanzada en uno
+     *
+     * @param form Forma actual (posición y pila de pendientes)
+     * @param rhs Lado derecho de la regla (un terminal seguido de no terminales)
+     * @param length Longitud de la palabra
+     * @return Nueva forma, o null si tiene más pendientes que terminales por producir o
+     *         si no quedan pendientes antes del final de la palabra
+     */
+    private int[] greibachSuccessor(int[] form, int[] rhs, int length) {
+        int depth = form[0] + 1;
+        int rest = pendingStacks.pop(form[1]);
+        int pending = pendingStacks.size(rest) + rhs.length - 1;
+        if (pending > length - depth || (pending == 0 && depth < length)) {
+            return null;
+        }
+        int node = rest;
+        for (int i = rhs.length - 1; i >= 1; i--) {
+            node = pendingStacks.push(node, rhs[i]);
+        }
+        return new int[]{depth, node};
+    }
+
+    /**
+     * Búsqueda paralela de la derivación (ver {@link #setParallelSearch(boolean)}): expande
+     * por niveles los primeros pasos de la búsqueda, conservando el orden en que la búsqueda
+     * secuencial recorre las ramas, hasta tener BRANCHES_PER_THREAD ramas por hilo (o
+     * MAX_SPLIT_LEVELS niveles), y explora cada rama en una tarea. Gana la primera rama con
+     * éxito en ese orden: al tener éxito una rama se cancelan las posteriores, pero las
+     * anteriores terminan por si también lo tienen. Como la tabla de formas fallidas solo
+     * descarta formas que no derivan la palabra, el camino es el de la búsqueda secuencial
+     *
+     * @param greibach Gramática en FNG, o null para buscar sobre searchAnalysis
+     * @param target Palabra codificada (no vacía si se busca sobre la FNG)
+     * @return true si se encontró la derivación (camino en pathPositions, pathRules y pathLength)
+     */
+    private boolean deriveInParallel(GreibachNormalForm greibach, int[] target) {
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+        SearchBranch root;
+        if (greibach != null) {
+            root = new SearchBranch(greibachStart(greibach), 0, false);
+        } else {
+            int[] start = {searchAnalysis.getGrammar().getStartSymbol()};
+            int status = checkForm(start, 0);
+            if (status == REJECTED) {
+                return false;
+            }
+            root = new SearchBranch(start, 0, status == FOUND);
         }
 
-        // Si la cadena actual ya excede la longitud de la palabra objetivo, fallar
-        if (currentString.length() > targetWord.length()) {
+        // Expandir por niveles; una rama que ya es la palabra deja sin efecto las siguientes
+        List<SearchBranch> frontier = new ArrayList<>(List.of(root));
+        int wanted = pool.getParallelism() * BRANCHES_PER_THREAD;
+        for (int level = 0; level < MAX_SPLIT_LEVELS && frontier.size() < wanted; level++) {
+            if (frontier.isEmpty() || frontier.get(0).found) {
+                break;
+            }
+            List<SearchBranch> next = new ArrayList<>();
+            for (SearchBranch branch : frontier) {
+                if (branch.found) {
+                    next.add(branch);
+                    break;
+                }
+                expandBranch(branch, greibach, target, next);
+            }
+            frontier = truncateAfterFound(next);
+        }
+        if (frontier.isEmpty()) {
             return false;
         }
 
-        // Si hemos llegado a la palabra objetivo, éxito
-        if (currentString.equals(targetWord)) {
-            steps.append(depth).append(". ").append(currentString).append(" (Éxito!)\n");
-            return true;
+        // Cada hilo explora sus ramas con una copia de trabajo que comparte la tabla de formas fallidas
+        SearchBranch[] branches = frontier.toArray(new SearchBranch[0]);
+        AtomicInteger winner = new AtomicInteger(branches.length);
+        CompiledGrammar pinned = snapshot;
+        GrammarAnalysis analysis = searchAnalysis;
+        int[] symbols = targetSymbols;
+        FailedFormMemo memo = failedForms;
+        PendingStacks stacks = pendingStacks;
+        ThreadLocal<GrammarParser> workers = ThreadLocal.withInitial(() -> {
+            GrammarParser worker = new GrammarParser(this, pinned);
+            worker.searchAnalysis = analysis;
+            worker.targetSymbols = symbols;
+            worker.failedForms = memo;
+            worker.pendingStacks = stacks;
+            worker.winningBranch = winner;
+            return worker;
+        });
+        pool.invoke(new BranchTask(branches, 0, branches.length, greibach, target, winner, workers));
+
+        int best = winner.get();
+        if (best == branches.length) {
+            return false;
         }
+        SearchBranch found = branches[best];
+        pathPositions = found.pathPositions;
+        pathRules = found.pathRules;
+        pathLength = found.pathLength;
+        return true;
+    }
 
-        // Registrar paso actual
-        steps.append(depth).append(". ").append(currentString).append("\n");
-
-        // Intentar todas las posibles derivaciones
-        // Para cada símbolo no terminal en la cadena actual
-        for (int i = 0; i < currentString.length(); i++) {
-            String symbol = currentString.substring(i, i + 1);
-
-            // Si es un símbolo no terminal, intentar aplicar producciones
-            if (grammar.getNonTerminals().contains(symbol)) {
-                // Obtener todas las producciones para este no terminal
-                List<String> productions = grammar.getProductionsFor(symbol);
-
-                // Probar cada producción
-                for (String production : productions) {
-                    // Construir la nueva cadena reemplazando el no terminal por su producción
-                    String prefix = currentString.substring(0, i);
-                    String suffix = currentString.substring(i + 1);
-
-                    // Manejar épsilon (producción vacía)
-                    String newString;
-                    if (production.equals("ε")) {
-                        newString = prefix + suffix;
-                    } else {
-                        newString = prefix + production + suffix;
-                    }
+    /**
+     * Descarta las ramas posteriores a la primera que ya es la palabra objetivo
+     */
+    private static List<SearchBranch> truncateAfterFound(List<SearchBranch> branches) {
+        for (int i = 0; i < branches.size(); i++) {
+            if (branches.get(i).found) {
+                return branches.subList(0, i + 1);
+            }
+        }
+        return branches;
+    }
+
+    /**
+     * Agrega a la lista, en el orden de la búsqueda secuencial, las ramas que salen de
+     * expandir una rama un paso; las formas descartadas no se agregan
+     */
+    private void expandBranch(SearchBranch branch, GreibachNormalForm greibach, int[] target,
+                              List<SearchBranch> children) {
+        int[] form = branch.form;
+        if (greibach != null) {
+            CompiledGrammar compiled = greibach.getGrammar();
+            for (int rule : greibach.getRules(pendingStacks.top(form[1]), target[form[0]])) {
+                int[] newForm = greibachSuccessor(form, compiled.getRuleRhs(rule), target.length);
+                if (newForm != null) {
+                    children.add(branch.child(newForm, 0, rule, newForm[0] == target.length));
+                }
+            }
+            return;
+        }
+        CompiledGrammar compiled = searchAnalysis.getGrammar();
+        for (int position = 0; position < form.length; position++) {
+            if (form[position] < 0) {
+                continue;
+            }
+            for (int rule : compiled.getRulesFor(form[position])) {
+                int[] newForm = replaceSymbol(form, position, compiled.getRuleRhs(rule));
+                int status = checkForm(newForm, branch.depth + 1);
+                if (status != REJECTED) {
+                    children.add(branch.child(newForm, position, rule, status == FOUND));
+                }
+            }
+            if (leftmostOnly) {
+                break;
+            }
+        }
+    }
+
+    /**
+     * Explora una rama de la búsqueda paralela en esta copia de trabajo y, si tiene éxito,
+     * guarda en ella el camino completo
+     */
+    private void searchBranch(SearchBranch branch, int index, GreibachNormalForm greibach, int[] target) {
+        branchIndex = index;
+        if (isCancelled()) {
+            return;
+        }
+        int length = greibach != null ? target.length : maxDepth + 1;
+        pathPositions = Arrays.copyOf(branch.positions, length);
+        pathRules = Arrays.copyOf(branch.rules, length);
+        boolean found;
+        if (branch.found) {
+            pathLength = branch.depth;
+            found = true;
+        } else if (greibach != null) {
+            found = deriveGreibach(greibach, target, branch.form);
+            pathLength = target.length;
+        } else {
+            found = deriveWord(null, null, branch.form, branch.depth);
+        }
+        if (found) {
+            branch.pathPositions = pathPositions;
+            branch.pathRules = pathRules;
+            branch.pathLength = pathLength;
+            winningBranch.accumulateAndGet(index, Math::min);
+        }
+    }
+
+    /**
+     * Indica si la rama que explora esta copia ya no puede ganar porque una anterior tuvo éxito
+     */
+    private boolean isCancelled() {
+        return winningBranch != null && winningBranch.get() < branchIndex;
+    }
+
+    // Búsqueda paralela: ramas por hilo y niveles máximos que se expanden antes de repartir
+    private static final int BRANCHES_PER_THREAD = 8;
+    private static final int MAX_SPLIT_LEVELS = 16;
+
+    /**
+     * Rama de la búsqueda paralela: forma de la frontera con el camino (posición y regla por
+     * paso) que lleva a ella desde el símbolo inicial
+     */
+    private static final class SearchBranch {
+        private final int[] form;
+        private final int depth;
+        private final boolean found;       // La forma ya es la palabra objetivo
+        private final int[] positions;
+        private final int[] rules;
+        private int[] pathPositions;        // Camino completo, si la rama tuvo éxito
+        private int[] pathRules;
+        private int pathLength;
+
+        SearchBranch(int[] form, int depth, boolean found) {
+            this(form, depth, found, new int[0], new int[0]);
+        }
+
+        private SearchBranch(int[] form, int depth, boolean found, int[] positions, int[] rules) {
+            this.form = form;
+            this.depth = depth;
+            this.found = found;
+            this.positions = positions;
+            this.rules = rules;
+        }
+
+        SearchBranch child(int[] newForm, int position, int rule, boolean found) {
+            int[] childPositions = Arrays.copyOf(positions, depth + 1);
+            int[] childRules = Arrays.copyOf(rules, depth + 1);
+            childPositions[depth] = position;
+            childRules[depth] = rule;
+            return new SearchBranch(newForm, depth + 1, found, childPositions, childRules);
+        }
+    }
+
+    /**
+     * Tramo [from, to) de las ramas de la búsqueda paralela: se divide a la mitad y el hilo
+     * que lo ejecuta explora primero la mitad izquierda (la que gana si ambas tienen éxito)
+     * mientras otros hilos pueden robar la derecha. Los tramos posteriores a una rama con
+     * éxito se descartan sin explorarse
+     */
+    private static final class BranchTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final SearchBranch[] branches;
+        private final int from;
+        private final int to;
+        private final GreibachNormalForm greibach;
+        private final int[] target;
+        private final AtomicInteger winner;
+        private final ThreadLocal<GrammarParser> workers;
+
+        BranchTask(SearchBranch[] branches, int from, int to, GreibachNormalForm greibach, int[] target,
+                   AtomicInteger winner, ThreadLocal<GrammarParser> workers) {
+            this.branches = branches;
+            this.from = from;
+            this.to = to;
+            this.greibach = greibach;
+            this.target = target;
+            this.winner = winner;
+            this.workers = workers;
+        }
+
+        @Override
+        protected void compute() {
+            if (winner.get() < from) {
+                return;
+            }
+            if (to - from == 1) {
+                workers.get().searchBranch(branches[from], from, greibach, target);
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            BranchTask right = new BranchTask(branches, middle, to, greibach, target, winner, workers);
+            right.fork();
+            new BranchTask(branches, from, middle, greibach, target, winner, workers).compute();
+            right.join();
+        }
+    }
 
-                    // Crear nodo para esta derivación
-                    TreeNode derivationNode = new TreeNode(symbol + " -> " + production);
+    /**
+     * Nombre del símbolo inicial en la instantánea actual (no en la gramática, que puede
+     * haber cambiado si este analizador es una copia de trabajo)
+     */
+    private String startSymbolName() {
+        return snapshot.getNonTerminalName(snapshot.getStartSymbol());
+    }
+
+    /**
+     * Resuelve la palabra vacía con los no terminales anulables de la gramática original
+     *
+     * @param word Palabra vacía (o formada solo por espacios)
+     * @return Resultado de la derivación
+     */
+    private DerivationResult deriveEmptyWord(String word) {
+        GrammarAnalysis analysis = getAnalysis();
+        if (!analysis.isNullable(analysis.getStartSymbol())) {
+            return new DerivationResult(word, false);
+        }
+        TreeNode tree = analysis.epsilonTree(analysis.getStartSymbol());
+        return new DerivationResult(word, tree, analysis.getGrammar(), false);
+    }
+
+    /**
+     * Búsqueda en profundidad de una derivación de la palabra, sobre una pila explícita
+     * Las formas sentenciales son arreglos de símbolos codificados (ver {@link CompiledGrammar}),
+     * por lo que la búsqueda no crea cadenas fuera del modo de depuración. Cada marco guarda
+     * la forma, el nodo de exploración (solo en depuración), la posición del no terminal que
+     * se está expandiendo y la siguiente producción a probar; la profundidad de un marco es
+     * su posición en la pila. Al llegar a la palabra, los marcos forman el camino (posición
+     * y regla por paso)
+     *
+     * @param rootNode Raíz del árbol de exploración (null fuera del modo de depuración)
+     * @param steps Formas visitadas en modo de depuración (output)
+     * @param startForm Forma de la que parte la búsqueda (la inicial es el símbolo inicial)
+     * @param baseDepth Pasos que llevan a startForm, que deben estar ya en el camino
+     * @return true si se puede derivar la palabra, false en caso contrario
+     */
+    private boolean deriveWord(TreeNode rootNode, StringBuilder steps, int[] startForm, int baseDepth) {
+        CompiledGrammar compiled = searchAnalysis.getGrammar();
+        WorkStack<int[], TreeNode> stack = searchStack;
+        stack.clear();
+
+        int status = enterForm(startForm, rootNode, steps, baseDepth);
+        try {
+            if (status != PUSHED) {
+                return status == FOUND;
+            }
+
+            while (!stack.isEmpty()) {
+                if (isCancelled()) {
+                    return false;
+                }
+                int frame = stack.size() - 1;
+                int[] currentForm = stack.first(frame);
+
+                // Siguiente (no terminal, producción) a probar en esta forma; el cursor
+                // guarda la posición + 1 del no terminal actual (0 si aún no hay ninguno)
+                int position = stack.cursor(frame) - 1;
+                int production = stack.index(frame);
+                if (position >= 0 && production >= compiled.getRulesFor(currentForm[position]).length) {
+                    // En modo más a la izquierda solo se expande el primer no terminal
+                    position = leftmostOnly ? currentForm.length : position + 1;
+                    production = 0;
+                } else if (position < 0) {
+                    position = 0;
+                }
+                while (position < currentForm.length && currentForm[position] < 0) {
+                    position++;
+                }
+
+                if (position >= currentForm.length) {
+                    // Ninguna derivación tuvo éxito
+                    failedForms.recordFailure(currentForm, maxDepth - baseDepth - frame);
+                    stack.pop();
+                    continue;
+                }
+
+                int rule = compiled.getRulesFor(currentForm[position])[production];
+                stack.setCursor(frame, position + 1);
+                stack.setIndex(frame, production + 1);
+
+                // Construir la nueva forma reemplazando el no terminal por su producción
+                int[] newForm = replaceSymbol(currentForm, position, compiled.getRuleRhs(rule));
+
+                // En depuración, registrar el nodo de la rama explorada
+                TreeNode derivationNode = null;
+                TreeNode parentNode = stack.second(frame);
+                if (parentNode != null) {
+                    derivationNode = new TreeNode(compiled.ruleToString(rule));
                     parentNode.addChild(derivationNode);
+                }
 
-                    // Intentar derivar recursivamente con la nueva cadena
-                    if (deriveWord(targetWord, newString, derivationNode, steps, depth + 1)) {
-                        // Si tuvimos éxito, propagar el éxito hacia arriba
-                        return true;
+                status = enterForm(newForm, derivationNode, steps, baseDepth + frame + 1);
+                if (status == FOUND) {
+                    // Los marcos de la pila forman el camino exitoso
+                    for (int step = 0; step <= frame; step++) {
+                        int[] form = stack.first(step);
+                        pathPositions[baseDepth + step] = stack.cursor(step) - 1;
+                        pathRules[baseDepth + step] =
+                                compiled.getRulesFor(form[pathPositions[baseDepth + step]])[stack.index(step) - 1];
                     }
+                    return true;
                 }
             }
+            return false;
+        } finally {
+            stack.clear();
+        }
+    }
+
+    // Resultado de entrar en una forma sentencial durante la búsqueda
+    private static final int REJECTED = 0;
+    private static final int FOUND = 1;
+    private static final int PUSHED = 2;
+
+    /**
+     * Visita una forma sentencial: la descarta, detecta el éxito o la apila para expandirla
+     *
+     * @return REJECTED, FOUND o PUSHED
+     */
+    private int enterForm(int[] currentForm, TreeNode node, StringBuilder steps, int depth) {
+        int status = checkForm(currentForm, depth);
+        if (status == REJECTED) {
+            return REJECTED;
+        }
+
+        // Si hemos llegado a la palabra objetivo, éxito
+        if (status == FOUND) {
+            if (node != null) {
+                steps.append(depth).append(". ").append(searchAnalysis.getGrammar().formToString(currentForm)).append(" (Éxito!)\n");
+            }
+            pathLength = depth;
+            return FOUND;
         }
 
-        // Si llegamos aquí, ninguna derivación tuvo éxito
-        return false;
+        // Registrar paso actual
+        if (node != null) {
+            steps.append(depth).append(". ").append(searchAnalysis.getGrammar().formToString(currentForm)).append("\n");
+        }
+        searchStack.push(currentForm, node);
+        return PUSHED;
+    }
+
+    /**
+     * Clasifica una forma sentencial sin apilarla
+     *
+     * @return REJECTED si se descarta, FOUND si es la palabra o PUSHED si debe expandirse
+     */
+    private int checkForm(int[] currentForm, int depth) {
+        // Controlar profundidad máxima para evitar búsquedas infinitas
+        if (depth > maxDepth) {
+            return REJECTED;
+        }
+
+        // Descartar formas que ya no pueden derivar la palabra objetivo
+        if (cannotDerive(currentForm)) {
+            return REJECTED;
+        }
+
+        // Si hemos llegado a la palabra objetivo, éxito
+        if (isTargetWord(currentForm)) {
+            return FOUND;
+        }
+
+        // Si la forma ya falló con al menos esta profundidad restante, no volver a explorarla
+        if (failedForms.isKnownFailure(currentForm, maxDepth - depth)) {
+            return REJECTED;
+        }
+        return PUSHED;
+    }
+
+    /**
+     * Reemplaza el símbolo de una posición de la forma por el lado derecho de una regla
+     */
+    private static int[] replaceSymbol(int[] form, int position, int[] rhs) {
+        int[] newForm = new int[form.length - 1 + rhs.length];
+        System.arraycopy(form, 0, newForm, 0, position);
+        System.arraycopy(rhs, 0, newForm, position, rhs.length);
+        System.arraycopy(form, position + 1, newForm, position + rhs.length, form.length - position - 1);
+        return newForm;
+    }
+
+    /**
+     * Indica si una forma sentencial es exactamente la palabra objetivo
+     */
+    private boolean isTargetWord(int[] form) {
+        int[] target = targetSymbols;
+        if (form.length != target.length) {
+            return false;
+        }
+        for (int i = 0; i < form.length; i++) {
+            if (form[i] != ~target[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Poda de la búsqueda: indica si una forma sentencial no puede derivar la palabra objetivo
+     * La forma se descarta si la suma de las longitudes mínimas de sus símbolos supera la
+     * de la palabra, si sus terminales iniciales o finales no coinciden con el prefijo o
+     * sufijo de la palabra, o si lo que sigue al prefijo (o precede al sufijo) no puede
+     * empezar (o terminar) con el terminal que exige la palabra, según FIRST y LAST
+     *
+     * @param symbols Forma sentencial codificada
+     * @return true si la forma puede descartarse
+     */
+    private boolean cannotDerive(int[] symbols) {
+        GrammarAnalysis analysis = searchAnalysis;
+        int[] target = targetSymbols;
+        if (target == null) {
+            return true;
+        }
+
+        long minLength = 0;
+        for (int symbol : symbols) {
+            minLength += analysis.getMinYield(symbol);
+        }
+        if (minLength > target.length) {
+            return true;
+        }
+
+        // Prefijo: terminales iniciales y luego el primer terminal exigible
+        int matched = 0;
+        int i = 0;
+        while (i < symbols.length && symbols[i] < 0) {
+            if (~symbols[i] != target[matched]) {
+                return true;
+            }
+            matched++;
+            i++;
+        }
+        if (!canCover(analysis, symbols, i, 1, target, matched)) {
+            return true;
+        }
+
+        // Sufijo, de forma simétrica con LAST
+        matched = 0;
+        int j = symbols.length - 1;
+        while (j >= i && symbols[j] < 0) {
+            if (~symbols[j] != target[target.length - 1 - matched]) {
+                return true;
+            }
+            matched++;
+            j--;
+        }
+        return !canCover(analysis, symbols, j, -1, target, target.length - 1 - matched);
+    }
+
+    /**
+     * Comprueba si los símbolos a partir de una posición (hacia la derecha o hacia la
+     * izquierda) pueden producir como siguiente terminal el que está en la posición
+     * indicada de la palabra, o ser anulables si esa posición está fuera de la palabra
+     */
+    private boolean canCover(GrammarAnalysis analysis, int[] symbols, int from, int direction,
+                             int[] target, int position) {
+        boolean outside = position < 0 || position >= target.length;
+        for (int i = from; i >= 0 && i < symbols.length; i += direction) {
+            int symbol = symbols[i];
+            if (!outside && (direction > 0 ? analysis.canStartWith(symbol, target[position])
+                    : analysis.canEndWith(symbol, target[position]))) {
+                return true;
+            }
+            if (!analysis.isNullable(symbol)) {
+                return false;
+            }
+        }
+        return outside;
     }
 
     /**
      * Genera el árbol general de la gramática hasta una profundidad máxima
      *
-     * @param maxDepth Profundidad máxima del árbol
+     * @param maxDepth Profundidad máxima del árbol (hasta MAX_DEPTH_LIMIT)
      * @return Raíz del árbol general
      */
     public TreeNode generateGeneralTree(int maxDepth) {
@@ -154,67 +1392,85 @@ public class GrammarParser {
         // Crear nodo raíz con el símbolo inicial
         TreeNode root = new TreeNode(grammar.getStartSymbol());
 
-        // Generar el árbol de forma recursiva
-        expandGeneralTree(root, grammar.getStartSymbol(), new HashSet<>(), 0, maxDepth);
+        // Generar el árbol con una pila explícita
+        expandGeneralTree(root, Math.min(maxDepth, MAX_DEPTH_LIMIT));
 
         return root;
     }
 
     /**
-     * Método recursivo para expandir el árbol general de la gramática
+     * Expande el árbol general de la gramática sobre una pila explícita
+     * Cada marco corresponde a un no terminal de la rama actual: su nodo, su símbolo,
+     * la producción que se está recorriendo (cursor) y la posición dentro de ella
+     * (índice). Un símbolo no se expande de nuevo dentro de su propia rama para evitar
+     * ciclos, y la profundidad de un marco es su posición en la pila
      *
-     * @param parentNode Nodo padre actual
-     * @param symbol Símbolo a expandir
-     * @param visited Conjunto de símbolos ya visitados (para evitar ciclos)
-     * @param currentDepth Profundidad actual
+     * @param root Nodo raíz (símbolo inicial)
      * @param maxDepth Profundidad máxima
      */
-    private void expandGeneralTree(TreeNode parentNode, String symbol,
-                                   Set<String> visited, int currentDepth, int maxDepth) {
-        // Control de profundidad y ciclos
-        if (currentDepth >= maxDepth || visited.contains(symbol)) {
+    private void expandGeneralTree(TreeNode root, int maxDepth) {
+        CompiledGrammar compiled = grammar.compile();
+        boolean[] visited = new boolean[compiled.getNonTerminalCount()]; // Símbolos de la rama actual
+        WorkStack<TreeNode, Integer> stack = treeStack;
+        stack.clear();
+
+        int startSymbol = compiled.getStartSymbol();
+        if (maxDepth <= 0 || startSymbol < 0) {
             return;
         }
+        stack.push(root, startSymbol);
+        visited[startSymbol] = true;
 
-        // Marcar como visitado para esta rama
-        visited.add(symbol);
+        try {
+            while (!stack.isEmpty()) {
+                int frame = stack.size() - 1;
+                TreeNode parentNode = stack.first(frame);
+                int symbol = stack.second(frame);
+                int[] rules = compiled.getRulesFor(symbol);
+                int productionIndex = stack.cursor(frame);
+                int position = stack.index(frame);
 
-        // Si es un símbolo no terminal, expandir
-        if (grammar.getNonTerminals().contains(symbol)) {
-            // Obtener producciones para este símbolo
-            List<String> productions = grammar.getProductionsFor(symbol);
+                if (productionIndex >= rules.length) {
+                    // Remover de visitados al salir de esta rama
+                    visited[symbol] = false;
+                    stack.pop();
+                    continue;
+                }
 
-            // Para cada producción
-            for (String production : productions) {
-                // Crear nodo para esta producción
-                TreeNode productionNode = new TreeNode(symbol + " -> " + production);
-                parentNode.addChild(productionNode);
+                int rule = rules[productionIndex];
+                int[] rhs = compiled.getRuleRhs(rule);
+                List<TreeNode> children = parentNode.getChildren();
+                TreeNode productionNode;
+                if (position == 0) {
+                    // Crear nodo para esta producción
+                    productionNode = new TreeNode(compiled.ruleToString(rule));
+                    parentNode.addChild(productionNode);
+                } else {
+                    productionNode = children.get(children.size() - 1);
+                }
 
-                // Si la producción es épsilon, no seguir expandiendo
-                if (production.equals("ε")) {
+                // Si la producción es épsilon o ya se recorrió, pasar a la siguiente
+                if (position >= rhs.length) {
+                    stack.setCursor(frame, productionIndex + 1);
+                    stack.setIndex(frame, 0);
                     continue;
                 }
 
-                // Para cada símbolo en la producción
-                for (int i = 0; i < production.length(); i++) {
-                    String nextSymbol = production.substring(i, i + 1);
+                // Crear nodo hijo para el siguiente símbolo de la producción
+                int nextSymbol = rhs[position];
+                boolean isTerminal = nextSymbol < 0;
+                TreeNode symbolNode = new TreeNode(compiled.symbolName(nextSymbol), isTerminal);
+                productionNode.addChild(symbolNode);
+                stack.setIndex(frame, position + 1);
 
-                    // Crear nodo hijo para este símbolo
-                    boolean isTerminal = grammar.getTerminals().contains(nextSymbol);
-                    TreeNode symbolNode = new TreeNode(nextSymbol, isTerminal);
-                    productionNode.addChild(symbolNode);
-
-                    // Si es no terminal, expandir recursivamente
-                    if (!isTerminal) {
-                        // Clonar conjunto de visitados para esta rama
-                        Set<String> newVisited = new HashSet<>(visited);
-                        expandGeneralTree(symbolNode, nextSymbol, newVisited, currentDepth + 1, maxDepth);
-                    }
+                // Si es no terminal, expandirlo en un nuevo marco
+                if (!isTerminal && frame + 1 < maxDepth && !visited[nextSymbol]) {
+                    visited[nextSymbol] = true;
+                    stack.push(symbolNode, nextSymbol);
                 }
             }
+        } finally {
+            stack.clear();
         }
-
-        // Remover de visitados al salir de esta rama
-        visited.remove(symbol);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,34 @@
+package grammaranalyzer.controller;
+
+import grammaranalyzer.controller.EarleyParser.PrefixStatus;
+import grammaranalyzer.model.CompiledGrammar;
+import grammaranalyzer.model.GrammarAnalysis;
+
+/**
+ * Validación de la palabra mientras se escribe, con una sesión incremental de Earley
+ * (ver {@link EarleyParser.Session}): cada validación reutiliza los conjuntos del prefijo
+ * común con la palabra anterior. Trabaja sobre la instantánea compilada que recibe, por
+ * lo que puede ejecutarse fuera del hilo de la interfaz mientras la gramática se edita;
+ * si recibe otra instantánea, descarta la sesión y empieza una nueva (el análisis de la
+ * gramática se actualiza a partir del anterior si solo se agregaron producciones)
+ */
+public class IncrementalValidator {
+    private CompiledGrammar snapshot;
+    private GrammarAnalysis analysis;
+    private EarleyParser.Session session;
+
+    /**
+     * Valida una palabra
+     * @param snapshot Instantánea de la gramática (ver {@link grammaranalyzer.model.Grammar#compile()})
+     * @param word Palabra a validar
+     * @return Estado de la palabra
+     */
+    public synchronized PrefixStatus validate(CompiledGrammar snapshot, String word) {
+        if (this.snapshot != snapshot) {
+            analysis = new GrammarAnalysis(analysis, snapshot);
+            session = new EarleyParser(analysis).newSession();
+            this.snapshot = snapshot;
+        }
+        return session.update(word);
+    }
+}
@@ -0,0 +1,221 @@
+package grammaranalyzer.controller;
+
+import grammaranalyzer.model.Derivation;
+import grammaranalyzer.model.DerivationResult;
+import grammaranalyzer.model.GrammarAnalysis;
+
+import java.util.*;
+
+/**
+ * Analizador predictivo LL(1) dirigido por tabla
+ * La tabla M[A, a] se construye a partir de los conjuntos FIRST y FOLLOW;
+ * si la gramática es LL(1) cada palabra se analiza en tiempo lineal, sin
+ * retroceso, registrando en una sola pasada la derivación más a la izquierda
+ * (ver {@link Derivation}); los pasos y el árbol se generan al pedirlos
+ */
+public class LL1Parser {
+    private final GrammarAnalysis analysis;
+    private final int[][] table;            // M[A][a] = posición de la regla entre las de A, o -1
+    private final String[][] rowConflicts;  // Conflictos de cada fila de la tabla
+    private final List<String> conflicts = new ArrayList<>();
+
+    /**
+     * Constructor: construye la tabla predictiva
+     * @param analysis Gramática codificada con sus conjuntos FIRST y FOLLOW
+     */
+    public LL1Parser(GrammarAnalysis analysis) {
+        this(null, analysis);
+    }
+
+    /**
+     * Constructor incremental: si la gramática del análisis se derivó de la del analizador
+     * anterior agregando producciones, solo se reconstruyen las filas de la tabla que pueden
+     * cambiar y las demás se comparten con el anterior. La fila de A depende de las reglas
+     * de A, de FOLLOW(A) y de FIRST y la anulabilidad de los símbolos de sus lados derechos
+     * (las entradas guardan la posición de la regla entre las de A, que no cambia al
+     * agregar reglas de otros no terminales). En otro caso se construye toda la tabla
+     * @param previous Analizador de una instantánea anterior (puede ser null)
+     * @param analysis Gramática codificada con sus conjuntos FIRST y FOLLOW
+     */
+    public LL1Parser(LL1Parser previous, GrammarAnalysis analysis) {
+        this.analysis = analysis;
+        int nonTerminals = analysis.getNonTerminalCount();
+        table = new int[nonTerminals][];
+        rowConflicts = new String[nonTerminals][];
+
+        BitSet affected = previous != null ? affectedRows(previous.analysis, analysis) : null;
+        for (int a = 0; a < nonTerminals; a++) {
+            if (affected == null || affected.get(a)) {
+                buildRow(a);
+            } else {
+                table[a] = previous.table[a];
+                rowConflicts[a] = previous.rowConflicts[a];
+            }
+            Collections.addAll(conflicts, rowConflicts[a]);
+        }
+    }
+
+    /**
+     * Calcula las filas que hay que reconstruir al pasar de un análisis a otro
+     * @return Filas afectadas, o null si la gramática nueva no extiende la anterior
+     */
+    private static BitSet affectedRows(GrammarAnalysis previous, GrammarAnalysis current) {
+        int[] addedRules = current.getGrammar().getRulesAddedSince(previous.getGrammar());
+        if (addedRules == null) {
+            return null;
+        }
+        BitSet affected = new BitSet(current.getNonTerminalCount());
+        for (int rule : addedRules) {
+            affected.set(current.getRuleLhs(rule));
+        }
+        for (int a = 0; a < current.getNonTerminalCount(); a++) {
+            if (!previous.getFollow(a).equals(current.getFollow(a))) {
+                affected.set(a);
+            }
+            if (previous.isNullable(a) != current.isNullable(a)
+                    || !previous.getFirst(a).equals(current.getFirst(a))) {
+                for (int rule : current.getGrammar().getRulesUsing(a)) {
+                    affected.set(current.getRuleLhs(rule));
+                }
+            }
+        }
+        return affected;
+    }
+
+    /**
+     * Construye la fila M[A] a partir de las reglas de A
+     */
+    private void buildRow(int lhs) {
+        int endMarker = analysis.getTerminalCount();
+        int[] row = new int[endMarker + 1];
+        Arrays.fill(row, -1);
+        List<String> found = new ArrayList<>();
+
+        int[] rules = analysis.getRulesFor(lhs);
+        BitSet lookahead = new BitSet(endMarker + 1);
+        for (int index = 0; index < rules.length; index++) {
+            int rule = rules[index];
+            lookahead.clear();
+            if (analysis.firstOfSequence(analysis.getRuleRhs(rule), 0, lookahead)) {
+                lookahead.or(analysis.getFollow(lhs));
+            }
+
+            for (int t = lookahead.nextSetBit(0); t >= 0; t = lookahead.nextSetBit(t + 1)) {
+                if (row[t] < 0) {
+                    row[t] = index;
+                } else {
+                    found.add("Conflicto en M[" + analysis.getNonTerminalName(lhs) + ", "
+                            + (t == endMarker ? "$" : analysis.getTerminalName(t)) + "]: "
+                            + analysis.ruleToString(rules[row[t]]) + " / " + analysis.ruleToString(rule));
+                }
+            }
+        }
+        table[lhs] = row;
+        rowConflicts[lhs] = found.toArray(new String[0]);
+    }
+
+    /**
+     * Indica si la gramática es LL(1), es decir, si la tabla no tiene conflictos
+     * @return true si no hay conflictos
+     */
+    public boolean isLL1() {
+        return conflicts.isEmpty();
+    }
+
+    /**
+     * Obtiene la lista de conflictos encontrados al construir la tabla
+     * @return Conflictos en formato textual
+     */
+    public List<String> getConflicts() {
+        return Collections.unmodifiableList(conflicts);
+    }
+
+    /**
+     * Genera un informe de la tabla: conjuntos FIRST/FOLLOW y conflictos
+     * @return Informe en formato texto
+     */
+    public String getConflictReport() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(analysis);
+        if (isLL1()) {
+            sb.append("\nLa gramática es LL(1).\n");
+        } else {
+            sb.append("\nLa gramática NO es LL(1):\n");
+            for (String conflict : conflicts) {
+                sb.append("- ").append(conflict).append('\n');
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Analiza una palabra con la pila predictiva
+     *
+     * @param word Palabra a verificar
+     * @return Resultado de la derivación
+     * @throws IllegalStateException si la gramática no es LL(1)
+     */
+    public DerivationResult analyzeWord(String word) {
+        if (!isLL1()) {
+            throw new IllegalStateException("La gramática no es LL(1)");
+        }
+
+        int startSymbol = analysis.getStartSymbol();
+        int[] input = analysis.encodeWord(word);
+        if (startSymbol < 0 || input == null) {
+            return new DerivationResult(word, false);
+        }
+
+        int endMarker = analysis.getTerminalCount();
+
+        // Pila de símbolos pendientes (tope al final)
+        int[] symbols = new int[16];
+        int top = 0;
+        symbols[top++] = startSymbol;
+        int position = 0;
+
+        // Expansiones en orden: el no terminal expandido siempre sigue al prefijo ya reconocido
+        int[] rules = new int[16];
+        int[] positions = new int[16];
+        int expansions = 0;
+
+        while (top > 0) {
+            int symbol = symbols[--top];
+            int lookahead = position < input.length ? input[position] : endMarker;
+
+            if (symbol < 0) {
+                if (~symbol != lookahead) {
+                    return new DerivationResult(word, false);
+                }
+                position++;
+                continue;
+            }
+
+            int entry = table[symbol][lookahead];
+            if (entry < 0) {
+                return new DerivationResult(word, false);
+            }
+            int rule = analysis.getRulesFor(symbol)[entry];
+
+            if (expansions == rules.length) {
+                rules = Arrays.copyOf(rules, expansions * 2);
+                positions = Arrays.copyOf(positions, expansions * 2);
+            }
+            rules[expansions] = rule;
+            positions[expansions++] = position;
+
+            int[] rhs = analysis.getRuleRhs(rule);
+            if (top + rhs.length > symbols.length) {
+                symbols = Arrays.copyOf(symbols, Math.max(symbols.length * 2, top + rhs.length));
+            }
+            for (int i = rhs.length - 1; i >= 0; i--) {
+                symbols[top++] = rhs[i];
+            }
+        }
+
+        if (position != input.length) {
+            return new DerivationResult(word, false);
+        }
+        return new DerivationResult(word, new Derivation(analysis.getGrammar(), positions, rules, expansions));
+    }
+}
@@ -0,0 +1,143 @@
+package grammaranalyzer.controller;
+
+import grammaranalyzer.model.Derivation;
+import grammaranalyzer.model.DerivationResult;
+import grammaranalyzer.model.GrammarAnalysis;
+
+import java.util.*;
+
+/**
+ * Analizador ascendente por desplazamiento-reducción dirigido por tablas LR
+ * Con tablas sin conflictos (SLR(1) o LALR(1)) cada palabra se analiza en
+ * tiempo lineal; el resultado muestra la derivación más a la derecha, que se registra
+ * como las reducciones en orden inverso (ver {@link Derivation}), sin construir nodos
+ *
+ * Si en una misma posición de la entrada una reducción deja en la cima un estado que ya
+ * estuvo en la cima a una altura cuyo fondo de pila no cambió desde entonces, el análisis
+ * repetiría las mismas reducciones sin fin (por ejemplo A -> ε una y otra vez), así que la
+ * palabra se rechaza en lugar de hacer crecer la pila indefinidamente
+ */
+public class LRParser {
+    private final LRTable table;
+
+    /**
+     * Constructor
+     * @param table Tablas ACTION/GOTO de la gramática
+     */
+    public LRParser(LRTable table) {
+        this.table = table;
+    }
+
+    /**
+     * Indica si las tablas permiten un análisis determinista
+     * @return true si la tabla no tiene conflictos
+     */
+    public boolean isDeterministic() {
+        return !table.hasConflicts();
+    }
+
+    public LRTable getTable() {
+        return table;
+    }
+
+    /**
+     * Analiza una palabra por desplazamiento-reducción
+     *
+     * @param word Palabra a verificar
+     * @return Resultado de la derivación
+     * @throws IllegalStateException si la tabla tiene conflictos
+     */
+    public DerivationResult analyzeWord(String word) {
+        if (!isDeterministic()) {
+            throw new IllegalStateException("La gramática no es " + table.getKind());
+        }
+
+        GrammarAnalysis analysis = table.getAnalysis();
+        int[] input = analysis.encodeWord(word);
+        if (analysis.getStartSymbol() < 0 || input == null) {
+            return new DerivationResult(word, false);
+        }
+
+        int endMarker = analysis.getTerminalCount();
+
+        // Pila de estados; el número de símbolos de la forma ya reducida es top
+        int[] states = new int[16];
+        int top = 0;
+        states[0] = 0;
+        int position = 0;
+
+        // Reducciones en orden (regla y posición del mango), que invertidas son la derivación
+        int[] rules = new int[16];
+        int[] positions = new int[16];
+        int reductions = 0;
+
+        // Configuraciones vistas en la posición actual: altura a la que cada estado estuvo en
+        // la cima (-1 si no estuvo) y, en orden creciente de altura, los estados registrados
+        int[] seenHeight = new int[table.getStateCount()];
+        Arrays.fill(seenHeight, -1);
+        int[] seenStates = new int[seenHeight.length];
+        int seenCount = 0;
+        seenHeight[0] = 0;
+        seenStates[seenCount++] = 0;
+
+        while (true) {
+            int lookahead = position < input.length ? input[position] : endMarker;
+            int[] actions = table.getActions(states[top], lookahead);
+            if (actions.length == 0) {
+                return new DerivationResult(word, false);
+            }
+
+            int action = actions[0];
+            if (table.isAccept(action)) {
+                for (int i = 0, j = reductions - 1; i < j; i++, j--) {
+                    int rule = rules[i];
+                    rules[i] = rules[j];
+                    rules[j] = rule;
+                    int handle = positions[i];
+                    positions[i] = positions[j];
+                    positions[j] = handle;
+                }
+                return new DerivationResult(word, new Derivation(analysis.getGrammar(), positions, rules, reductions));
+            }
+
+            if (top + 1 == states.length) {
+                states = Arrays.copyOf(states, states.length * 2);
+            }
+
+            if (LRTable.isShift(action)) {
+                states[++top] = LRTable.target(action);
+                position++;
+                while (seenCount > 0) {
+                    seenHeight[seenStates[--seenCount]] = -1;
+                }
+                seenHeight[states[top]] = top;
+                seenStates[seenCount++] = states[top];
+                continue;
+            }
+
+            int rule = LRTable.target(action);
+            int lhs = analysis.getRuleLhs(rule);
+            int length = analysis.getRuleRhs(rule).length;
+
+            if (reductions == rules.length) {
+                rules = Arrays.copyOf(rules, reductions * 2);
+                positions = Arrays.copyOf(positions, reductions * 2);
+            }
+            top -= length;
+            rules[reductions] = rule;
+            positions[reductions++] = top;
+            states[top + 1] = table.getGoto(states[top], lhs);
+            top++;
+
+            // Las configuraciones por encima del fondo que quedó intacto ya no son válidas
+            while (seenCount > 0 && seenHeight[seenStates[seenCount - 1]] >= top) {
+                seenHeight[seenStates[--seenCount]] = -1;
+            }
+            if (seenHeight[states[top]] >= 0) {
+                return new DerivationResult(word, false);
+            }
+            seenHeight[states[top]] = top;
+            seenStates[seenCount++] = states[top];
+        }
+    }
+}
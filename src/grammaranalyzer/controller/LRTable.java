@@ -0,0 +1,510 @@
+package grammaranalyzer.controller;
+
+import grammaranalyzer.model.CompiledGrammar;
+import grammaranalyzer.model.GrammarAnalysis;
+
+import java.util.*;
+
+/**
+ * Tablas ACTION/GOTO de un analizador ascendente LR
+ * Se construye la colección canónica de conjuntos de ítems LR(0) sobre la
+ * gramática aumentada S' -> S y se calculan las reducciones según el tipo de
+ * tabla: LR(0), SLR(1) (con FOLLOW) o LALR(1) (con propagación de símbolos
+ * de anticipación). Cada celda guarda todas las acciones posibles, de modo que
+ * los conflictos quedan registrados y pueden ser explorados por un analizador GLR
+ * Las tablas se construyen sobre las reglas útiles (ver
+ * {@link CompiledGrammar#withoutUselessRules()}): las reglas de no terminales no
+ * alcanzables o improductivos agregarían símbolos a FOLLOW y reducciones que no llevan
+ * a ninguna derivación
+ */
+public class LRTable {
+
+    /**
+     * Tipos de tabla LR disponibles
+     */
+    public enum Kind {
+        LR0("LR(0)"),
+        SLR1("SLR(1)"),
+        LALR1("LALR(1)");
+
+        private final String displayName;
+
+        Kind(String displayName) {
+            this.displayName = displayName;
+        }
+
+        @Override
+        public String toString() {
+            return displayName;
+        }
+    }
+
+    private static final int[] NO_ACTIONS = new int[0];
+
+    private final GrammarAnalysis analysis;
+    private final Kind kind;
+    private final int augmentedRule;    // Regla S' -> S
+    private final int[] augmentedRhs;
+    private final int endMarker;        // Índice de $ entre los terminales
+
+    // Ítems LR(0): cada ítem es (regla, punto) con un identificador denso
+    private final int[] itemOffset;
+    private int[] itemRule;
+    private int[] itemDot;
+
+    // Autómata LR(0)
+    private final List<int[]> kernels = new ArrayList<>();
+    private final List<int[]> shiftTargets = new ArrayList<>();  // [estado][terminal] -> estado o -1
+    private final List<int[]> gotoTargets = new ArrayList<>();   // [estado][no terminal] -> estado o -1
+
+    // Tabla ACTION: [estado][terminal o $] -> acciones
+    private int[][][] actions;
+    private final List<String> conflicts = new ArrayList<>();
+
+    private LRTable(GrammarAnalysis analysis, Kind kind) {
+        this.analysis = analysis;
+        this.kind = kind;
+        this.augmentedRule = analysis.getRuleCount();
+        this.augmentedRhs = new int[]{analysis.getStartSymbol()};
+        this.endMarker = analysis.getTerminalCount();
+
+        itemOffset = new int[augmentedRule + 2];
+        for (int rule = 0; rule <= augmentedRule; rule++) {
+            itemOffset[rule + 1] = itemOffset[rule] + rhs(rule).length + 1;
+        }
+        itemRule = new int[itemOffset[augmentedRule + 1]];
+        itemDot = new int[itemRule.length];
+        for (int rule = 0; rule <= augmentedRule; rule++) {
+            for (int dot = 0; dot <= rhs(rule).length; dot++) {
+                itemRule[itemOffset[rule] + dot] = rule;
+                itemDot[itemOffset[rule] + dot] = dot;
+            }
+        }
+    }
+
+    /**
+     * Construye las tablas LR de una gramática
+     *
+     * @param analysis Gramática codificada con sus conjuntos FIRST y FOLLOW
+     * @param kind Tipo de tabla
+     * @return Tablas construidas (pueden tener conflictos); su análisis es el de la
+     *         gramática reducida si había reglas inútiles
+     */
+    public static LRTable build(GrammarAnalysis analysis, Kind kind) {
+        CompiledGrammar useful = analysis.getGrammar().withoutUselessRules();
+        LRTable table = new LRTable(useful == analysis.getGrammar() ? analysis : new GrammarAnalysis(useful), kind);
+        if (analysis.getStartSymbol() >= 0) {
+            table.buildAutomaton();
+            table.buildActions();
+        } else {
+            table.actions = new int[0][][];
+        }
+        return table;
+    }
+
+    // Acceso a la gramática aumentada
+
+    private int[] rhs(int rule) {
+        return rule == augmentedRule ? augmentedRhs : analysis.getRuleRhs(rule);
+    }
+
+    private int nextSymbol(int item) {
+        int[] rhs = rhs(itemRule[item]);
+        return itemDot[item] < rhs.length ? rhs[itemDot[item]] : Integer.MIN_VALUE;
+    }
+
+    private boolean isComplete(int item) {
+        return nextSymbol(item) == Integer.MIN_VALUE;
+    }
+
+    /**
+     * Cierre LR(0) de un conjunto de ítems
+     */
+    private BitSet closure(int[] kernel) {
+        BitSet items = new BitSet(itemRule.length);
+        Deque<Integer> pending = new ArrayDeque<>();
+        for (int item : kernel) {
+            items.set(item);
+            pending.push(item);
+        }
+
+        while (!pending.isEmpty()) {
+            int symbol = nextSymbol(pending.pop());
+            if (symbol < 0) {
+                continue;
+            }
+            for (int rule : analysis.getRulesFor(symbol)) {
+                int item = itemOffset[rule];
+                if (!items.get(item)) {
+                    items.set(item);
+                    pending.push(item);
+                }
+            }
+        }
+        return items;
+    }
+
+    /**
+     * Construye la colección canónica de conjuntos de ítems LR(0)
+     */
+    private void buildAutomaton() {
+        Map<List<Integer>, Integer> stateIds = new HashMap<>();
+        int[] initial = {itemOffset[augmentedRule]};
+        kernels.add(initial);
+        stateIds.put(asList(initial), 0);
+
+        for (int state = 0; state < kernels.size(); state++) {
+            BitSet items = closure(kernels.get(state));
+
+            // Agrupar los ítems avanzados por el símbolo que sigue al punto
+            Map<Integer, List<Integer>> advanced = new TreeMap<>();
+            for (int item = items.nextSetBit(0); item >= 0; item = items.nextSetBit(item + 1)) {
+                if (!isComplete(item)) {
+                    advanced.computeIfAbsent(nextSymbol(item), k -> new ArrayList<>()).add(item + 1);
+                }
+            }
+
+            int[] shifts = new int[endMarker];
+            int[] gotos = new int[analysis.getNonTerminalCount()];
+            Arrays.fill(shifts, -1);
+            Arrays.fill(gotos, -1);
+
+            for (Map.Entry<Integer, List<Integer>> entry : advanced.entrySet()) {
+                List<Integer> kernel = entry.getValue();
+                Integer target = stateIds.get(kernel);
+                if (target == null) {
+                    target = kernels.size();
+                    stateIds.put(kernel, target);
+                    kernels.add(kernel.stream().mapToInt(Integer::intValue).toArray());
+                }
+
+                int symbol = entry.getKey();
+                if (symbol >= 0) {
+                    gotos[symbol] = target;
+                } else {
+                    shifts[~symbol] = target;
+                }
+            }
+
+            shiftTargets.add(shifts);
+            gotoTargets.add(gotos);
+        }
+    }
+
+    private static List<Integer> asList(int[] items) {
+        List<Integer> list = new ArrayList<>(items.length);
+        for (int item : items) {
+            list.add(item);
+        }
+        return list;
+    }
+
+    /**
+     * Llena la tabla ACTION con desplazamientos y reducciones, registrando los conflictos
+     */
+    private void buildActions() {
+        int states = kernels.size();
+        List<List<List<Integer>>> cells = new ArrayList<>();
+        for (int state = 0; state < states; state++) {
+            List<List<Integer>> row = new ArrayList<>();
+            for (int t = 0; t <= endMarker; t++) {
+                row.add(new ArrayList<>(1));
+            }
+            cells.add(row);
+
+            int[] shifts = shiftTargets.get(state);
+            for (int t = 0; t < endMarker; t++) {
+                if (shifts[t] >= 0) {
+                    row.get(t).add(shift(shifts[t]));
+                }
+            }
+        }
+
+        List<Map<Integer, BitSet>> reductions = kind == Kind.LALR1 ? lalrReductions() : null;
+
+        for (int state = 0; state < states; state++) {
+            List<List<Integer>> row = cells.get(state);
+            BitSet items = closure(kernels.get(state));
+
+            for (int item = items.nextSetBit(0); item >= 0; item = items.nextSetBit(item + 1)) {
+                if (!isComplete(item)) {
+                    continue;
+                }
+
+                int rule = itemRule[item];
+                BitSet lookahead;
+                if (rule == augmentedRule) {
+                    lookahead = new BitSet();
+                    lookahead.set(endMarker);
+                } else if (kind == Kind.LR0) {
+                    lookahead = new BitSet();
+                    lookahead.set(0, endMarker + 1);
+                } else if (kind == Kind.SLR1) {
+                    lookahead = analysis.getFollow(analysis.getRuleLhs(rule));
+                } else {
+                    lookahead = reductions.get(state).getOrDefault(item, new BitSet());
+                }
+
+                for (int t = lookahead.nextSetBit(0); t >= 0 && t <= endMarker; t = lookahead.nextSetBit(t + 1)) {
+                    row.get(t).add(reduce(rule));
+                }
+            }
+        }
+
+        actions = new int[states][endMarker + 1][];
+        for (int state = 0; state < states; state++) {
+            for (int t = 0; t <= endMarker; t++) {
+                List<Integer> cell = cells.get(state).get(t);
+                actions[state][t] = cell.isEmpty() ? NO_ACTIONS : cell.stream().mapToInt(Integer::intValue).toArray();
+                if (cell.size() > 1) {
+                    registerConflict(state, t, actions[state][t]);
+                }
+            }
+        }
+    }
+
+    private void registerConflict(int state, int terminal, int[] cell) {
+        StringJoiner joiner = new StringJoiner(" / ");
+        for (int action : cell) {
+            joiner.add(describeAction(action));
+        }
+        conflicts.add("Conflicto en estado " + state + " con '"
+                + (terminal == endMarker ? "$" : analysis.getTerminalName(terminal)) + "': " + joiner);
+    }
+
+    /**
+     * Calcula los símbolos de anticipación LALR(1) mediante el método de
+     * propagación: se cierra cada ítem núcleo con un símbolo ficticio # para
+     * distinguir los símbolos generados espontáneamente de los que se propagan
+     *
+     * @return Para cada estado, los símbolos de anticipación de sus ítems completos
+     */
+    private List<Map<Integer, BitSet>> lalrReductions() {
+        int dummy = endMarker + 1;
+        int states = kernels.size();
+
+        List<Map<Integer, BitSet>> lookaheads = new ArrayList<>();
+        for (int[] kernel : kernels) {
+            Map<Integer, BitSet> map = new HashMap<>();
+            for (int item : kernel) {
+                map.put(item, new BitSet(dummy + 1));
+            }
+            lookaheads.add(map);
+        }
+        lookaheads.get(0).get(itemOffset[augmentedRule]).set(endMarker);
+
+        // Enlaces de propagación (estado, ítem) -> (estado destino, ítem destino)
+        Map<Long, List<long[]>> propagation = new HashMap<>();
+        for (int state = 0; state < states; state++) {
+            for (int kernelItem : kernels.get(state)) {
+                BitSet marker = new BitSet(dummy + 1);
+                marker.set(dummy);
+                Map<Integer, BitSet> closure = closureWithLookahead(Collections.singletonMap(kernelItem, marker));
+
+                for (Map.Entry<Integer, BitSet> entry : closure.entrySet()) {
+                    int item = entry.getKey();
+                    if (isComplete(item)) {
+                        continue;
+                    }
+                    int symbol = nextSymbol(item);
+                    int target = symbol >= 0 ? gotoTargets.get(state)[symbol] : shiftTargets.get(state)[~symbol];
+                    BitSet targetSet = lookaheads.get(target).get(item + 1);
+
+                    BitSet spontaneous = (BitSet) entry.getValue().clone();
+                    if (spontaneous.get(dummy)) {
+                        spontaneous.clear(dummy);
+                        propagation.computeIfAbsent(key(state, kernelItem), k -> new ArrayList<>())
+                                .add(new long[]{target, item + 1});
+                    }
+                    targetSet.or(spontaneous);
+                }
+            }
+        }
+
+        // Propagar hasta alcanzar un punto fijo
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (Map.Entry<Long, List<long[]>> entry : propagation.entrySet()) {
+                int state = (int) (entry.getKey() >>> 32);
+                int item = (int) (long) entry.getKey();
+                BitSet source = lookaheads.get(state).get(item);
+                for (long[] link : entry.getValue()) {
+                    BitSet target = lookaheads.get((int) link[0]).get((int) link[1]);
+                    int before = target.cardinality();
+                    target.or(source);
+                    changed |= target.cardinality() != before;
+                }
+            }
+        }
+
+        // Los ítems completos no núcleo (A -> •, con A anulable) se obtienen cerrando el núcleo
+        List<Map<Integer, BitSet>> reductions = new ArrayList<>();
+        for (int state = 0; state < states; state++) {
+            Map<Integer, BitSet> complete = new HashMap<>();
+            for (Map.Entry<Integer, BitSet> entry : closureWithLookahead(lookaheads.get(state)).entrySet()) {
+                if (isComplete(entry.getKey())) {
+                    complete.put(entry.getKey(), entry.getValue());
+                }
+            }
+            reductions.add(complete);
+        }
+        return reductions;
+    }
+
+    private static long key(int state, int item) {
+        return ((long) state << 32) | item;
+    }
+
+    /**
+     * Cierre LR(1) de un conjunto de ítems con sus símbolos de anticipación
+     */
+    private Map<Integer, BitSet> closureWithLookahead(Map<Integer, BitSet> kernel) {
+        Map<Integer, BitSet> items = new HashMap<>();
+        Deque<Integer> pending = new ArrayDeque<>();
+        for (Map.Entry<Integer, BitSet> entry : kernel.entrySet()) {
+            items.put(entry.getKey(), (BitSet) entry.getValue().clone());
+            pending.push(entry.getKey());
+        }
+
+        while (!pending.isEmpty()) {
+            int item = pending.pop();
+            int symbol = nextSymbol(item);
+            if (symbol < 0) {
+                continue;
+            }
+
+            BitSet lookahead = new BitSet();
+            if (analysis.firstOfSequence(rhs(itemRule[item]), itemDot[item] + 1, lookahead)) {
+                lookahead.or(items.get(item));
+            }
+
+            for (int rule : analysis.getRulesFor(symbol)) {
+                int predicted = itemOffset[rule];
+                BitSet current = items.get(predicted);
+                if (current == null) {
+                    items.put(predicted, (BitSet) lookahead.clone());
+                    pending.push(predicted);
+                } else {
+                    int before = current.cardinality();
+                    current.or(lookahead);
+                    if (current.cardinality() != before) {
+                        pending.push(predicted);
+                    }
+                }
+            }
+        }
+        return items;
+    }
+
+    // Codificación de acciones: desplazar s = 2s, reducir r = 2r + 1
+
+    private static int shift(int state) {
+        return state << 1;
+    }
+
+    private static int reduce(int rule) {
+        return (rule << 1) | 1;
+    }
+
+    /**
+     * Indica si una acción es un desplazamiento
+     * @param action Acción codificada
+     * @return true si es desplazar, false si es reducir
+     */
+    public static boolean isShift(int action) {
+        return (action & 1) == 0;
+    }
+
+    /**
+     * Estado destino de un desplazamiento o regla de una reducción
+     * @param action Acción codificada
+     * @return Estado o regla
+     */
+    public static int target(int action) {
+        return action >>> 1;
+    }
+
+    /**
+     * Indica si una acción es aceptar (reducir por S' -> S)
+     * @param action Acción codificada
+     * @return true si es aceptar
+     */
+    public boolean isAccept(int action) {
+        return !isShift(action) && target(action) == augmentedRule;
+    }
+
+    private String describeAction(int action) {
+        if (isShift(action)) {
+            return "desplazar " + target(action);
+        }
+        if (isAccept(action)) {
+            return "aceptar";
+        }
+        return "reducir " + analysis.ruleToString(target(action));
+    }
+
+    // Getters
+
+    public GrammarAnalysis getAnalysis() {
+        return analysis;
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    public int getStateCount() {
+        return kernels.size();
+    }
+
+    /**
+     * Obtiene las acciones de la tabla ACTION
+     * @param state Estado
+     * @param terminal Terminal o {@link GrammarAnalysis#getTerminalCount()} para $
+     * @return Acciones codificadas (vacío si es error)
+     */
+    public int[] getActions(int state, int terminal) {
+        return actions[state][terminal];
+    }
+
+    /**
+     * Obtiene el destino de la tabla GOTO
+     * @param state Estado
+     * @param nonTerminal No terminal
+     * @return Estado destino o -1
+     */
+    public int getGoto(int state, int nonTerminal) {
+        return gotoTargets.get(state)[nonTerminal];
+    }
+
+    /**
+     * Indica si la tabla tiene conflictos (la gramática no es del tipo de la tabla)
+     * @return true si alguna celda tiene más de una acción
+     */
+    public boolean hasConflicts() {
+        return !conflicts.isEmpty();
+    }
+
+    public List<String> getConflicts() {
+        return Collections.unmodifiableList(conflicts);
+    }
+
+    /**
+     * Genera un informe con el tamaño del autómata y los conflictos
+     * @return Informe en formato texto
+     */
+    public String getReport() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("Tabla ").append(kind).append(": ").append(getStateCount()).append(" estados\n");
+        if (conflicts.isEmpty()) {
+            sb.append("La gramática es ").append(kind).append(".\n");
+        } else {
+            sb.append("La gramática NO es ").append(kind).append(":\n");
+            for (String conflict : conflicts) {
+                sb.append("- ").append(conflict).append('\n');
+            }
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,35 @@
+package grammaranalyzer.controller;
+
+/**
+ * Algoritmos disponibles para verificar si una palabra pertenece al lenguaje
+ */
+public enum ParsingAlgorithm {
+    AUTO("Automático"),
+    DERIVATION("Derivación por búsqueda"),
+    DFA("Autómata finito (gramática regular)"),
+    CYK("CYK (Forma Normal de Chomsky)"),
+    EARLEY("Earley"),
+    LL1("LL(1) predictivo"),
+    SLR1("SLR(1) desplazamiento-reducción"),
+    LALR1("LALR(1) desplazamiento-reducción"),
+    GLR("GLR (Tomita)");
+
+    private final String displayName;
+
+    ParsingAlgorithm(String displayName) {
+        this.displayName = displayName;
+    }
+
+    /**
+     * Obtiene el nombre del algoritmo para mostrar en la interfaz
+     * @return Nombre descriptivo
+     */
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    @Override
+    public String toString() {
+        return displayName;
+    }
+}
@@ -0,0 +1,110 @@
+package grammaranalyzer.controller;
+
+import java.util.Arrays;
+
+/**
+ * Pilas persistentes de no terminales pendientes para la búsqueda sobre la FNG
+ * Cada pila es un nodo (cima, nodo de la pila de abajo) y las formas comparten sus partes
+ * comunes, por lo que un paso de la búsqueda crea un nodo por no terminal que agrega en
+ * lugar de copiar todos los pendientes. Los nodos se internan: dos pilas con los mismos
+ * símbolos tienen el mismo identificador, y el par (posición, nodo) identifica la forma
+ * en la tabla de formas fallidas. El nodo 0 es la pila vacía.
+ * Los métodos están sincronizados porque la búsqueda paralela comparte las pilas entre hilos
+ */
+final class PendingStacks {
+    /**
+     * Pila vacía
+     */
+    static final int EMPTY = 0;
+
+    private int[] symbol = new int[64];
+    private int[] below = new int[64];
+    private int[] size = new int[64];
+    private int count = 1;
+
+    // Tabla de dispersión abierta (cima, nodo de abajo) -> nodo, para internar los nodos
+    private long[] keys = new long[128];
+    private int[] nodes = new int[128];
+
+    /**
+     * Obtiene la pila que resulta de agregar un símbolo encima de otra
+     * @param node Pila de abajo
+     * @param nonTerminal Símbolo de la cima
+     * @return Nodo de la pila nueva (el mismo para la misma pila)
+     */
+    synchronized int push(int node, int nonTerminal) {
+        long key = ((long) nonTerminal << 32) | node;
+        int slot = slot(key, keys.length);
+        while (nodes[slot] != 0) {
+            if (keys[slot] == key) {
+                return nodes[slot];
+            }
+            slot = (slot + 1) & (keys.length - 1);
+        }
+
+        if (count == symbol.length) {
+            int capacity = count * 2;
+            symbol = Arrays.copyOf(symbol, capacity);
+            below = Arrays.copyOf(below, capacity);
+            size = Arrays.copyOf(size, capacity);
+        }
+        symbol[count] = nonTerminal;
+        below[count] = node;
+        size[count] = size[node] + 1;
+        keys[slot] = key;
+        nodes[slot] = count;
+        if (2 * count > keys.length) {
+            rehash();
+        }
+        return count++;
+    }
+
+    /**
+     * Símbolo de la cima
+     * @param node Pila no vacía
+     * @return No terminal de la cima
+     */
+    synchronized int top(int node) {
+        return symbol[node];
+    }
+
+    /**
+     * Pila sin la cima
+     * @param node Pila no vacía
+     * @return Nodo de la pila de abajo
+     */
+    synchronized int pop(int node) {
+        return below[node];
+    }
+
+    /**
+     * Número de símbolos de la pila
+     * @param node Pila
+     * @return Número de no terminales pendientes
+     */
+    synchronized int size(int node) {
+        return size[node];
+    }
+
+    private void rehash() {
+        long[] oldKeys = keys;
+        int[] oldNodes = nodes;
+        keys = new long[oldKeys.length * 2];
+        nodes = new int[keys.length];
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldNodes[i] != 0) {
+                int slot = slot(oldKeys[i], keys.length);
+                while (nodes[slot] != 0) {
+                    slot = (slot + 1) & (keys.length - 1);
+                }
+                keys[slot] = oldKeys[i];
+                nodes[slot] = oldNodes[i];
+            }
+        }
+    }
+
+    private static int slot(long key, int length) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash >>> 32) & (length - 1);
+    }
+}
@@ -0,0 +1,73 @@
+package grammaranalyzer.controller;
+
+import grammaranalyzer.model.CompiledGrammar;
+import grammaranalyzer.model.DerivationResult;
+import grammaranalyzer.model.GrammarAnalysis;
+import grammaranalyzer.model.RegularAutomaton;
+import grammaranalyzer.model.TreeNode;
+
+/**
+ * Analizador para gramáticas regulares (lineales por la derecha o por la izquierda)
+ * La pertenencia se decide con el AFD mínimo en tiempo O(n) y sin crear objetos;
+ * solo para las palabras aceptadas se reconstruye el árbol de derivación
+ */
+public class RegularParser {
+    private final RegularAutomaton automaton;   // null si la gramática no es regular
+    private final CompiledGrammar grammar;
+
+    /**
+     * Constructor: intenta compilar la gramática a un AFD mínimo
+     * @param analysis Gramática codificada
+     */
+    public RegularParser(GrammarAnalysis analysis) {
+        this.automaton = RegularAutomaton.fromGrammar(analysis);
+        this.grammar = analysis.getGrammar();
+    }
+
+    /**
+     * Indica si la gramática es regular, es decir, si se pudo construir el autómata
+     * @return true si la gramática es lineal por la derecha o por la izquierda
+     */
+    public boolean isRegular() {
+        return automaton != null;
+    }
+
+    /**
+     * Verifica solo la pertenencia de una palabra, sin construir el árbol
+     *
+     * @param word Palabra a verificar
+     * @return true si la palabra pertenece al lenguaje
+     * @throws IllegalStateException si la gramática no es regular
+     */
+    public boolean accepts(String word) {
+        if (!isRegular()) {
+            throw new IllegalStateException("La gramática no es regular");
+        }
+        return automaton.accepts(word);
+    }
+
+    /**
+     * Analiza una palabra con el autómata finito
+     *
+     * @param word Palabra a verificar
+     * @return Resultado de la derivación
+     * @throws IllegalStateException si la gramática no es regular
+     */
+    public DerivationResult analyzeWord(String word) {
+        if (!accepts(word)) {
+            return new DerivationResult(word, false);
+        }
+
+        TreeNode tree = automaton.derivationTree(word);
+        return new DerivationResult(word, tree, grammar, false);
+    }
+
+    /**
+     * Genera el informe del autómata
+     * @return Informe en formato texto
+     */
+    public String getReport() {
+        return isRegular() ? automaton.toString()
+                : "La gramática no es lineal por la derecha ni por la izquierda.\n";
+    }
+}
@@ -0,0 +1,236 @@
+package grammaranalyzer.controller;
+
+import grammaranalyzer.model.CompiledGrammar;
+import grammaranalyzer.model.DerivationResult;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+
+/**
+ * Caché acotada de resultados de verificación, para no repetir el análisis de palabras
+ * que se verifican una y otra vez. Cada entrada se identifica por el algoritmo y la
+ * palabra, y todas pertenecen a una misma instantánea de la gramática. Al consultar o
+ * guardar con otra instantánea solo se conservan las entradas si la nueva solo agrega
+ * producciones a la anterior (ver {@link CompiledGrammar#getRulesAddedSince}) y ninguna
+ * de ellas es útil (ver {@link CompiledGrammar#isUsefulRule}): entonces ni el lenguaje
+ * ni los árboles de derivación cambian. Una regla útil puede aceptar palabras rechazadas
+ * y también agregar árboles a las aceptadas (su bosque, número de árboles y ambigüedad
+ * quedarían desactualizados), por lo que con ella, o con cualquier otro cambio (símbolos,
+ * símbolo inicial u otra gramática), la caché se vacía. Está acotada por número de entradas y por una estimación
+ * de la memoria que ocupan los resultados (ver {@link DerivationResult#estimatedSize()});
+ * al superar cualquiera de los dos límites se descarta la entrada usada hace más tiempo (LRU).
+ * Los métodos están sincronizados, por lo que puede usarse desde varios hilos
+ */
+public final class ResultCache {
+    /**
+     * Número de entradas por defecto
+     */
+    public static final int DEFAULT_CAPACITY = 1024;
+
+    /**
+     * Memoria estimada máxima por defecto (32 MB)
+     */
+    public static final long DEFAULT_MAX_BYTES = 32L << 20;
+
+    private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private int capacity;
+    private long maxBytes;
+    private long bytes;         // Memoria estimada de las entradas guardadas
+    private CompiledGrammar snapshot; // Instantánea de la gramática de las entradas
+    private long hits;
+    private long misses;
+
+    /**
+     * Constructor con los límites por defecto
+     */
+    public ResultCache() {
+        this(DEFAULT_CAPACITY, DEFAULT_MAX_BYTES);
+    }
+
+    /**
+     * Constructor
+     * @param capacity Número máximo de entradas (0 desactiva la caché)
+     * @param maxBytes Memoria estimada máxima de los resultados guardados, en bytes
+     */
+    public ResultCache(int capacity, long maxBytes) {
+        this.capacity = Math.max(0, capacity);
+        this.maxBytes = Math.max(0, maxBytes);
+    }
+
+    /**
+     * Busca el resultado de una palabra
+     * @param snapshot Instantánea de la gramática con la que se verifica (ver
+     *                 {@link grammaranalyzer.model.Grammar#compile()})
+     * @param algorithm Algoritmo de verificación
+     * @param word Palabra
+     * @return Resultado guardado, o null si no está
+     */
+    public synchronized DerivationResult get(CompiledGrammar snapshot, ParsingAlgorithm algorithm, String word) {
+        checkSnapshot(snapshot);
+        Entry entry = entries.get(new Key(algorithm, word));
+        if (entry == null) {
+            misses++;
+            return null;
+        }
+        hits++;
+        return entry.result;
+    }
+
+    /**
+     * Guarda el resultado de una palabra
+     * @param snapshot Instantánea de la gramática con la que se verificó
+     * @param algorithm Algoritmo de verificación
+     * @param word Palabra
+     * @param result Resultado
+     */
+    public synchronized void put(CompiledGrammar snapshot, ParsingAlgorithm algorithm, String word,
+                                 DerivationResult result) {
+        checkSnapshot(snapshot);
+        if (capacity == 0) {
+            return;
+        }
+        long size = result.estimatedSize();
+        if (size > maxBytes) {
+            return;
+        }
+        Entry previous = entries.put(new Key(algorithm, word), new Entry(result, size));
+        if (previous != null) {
+            bytes -= previous.size;
+        }
+        bytes += size;
+        evict();
+    }
+
+    /**
+     * Descarta las entradas que pueden no ser válidas para otra instantánea
+     */
+    private void checkSnapshot(CompiledGrammar current) {
+        if (snapshot == current) {
+            return;
+        }
+        int[] addedRules = snapshot != null ? current.getRulesAddedSince(snapshot) : null;
+        boolean unchanged = addedRules != null;
+        for (int i = 0; unchanged && i < addedRules.length; i++) {
+            unchanged = !current.isUsefulRule(addedRules[i]);
+        }
+        if (!unchanged) {
+            entries.clear();
+            bytes = 0;
+        }
+        snapshot = current;
+    }
+
+    /**
+     * Descarta las entradas usadas hace más tiempo hasta cumplir los dos límites
+     */
+    private void evict() {
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (iterator.hasNext() && (entries.size() > capacity || bytes > maxBytes)) {
+            bytes -= iterator.next().size;
+            iterator.remove();
+        }
+    }
+
+    /**
+     * Vacía la caché (las estadísticas se conservan)
+     */
+    public synchronized void clear() {
+        entries.clear();
+        bytes = 0;
+        snapshot = null;
+    }
+
+    /**
+     * Cambia los límites de la caché, descartando entradas si hace falta
+     * @param capacity Número máximo de entradas (0 desactiva la caché)
+     * @param maxBytes Memoria estimada máxima, en bytes
+     */
+    public synchronized void setLimits(int capacity, long maxBytes) {
+        this.capacity = Math.max(0, capacity);
+        this.maxBytes = Math.max(0, maxBytes);
+        evict();
+    }
+
+    public synchronized int getCapacity() {
+        return capacity;
+    }
+
+    public synchronized long getMaxBytes() {
+        return maxBytes;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long getEstimatedBytes() {
+        return bytes;
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    /**
+     * Proporción de consultas que encontraron el resultado guardado
+     * @return Tasa de aciertos entre 0 y 1 (0 si no hubo consultas)
+     */
+    public synchronized double getHitRate() {
+        long total = hits + misses;
+        return total == 0 ? 0.0 : (double) hits / total;
+    }
+
+    /**
+     * Resumen de las estadísticas de la caché
+     */
+    @Override
+    public synchronized String toString() {
+        return String.format(Locale.ROOT, "Caché de resultados: %d de %d entradas (%.1f KB), "
+                        + "%d aciertos, %d fallos (tasa de aciertos %.1f%%)",
+                entries.size(), capacity, bytes / 1024.0, hits, misses, getHitRate() * 100);
+    }
+
+    /**
+     * Clave de una entrada: algoritmo y palabra
+     */
+    private static final class Key {
+        private final ParsingAlgorithm algorithm;
+        private final String word;
+        private final int hash;
+
+        Key(ParsingAlgorithm algorithm, String word) {
+            this.algorithm = algorithm;
+            this.word = word;
+            this.hash = 31 * algorithm.hashCode() + word.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) other;
+            return algorithm == key.algorithm && word.equals(key.word);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    private static final class Entry {
+        private final DerivationResult result;
+        private final long size;
+
+        Entry(DerivationResult result, long size) {
+            this.result = result;
+            this.size = size;
+        }
+    }
+}
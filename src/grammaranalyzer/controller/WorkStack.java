@@ -0,0 +1,92 @@
+package grammaranalyzer.controller;
+
+import java.util.Arrays;
+
+/**
+ * Pila de trabajo basada en arreglos para los recorridos en profundidad sin recursión
+ * Cada marco guarda dos referencias y dos enteros (cursor e índice) que el recorrido
+ * usa para continuar donde se quedó. Los arreglos crecen al doble cuando hace falta y
+ * se conservan entre llamadas, por lo que un recorrido no crea objetos por marco
+ *
+ * @param <A> Tipo de la primera referencia del marco
+ * @param <B> Tipo de la segunda referencia del marco
+ */
+final class WorkStack<A, B> {
+    private Object[] first = new Object[16];
+    private Object[] second = new Object[16];
+    private int[] cursor = new int[16];
+    private int[] index = new int[16];
+    private int size;
+
+    /**
+     * Agrega un marco con cursor e índice en cero
+     * @param a Primera referencia
+     * @param b Segunda referencia
+     */
+    void push(A a, B b) {
+        if (size == first.length) {
+            int capacity = size * 2;
+            first = Arrays.copyOf(first, capacity);
+            second = Arrays.copyOf(second, capacity);
+            cursor = Arrays.copyOf(cursor, capacity);
+            index = Arrays.copyOf(index, capacity);
+        }
+        first[size] = a;
+        second[size] = b;
+        cursor[size] = 0;
+        index[size] = 0;
+        size++;
+    }
+
+    /**
+     * Quita el marco del tope liberando sus referencias
+     */
+    void pop() {
+        size--;
+        first[size] = null;
+        second[size] = null;
+    }
+
+    /**
+     * Vacía la pila liberando las referencias
+     */
+    void clear() {
+        Arrays.fill(first, 0, size, null);
+        Arrays.fill(second, 0, size, null);
+        size = 0;
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    A first(int frame) {
+        return (A) first[frame];
+    }
+
+    @SuppressWarnings("unchecked")
+    B second(int frame) {
+        return (B) second[frame];
+    }
+
+    int cursor(int frame) {
+        return cursor[frame];
+    }
+
+    void setCursor(int frame, int value) {
+        cursor[frame] = value;
+    }
+
+    int index(int frame) {
+        return index[frame];
+    }
+
+    void setIndex(int frame, int value) {
+        index[frame] = value;
+    }
+}
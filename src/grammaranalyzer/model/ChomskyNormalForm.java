@@ -0,0 +1,531 @@
+package grammaranalyzer.model;
+
+import java.util.*;
+
+/**
+ * Clase que representa una gramática en Forma Normal de Chomsky (FNC)
+ * obtenida a partir de una gramática libre de contexto.
+ * Todas las reglas quedan de la forma A -> BC o A -> a, y cada una conserva
+ * su origen (producción original, símbolos anulables eliminados y cadena de
+ * producciones unitarias) para poder reconstruir los árboles de derivación
+ * en términos de la gramática original
+ */
+public class ChomskyNormalForm {
+    private static final String EPSILON = "ε";
+
+    // Símbolos: los no terminales incluyen los auxiliares creados en la conversión
+    private final List<String> nonTerminalNames = new ArrayList<>();
+    private final List<Boolean> helperFlags = new ArrayList<>();
+    private final List<String> terminalNames = new ArrayList<>();
+    private CompiledGrammar source;  // Gramática original compilada (mismos identificadores de terminales)
+    private int startSymbol = -1;
+
+    // Gramática binarizada intermedia (símbolos >= 0 son no terminales, ~t es el terminal t)
+    private final List<BinaryRule> binarizedRules = new ArrayList<>();
+    private int[] epsilonWitness;   // Regla que deriva ε para cada no terminal anulable (-1 si no lo es)
+
+    // Reglas finales en FNC
+    private int[] ruleLhs;
+    private int[] ruleLeft;         // No terminal izquierdo, o terminal si la regla es A -> a
+    private int[] ruleRight;        // No terminal derecho, o -1 si la regla es A -> a
+    private Variant[] ruleOrigin;   // Variante de origen (null para los envoltorios de terminales)
+    private Variant[][] ruleUnitPath; // Producciones unitarias aplicadas antes de la variante
+    private int[][] rulesByLeft;    // Reglas binarias agrupadas por su no terminal izquierdo
+    private int[][] rulesByTerminal; // Reglas A -> a agrupadas por terminal
+
+    /**
+     * Regla de la gramática binarizada (lado derecho de longitud 0, 1 o 2)
+     */
+    private static final class BinaryRule {
+        final int lhs;
+        final int[] rhs;
+
+        BinaryRule(int lhs, int[] rhs) {
+            this.lhs = lhs;
+            this.rhs = rhs;
+        }
+    }
+
+    /**
+     * Variante de una regla binarizada en la que se omiten algunos símbolos anulables
+     */
+    private static final class Variant {
+        final int source;   // Índice de la regla binarizada
+        final int keepMask; // Posiciones conservadas del lado derecho
+        final int[] kept;   // Símbolos conservados
+
+        Variant(int source, int keepMask, int[] kept) {
+            this.source = source;
+            this.keepMask = keepMask;
+            this.kept = kept;
+        }
+    }
+
+    private ChomskyNormalForm() {
+    }
+
+    /**
+     * Convierte una gramática a Forma Normal de Chomsky
+     * Pasos: binarización, eliminación de producciones ε, eliminación de
+     * producciones unitarias y sustitución de terminales en reglas binarias
+     *
+     * @param grammar Gramática original
+     * @return Gramática equivalente en FNC (sin la palabra vacía, ver {@link #acceptsEmptyWord()})
+     */
+    public static ChomskyNormalForm fromGrammar(Grammar grammar) {
+        return fromGrammar(grammar.compile());
+    }
+
+    /**
+     * Convierte una gramática ya compilada a Forma Normal de Chomsky
+     * Los no terminales originales y los terminales conservan sus identificadores
+     *
+     * @param grammar Gramática original compilada
+     * @return Gramática equivalente en FNC (sin la palabra vacía, ver {@link #acceptsEmptyWord()})
+     */
+    public static ChomskyNormalForm fromGrammar(CompiledGrammar grammar) {
+        ChomskyNormalForm cnf = new ChomskyNormalForm();
+        cnf.registerSymbols(grammar);
+        cnf.binarize(grammar);
+        cnf.computeNullable();
+        cnf.buildRules(cnf.buildVariants());
+        return cnf;
+    }
+
+    /**
+     * Registra los símbolos de la gramática original con sus mismos identificadores
+     */
+    private void registerSymbols(CompiledGrammar grammar) {
+        source = grammar;
+        for (int a = 0; a < grammar.getNonTerminalCount(); a++) {
+            addNonTerminal(grammar.getNonTerminalName(a), false);
+        }
+        for (int t = 0; t < grammar.getTerminalCount(); t++) {
+            terminalNames.add(grammar.getTerminalName(t));
+        }
+        startSymbol = grammar.getStartSymbol();
+    }
+
+    private int addNonTerminal(String name, boolean helper) {
+        int id = nonTerminalNames.size();
+        nonTerminalNames.add(name);
+        helperFlags.add(helper);
+        return id;
+    }
+
+    /**
+     * Divide las producciones largas A -> X1 X2 ... Xk en cadenas de reglas
+     * de longitud 2 usando no terminales auxiliares
+     */
+    private void binarize(CompiledGrammar grammar) {
+        int originalCount = nonTerminalNames.size();
+        for (int lhs = 0; lhs < originalCount; lhs++) {
+            String name = nonTerminalNames.get(lhs);
+            int helperCount = 0;
+
+            for (int rule : grammar.getRulesFor(lhs)) {
+                int[] symbols = grammar.getRuleRhs(rule);
+                int current = lhs;
+                int i = 0;
+                while (symbols.length - i > 2) {
+                    int helper = addNonTerminal(name + "'" + (++helperCount), true);
+                    binarizedRules.add(new BinaryRule(current, new int[]{symbols[i], helper}));
+                    current = helper;
+                    i++;
+                }
+                binarizedRules.add(new BinaryRule(current, Arrays.copyOfRange(symbols, i, symbols.length)));
+            }
+        }
+    }
+
+    /**
+     * Calcula los no terminales anulables y, para cada uno, una regla testigo
+     * que permite reconstruir su derivación de ε
+     */
+    private void computeNullable() {
+        epsilonWitness = new int[nonTerminalNames.size()];
+        Arrays.fill(epsilonWitness, -1);
+
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (int r = 0; r < binarizedRules.size(); r++) {
+                BinaryRule rule = binarizedRules.get(r);
+                if (epsilonWitness[rule.lhs] >= 0) {
+                    continue;
+                }
+
+                boolean nullable = true;
+                for (int symbol : rule.rhs) {
+                    if (!isNullable(symbol)) {
+                        nullable = false;
+                        break;
+                    }
+                }
+
+                if (nullable) {
+                    epsilonWitness[rule.lhs] = r;
+                    changed = true;
+                }
+            }
+        }
+    }
+
+    private boolean isNullable(int symbol) {
+        return symbol >= 0 && epsilonWitness[symbol] >= 0;
+    }
+
+    /**
+     * Genera, para cada regla binarizada, todas las variantes no vacías
+     * que resultan de omitir símbolos anulables
+     * @return Variantes agrupadas por no terminal del lado izquierdo
+     */
+    private List<List<Variant>> buildVariants() {
+        List<List<Variant>> variants = new ArrayList<>();
+        for (int i = 0; i < nonTerminalNames.size(); i++) {
+            variants.add(new ArrayList<>());
+        }
+
+        for (int r = 0; r < binarizedRules.size(); r++) {
+            BinaryRule rule = binarizedRules.get(r);
+            int length = rule.rhs.length;
+
+            for (int mask = 1; mask < (1 << length); mask++) {
+                boolean valid = true;
+                int[] kept = new int[Integer.bitCount(mask)];
+                int k = 0;
+                for (int pos = 0; pos < length; pos++) {
+                    if ((mask & (1 << pos)) != 0) {
+                        kept[k++] = rule.rhs[pos];
+                    } else if (!isNullable(rule.rhs[pos])) {
+                        valid = false;
+                        break;
+                    }
+                }
+
+                if (valid) {
+                    variants.get(rule.lhs).add(new Variant(r, mask, kept));
+                }
+            }
+        }
+
+        return variants;
+    }
+
+    /**
+     * Elimina las producciones unitarias y sustituye los terminales de las
+     * reglas binarias por no terminales envoltorio
+     */
+    private void buildRules(List<List<Variant>> variants) {
+        List<int[]> rules = new ArrayList<>();        // {lhs, left, right}
+        List<Variant> origins = new ArrayList<>();
+        List<Variant[]> unitPaths = new ArrayList<>();
+        Map<Integer, Integer> wrappers = new HashMap<>();
+        Set<String> seen = new HashSet<>();
+
+        int count = nonTerminalNames.size();
+        for (int a = 0; a < count; a++) {
+            // Recorrido en anchura por las producciones unitarias A -> B
+            Map<Integer, Variant> via = new HashMap<>();
+            Map<Integer, Integer> previous = new HashMap<>();
+            Deque<Integer> queue = new ArrayDeque<>();
+            List<Integer> reached = new ArrayList<>();
+            previous.put(a, -1);
+            queue.add(a);
+
+            while (!queue.isEmpty()) {
+                int b = queue.poll();
+                reached.add(b);
+                for (Variant variant : variants.get(b)) {
+                    if (variant.kept.length == 1 && variant.kept[0] >= 0
+                            && !previous.containsKey(variant.kept[0])) {
+                        previous.put(variant.kept[0], b);
+                        via.put(variant.kept[0], variant);
+                        queue.add(variant.kept[0]);
+                    }
+                }
+            }
+
+            for (int b : reached) {
+                Variant[] path = unitPath(b, previous, via);
+
+                for (Variant variant : variants.get(b)) {
+                    int[] kept = variant.kept;
+                    if (kept.length == 1 && kept[0] >= 0) {
+                        continue;
+                    }
+                    if (!seen.add(a + ":" + Arrays.toString(kept))) {
+                        continue;
+                    }
+
+                    if (kept.length == 1) {
+                        rules.add(new int[]{a, ~kept[0], -1});
+                    } else {
+                        int left = kept[0] >= 0 ? kept[0] : wrapperFor(~kept[0], wrappers, rules, origins, unitPaths);
+                        int right = kept[1] >= 0 ? kept[1] : wrapperFor(~kept[1], wrappers, rules, origins, unitPaths);
+                        rules.add(new int[]{a, left, right});
+                    }
+                    origins.add(variant);
+                    unitPaths.add(path);
+                }
+            }
+        }
+
+        int size = rules.size();
+        ruleLhs = new int[size];
+        ruleLeft = new int[size];
+        ruleRight = new int[size];
+        ruleOrigin = origins.toArray(new Variant[0]);
+        ruleUnitPath = unitPaths.toArray(new Variant[0][]);
+
+        List<List<Integer>> byLeft = new ArrayList<>();
+        for (int i = 0; i < nonTerminalNames.size(); i++) {
+            byLeft.add(new ArrayList<>());
+        }
+        List<List<Integer>> byTerminal = new ArrayList<>();
+        for (int i = 0; i < terminalNames.size(); i++) {
+            byTerminal.add(new ArrayList<>());
+        }
+
+        for (int r = 0; r < size; r++) {
+            int[] rule = rules.get(r);
+            ruleLhs[r] = rule[0];
+            ruleLeft[r] = rule[1];
+            ruleRight[r] = rule[2];
+            if (rule[2] < 0) {
+                byTerminal.get(rule[1]).add(r);
+            } else {
+                byLeft.get(rule[1]).add(r);
+            }
+        }
+
+        rulesByLeft = toArrays(byLeft);
+        rulesByTerminal = toArrays(byTerminal);
+    }
+
+    /**
+     * Reconstruye la cadena de producciones unitarias que lleva de A hasta B
+     */
+    private static Variant[] unitPath(int b, Map<Integer, Integer> previous, Map<Integer, Variant> via) {
+        Deque<Variant> path = new ArrayDeque<>();
+        for (int current = b; previous.get(current) >= 0; current = previous.get(current)) {
+            path.addFirst(via.get(current));
+        }
+        return path.toArray(new Variant[0]);
+    }
+
+    /**
+     * Obtiene (o crea) el no terminal envoltorio T_a -> a para un terminal
+     */
+    private int wrapperFor(int terminal, Map<Integer, Integer> wrappers, List<int[]> rules,
+                           List<Variant> origins, List<Variant[]> unitPaths) {
+        Integer wrapper = wrappers.get(terminal);
+        if (wrapper == null) {
+            wrapper = addNonTerminal("T_" + terminalNames.get(terminal), true);
+            wrappers.put(terminal, wrapper);
+            rules.add(new int[]{wrapper, terminal, -1});
+            origins.add(null);
+            unitPaths.add(new Variant[0]);
+        }
+        return wrapper;
+    }
+
+    private static int[][] toArrays(List<List<Integer>> lists) {
+        int[][] arrays = new int[lists.size()][];
+        for (int i = 0; i < arrays.length; i++) {
+            List<Integer> list = lists.get(i);
+            arrays[i] = new int[list.size()];
+            for (int j = 0; j < list.size(); j++) {
+                arrays[i][j] = list.get(j);
+            }
+        }
+        return arrays;
+    }
+
+    // Reconstrucción de árboles en términos de la gramática original
+
+    /**
+     * Reconstruye los nodos de la gramática original que corresponden a la
+     * aplicación de una regla de la FNC
+     *
+     * @param rule Regla de la FNC aplicada
+     * @param children Nodos ya reconstruidos de cada hijo de la regla (vacío para A -> a)
+     * @return Nodos resultantes; varios si la regla pertenece a un no terminal auxiliar
+     */
+    public List<TreeNode> restore(int rule, List<List<TreeNode>> children) {
+        if (ruleRight[rule] < 0) {
+            TreeNode leaf = new TreeNode(terminalNames.get(ruleLeft[rule]), true);
+            if (ruleOrigin[rule] == null) {
+                return Collections.singletonList(leaf);
+            }
+            children = Collections.singletonList(Collections.singletonList(leaf));
+        }
+
+        List<TreeNode> current = expandVariant(ruleOrigin[rule], children);
+        Variant[] path = ruleUnitPath[rule];
+        for (int i = path.length - 1; i >= 0; i--) {
+            current = expandVariant(path[i], Collections.singletonList(current));
+        }
+        return current;
+    }
+
+    /**
+     * Reconstruye el árbol de la palabra vacía a partir del símbolo inicial
+     * @return Árbol de derivación de ε
+     */
+    public TreeNode restoreEmptyWord() {
+        return epsilonTree(startSymbol).get(0);
+    }
+
+    /**
+     * Reinserta los símbolos anulables omitidos por una variante
+     */
+    private List<TreeNode> expandVariant(Variant variant, List<List<TreeNode>> children) {
+        BinaryRule source = binarizedRules.get(variant.source);
+        List<TreeNode> nodes = new ArrayList<>();
+        int k = 0;
+        for (int pos = 0; pos < source.rhs.length; pos++) {
+            if ((variant.keepMask & (1 << pos)) != 0) {
+                nodes.addAll(children.get(k++));
+            } else {
+                nodes.addAll(epsilonTree(source.rhs[pos]));
+            }
+        }
+        return wrap(source.lhs, nodes);
+    }
+
+    /**
+     * Construye la derivación de ε para un no terminal anulable
+     */
+    private List<TreeNode> epsilonTree(int nonTerminal) {
+        BinaryRule witness = binarizedRules.get(epsilonWitness[nonTerminal]);
+        List<TreeNode> nodes = new ArrayList<>();
+        if (witness.rhs.length == 0) {
+            nodes.add(new TreeNode(EPSILON, true));
+        }
+        for (int symbol : witness.rhs) {
+            nodes.addAll(epsilonTree(symbol));
+        }
+        return wrap(nonTerminal, nodes);
+    }
+
+    /**
+     * Agrupa los nodos bajo el no terminal, o los devuelve sueltos si es auxiliar
+     */
+    private List<TreeNode> wrap(int nonTerminal, List<TreeNode> nodes) {
+        if (helperFlags.get(nonTerminal)) {
+            return nodes;
+        }
+        TreeNode node = new TreeNode(nonTerminalNames.get(nonTerminal));
+        for (TreeNode child : nodes) {
+            node.addChild(child);
+        }
+        return Collections.singletonList(node);
+    }
+
+    // Getters
+
+    /**
+     * Obtiene la gramática original, en la que están los árboles restaurados
+     * @return Gramática original compilada
+     */
+    public CompiledGrammar getSourceGrammar() {
+        return source;
+    }
+
+    public int getNonTerminalCount() {
+        return nonTerminalNames.size();
+    }
+
+    public String getNonTerminalName(int nonTerminal) {
+        return nonTerminalNames.get(nonTerminal);
+    }
+
+    /**
+     * Obtiene el símbolo inicial
+     * @return Identificador del símbolo inicial o -1 si no está definido
+     */
+    public int getStartSymbol() {
+        return startSymbol;
+    }
+
+    /**
+     * Indica si la gramática original genera la palabra vacía
+     * (la FNC no la representa, por lo que se maneja aparte)
+     * @return true si el símbolo inicial es anulable
+     */
+    public boolean acceptsEmptyWord() {
+        return startSymbol >= 0 && epsilonWitness[startSymbol] >= 0;
+    }
+
+    /**
+     * Obtiene el identificador de un terminal
+     * @param terminal Símbolo terminal
+     * @return Identificador o -1 si no es un terminal de la gramática
+     */
+    public int getTerminalId(String terminal) {
+        return source.getTerminalId(terminal);
+    }
+
+    /**
+     * Codifica una palabra como secuencia de identificadores de terminales
+     * @param word Palabra a codificar
+     * @return Identificadores o null si la palabra contiene símbolos que no son terminales
+     */
+    public int[] encodeWord(String word) {
+        return source.encodeWord(word);
+    }
+
+    public int getRuleCount() {
+        return ruleLhs.length;
+    }
+
+    public int getRuleLhs(int rule) {
+        return ruleLhs[rule];
+    }
+
+    public int getRuleLeft(int rule) {
+        return ruleLeft[rule];
+    }
+
+    public int getRuleRight(int rule) {
+        return ruleRight[rule];
+    }
+
+    /**
+     * Obtiene las reglas A -> BC cuyo primer no terminal es B
+     * @param nonTerminal No terminal B
+     * @return Índices de las reglas
+     */
+    public int[] getRulesByLeft(int nonTerminal) {
+        return rulesByLeft[nonTerminal];
+    }
+
+    /**
+     * Obtiene las reglas A -> a para un terminal
+     * @param terminal Identificador del terminal
+     * @return Índices de las reglas
+     */
+    public int[] getRulesByTerminal(int terminal) {
+        return rulesByTerminal[terminal];
+    }
+
+    /**
+     * Representación en cadena de la gramática en FNC
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (int r = 0; r < ruleLhs.length; r++) {
+            sb.append(nonTerminalNames.get(ruleLhs[r])).append(" -> ");
+            if (ruleRight[r] < 0) {
+                sb.append(terminalNames.get(ruleLeft[r]));
+            } else {
+                sb.append(nonTerminalNames.get(ruleLeft[r])).append(' ')
+                        .append(nonTerminalNames.get(ruleRight[r]));
+            }
+            sb.append('\n');
+        }
+        return sb.toString();
+    }
+}
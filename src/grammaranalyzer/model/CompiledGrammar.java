@@ -0,0 +1,875 @@
+package grammaranalyzer.model;
+
+import java.util.*;
+
+/**
+ * Forma compilada de una gramática: símbolos con identificadores enteros densos y
+ * producciones como arreglos int[] agrupados por no terminal
+ * Los no terminales se identifican con 0..N-1 y los terminales con 0..T-1; en los
+ * lados derechos un símbolo s >= 0 es el no terminal s y un símbolo s < 0 es el
+ * terminal ~s, de modo que distinguir terminales de no terminales es una comparación
+ * de signo. Los símbolos pueden tener varios caracteres: las producciones y las palabras
+ * se dividen con un {@link SymbolTrie} tomando la coincidencia más larga, sin crear
+ * cadenas, por lo que los analizadores no asignan String en sus ciclos internos
+ *
+ * Es una instantánea inmutable de la gramática en una versión dada, con índices
+ * precalculados (reglas por no terminal, reglas que usan cada símbolo y símbolos
+ * anulables, productivos y alcanzables). Puede compartirse entre hilos mientras la
+ * interfaz sigue editando la {@link Grammar}; los arreglos que devuelve son de solo lectura
+ *
+ * Cuando a la gramática solo se le agregan producciones, la instantánea nueva se deriva de
+ * la anterior (ver {@link #getRulesAddedSince(CompiledGrammar)}): las reglas quedan en el
+ * mismo orden que con una compilación completa y los anulables, productivos y alcanzables
+ * se actualizan con listas de trabajo que parten solo de la regla agregada
+ */
+public class CompiledGrammar {
+    private static final String EPSILON = "ε";
+
+    private final String[] nonTerminalNames;
+    private final String[] terminalNames;
+    private final Map<String, Integer> nonTerminalIds;
+    private final Map<String, Integer> terminalIds;
+    private final int startSymbol;
+    private final long version;
+
+    private final int[] ruleLhs;
+    private final int[][] ruleRhs;
+    private final int[][] rulesFor;
+    private final SymbolTrie symbolTrie;   // Todos los símbolos, con su código
+    private final SymbolTrie terminalTrie; // Solo terminales, con su identificador
+    private final boolean spacedForms;     // Separar los símbolos de las formas con espacios
+
+    private final int[][] rulesUsingNonTerminal; // Reglas en cuyo lado derecho aparece cada no terminal
+    private final int[][] rulesUsingTerminal;    // Reglas en cuyo lado derecho aparece cada terminal
+    private final int[] epsilonRule;             // Regla que deriva ε para cada anulable (-1 si no lo es)
+    private final boolean[] productive;          // No terminales que derivan alguna palabra
+    private final boolean[] reachable;           // No terminales alcanzables desde el símbolo inicial
+
+    private final Object lineage;        // Compilación completa de la que desciende (compartido al agregar reglas)
+    private final long baseVersion;      // Versión de esa compilación completa
+    private final int[] addedRules;      // Reglas agregadas desde entonces, en el orden en que se agregaron
+    private final long[] addedVersions;  // Versión de la gramática en la que se agregó cada una
+
+    /**
+     * Compila una gramática (ver {@link Grammar#compile()})
+     * Los símbolos se numeran en orden alfabético; si un símbolo es a la vez
+     * terminal y no terminal se trata como no terminal
+     * @param grammar Gramática a compilar
+     */
+    CompiledGrammar(Grammar grammar) {
+        version = grammar.getVersion();
+        nonTerminalIds = new HashMap<>();
+        terminalIds = new HashMap<>();
+        symbolTrie = new SymbolTrie();
+        terminalTrie = new SymbolTrie();
+
+        List<String> nonTerminals = new ArrayList<>(new TreeSet<>(grammar.getNonTerminals()));
+        nonTerminalNames = nonTerminals.toArray(new String[0]);
+        for (int i = 0; i < nonTerminalNames.length; i++) {
+            nonTerminalIds.put(nonTerminalNames[i], i);
+        }
+        List<String> terminals = new ArrayList<>();
+        for (String terminal : new TreeSet<>(grammar.getTerminals())) {
+            if (!nonTerminalIds.containsKey(terminal)) {
+                terminalIds.put(terminal, terminals.size());
+                terminals.add(terminal);
+            }
+        }
+        terminalNames = terminals.toArray(new String[0]);
+        startSymbol = nonTerminalIds.getOrDefault(grammar.getStartSymbol(), -1);
+
+        for (int t = 0; t < terminalNames.length; t++) {
+            symbolTrie.add(terminalNames[t], ~t);
+            terminalTrie.add(terminalNames[t], t);
+        }
+        for (int a = 0; a < nonTerminalNames.length; a++) {
+            symbolTrie.add(nonTerminalNames[a], a);
+        }
+        spacedForms = hasLongNames(nonTerminalNames, terminalNames);
+
+        Map<String, List<String>> productions = grammar.getProductions();
+        List<Integer> lhsList = new ArrayList<>();
+        List<int[]> rhsList = new ArrayList<>();
+        for (int a = 0; a < nonTerminalNames.length; a++) {
+            for (String production : productions.getOrDefault(nonTerminalNames[a], Collections.emptyList())) {
+                int[] rhs = encodeProduction(production);
+                if (rhs != null) {
+                    lhsList.add(a);
+                    rhsList.add(rhs);
+                }
+            }
+        }
+        ruleLhs = lhsList.stream().mapToInt(Integer::intValue).toArray();
+        ruleRhs = rhsList.toArray(new int[0][]);
+        rulesFor = groupRules(ruleLhs, nonTerminalNames.length);
+
+        rulesUsingNonTerminal = new int[nonTerminalNames.length][];
+        rulesUsingTerminal = new int[terminalNames.length][];
+        buildUsageIndex();
+        epsilonRule = computeNullable();
+        productive = computeProductive();
+        reachable = computeReachable();
+        lineage = new Object();
+        baseVersion = version;
+        addedRules = new int[0];
+        addedVersions = new long[0];
+    }
+
+    /**
+     * Deriva la instantánea que resulta de agregar una producción a la gramática de otra
+     * La regla nueva se inserta después de las demás de su no terminal, como quedaría al
+     * compilar la gramática completa; los índices se reconstruyen (son lineales) y los
+     * anulables, productivos y alcanzables se actualizan partiendo solo de la regla nueva
+     * @param base Instantánea de la versión anterior
+     * @param version Versión de la gramática con la producción agregada
+     * @param lhs No terminal de la producción
+     * @param rhs Lado derecho codificado, o null si la producción no agrega ninguna regla
+     */
+    private CompiledGrammar(CompiledGrammar base, long version, int lhs, int[] rhs) {
+        this.version = version;
+        nonTerminalNames = base.nonTerminalNames;
+        terminalNames = base.terminalNames;
+        nonTerminalIds = base.nonTerminalIds;
+        terminalIds = base.terminalIds;
+        symbolTrie = base.symbolTrie;
+        terminalTrie = base.terminalTrie;
+        spacedForms = base.spacedForms;
+        startSymbol = base.startSymbol;
+        lineage = base.lineage;
+        baseVersion = base.baseVersion;
+
+        if (rhs == null) {
+            ruleLhs = base.ruleLhs;
+            ruleRhs = base.ruleRhs;
+            rulesFor = base.rulesFor;
+            rulesUsingNonTerminal = base.rulesUsingNonTerminal;
+            rulesUsingTerminal = base.rulesUsingTerminal;
+            epsilonRule = base.epsilonRule;
+            productive = base.productive;
+            reachable = base.reachable;
+            addedRules = base.addedRules;
+            addedVersions = base.addedVersions;
+            return;
+        }
+
+        int position = insertionPoint(base, lhs);
+        int count = base.ruleLhs.length;
+        ruleLhs = new int[count + 1];
+        ruleRhs = new int[count + 1][];
+        System.arraycopy(base.ruleLhs, 0, ruleLhs, 0, position);
+        System.arraycopy(base.ruleRhs, 0, ruleRhs, 0, position);
+        ruleLhs[position] = lhs;
+        ruleRhs[position] = rhs;
+        System.arraycopy(base.ruleLhs, position, ruleLhs, position + 1, count - position);
+        System.arraycopy(base.ruleRhs, position, ruleRhs, position + 1, count - position);
+        rulesFor = groupRules(ruleLhs, nonTerminalNames.length);
+
+        rulesUsingNonTerminal = new int[nonTerminalNames.length][];
+        rulesUsingTerminal = new int[terminalNames.length][];
+        buildUsageIndex();
+
+        epsilonRule = base.epsilonRule.clone();
+        for (int a = 0; a < epsilonRule.length; a++) {
+            if (epsilonRule[a] >= position) {
+                epsilonRule[a]++;
+            }
+        }
+        productive = base.productive.clone();
+        reachable = base.reachable.clone();
+        extendNullable(position);
+        extendProductive(position);
+        extendReachable(position);
+
+        addedRules = Arrays.copyOf(base.addedRules, base.addedRules.length + 1);
+        for (int i = 0; i < base.addedRules.length; i++) {
+            if (addedRules[i] >= position) {
+                addedRules[i]++;
+            }
+        }
+        addedRules[base.addedRules.length] = position;
+        addedVersions = Arrays.copyOf(base.addedVersions, base.addedVersions.length + 1);
+        addedVersions[base.addedVersions.length] = version;
+    }
+
+    /**
+     * Deriva la instantánea que resulta de agregar una producción (ver {@link Grammar#compile()})
+     * @param version Versión de la gramática con la producción agregada
+     * @param nonTerminal No terminal de la producción
+     * @param production Producción (lado derecho)
+     * @return Instantánea de la nueva versión
+     */
+    CompiledGrammar withProduction(long version, String nonTerminal, String production) {
+        int lhs = getNonTerminalId(nonTerminal);
+        return new CompiledGrammar(this, version, lhs, lhs >= 0 ? encodeProduction(production) : null);
+    }
+
+    /**
+     * Posición de una regla nueva del no terminal: después de sus otras reglas o, si no
+     * tiene, después de las del no terminal anterior que tenga alguna
+     */
+    private static int insertionPoint(CompiledGrammar base, int lhs) {
+        for (int a = lhs; a >= 0; a--) {
+            int[] rules = base.rulesFor[a];
+            if (rules.length > 0) {
+                return rules[rules.length - 1] + 1;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Crea una gramática con los mismos símbolos, símbolo inicial y versión que otra,
+     * pero con otras reglas (por ejemplo, el resultado de una transformación)
+     * @param base Gramática de la que se toman los símbolos
+     * @param ruleLhs Lado izquierdo de cada regla
+     * @param ruleRhs Lado derecho codificado de cada regla
+     */
+    CompiledGrammar(CompiledGrammar base, int[] ruleLhs, int[][] ruleRhs) {
+        this(base, new String[0], ruleLhs, ruleRhs);
+    }
+
+    /**
+     * Crea una gramática con los símbolos de otra más nuevos no terminales, que reciben
+     * los identificadores siguientes a los existentes
+     * @param base Gramática de la que se toman los símbolos
+     * @param newNonTerminals Nombres de los no terminales nuevos (no usados en la base)
+     * @param ruleLhs Lado izquierdo de cada regla
+     * @param ruleRhs Lado derecho codificado de cada regla
+     */
+    CompiledGrammar(CompiledGrammar base, String[] newNonTerminals, int[] ruleLhs, int[][] ruleRhs) {
+        version = base.version;
+        terminalNames = base.terminalNames;
+        terminalIds = base.terminalIds;
+        terminalTrie = base.terminalTrie;
+        startSymbol = base.startSymbol;
+        if (newNonTerminals.length == 0) {
+            nonTerminalNames = base.nonTerminalNames;
+            nonTerminalIds = base.nonTerminalIds;
+            symbolTrie = base.symbolTrie;
+        } else {
+            int baseCount = base.nonTerminalNames.length;
+            nonTerminalNames = Arrays.copyOf(base.nonTerminalNames, baseCount + newNonTerminals.length);
+            System.arraycopy(newNonTerminals, 0, nonTerminalNames, baseCount, newNonTerminals.length);
+            nonTerminalIds = new HashMap<>(base.nonTerminalIds);
+            symbolTrie = new SymbolTrie();
+            for (int t = 0; t < terminalNames.length; t++) {
+                symbolTrie.add(terminalNames[t], ~t);
+            }
+            for (int a = 0; a < nonTerminalNames.length; a++) {
+                nonTerminalIds.putIfAbsent(nonTerminalNames[a], a);
+                symbolTrie.add(nonTerminalNames[a], a);
+            }
+        }
+        spacedForms = hasLongNames(nonTerminalNames, terminalNames);
+
+        this.ruleLhs = ruleLhs;
+        this.ruleRhs = ruleRhs;
+        rulesFor = groupRules(ruleLhs, nonTerminalNames.length);
+
+        rulesUsingNonTerminal = new int[nonTerminalNames.length][];
+        rulesUsingTerminal = new int[terminalNames.length][];
+        buildUsageIndex();
+        epsilonRule = computeNullable();
+        productive = computeProductive();
+        reachable = computeReachable();
+        lineage = new Object();
+        baseVersion = version;
+        addedRules = new int[0];
+        addedVersions = new long[0];
+    }
+
+    /**
+     * Reconstruye una gramática compilada guardada (ver {@link GrammarSerializer})
+     * Los arreglos se usan tal cual y deben venir validados; las tablas de anulables,
+     * productivos y alcanzables se recalculan a partir de las reglas, como en los demás
+     * constructores (ver {@link #hasTables(int[], boolean[], boolean[])})
+     */
+    CompiledGrammar(long version, String[] nonTerminalNames, String[] terminalNames, int startSymbol,
+                    int[] ruleLhs, int[][] ruleRhs) {
+        this.version = version;
+        this.nonTerminalNames = nonTerminalNames;
+        this.terminalNames = terminalNames;
+        this.startSymbol = startSymbol;
+        nonTerminalIds = new HashMap<>();
+        terminalIds = new HashMap<>();
+        symbolTrie = new SymbolTrie();
+        terminalTrie = new SymbolTrie();
+        for (int t = 0; t < terminalNames.length; t++) {
+            terminalIds.put(terminalNames[t], t);
+            symbolTrie.add(terminalNames[t], ~t);
+            terminalTrie.add(terminalNames[t], t);
+        }
+        for (int a = 0; a < nonTerminalNames.length; a++) {
+            nonTerminalIds.put(nonTerminalNames[a], a);
+            symbolTrie.add(nonTerminalNames[a], a);
+        }
+        spacedForms = hasLongNames(nonTerminalNames, terminalNames);
+
+        this.ruleLhs = ruleLhs;
+        this.ruleRhs = ruleRhs;
+        rulesFor = groupRules(ruleLhs, nonTerminalNames.length);
+
+        rulesUsingNonTerminal = new int[nonTerminalNames.length][];
+        rulesUsingTerminal = new int[terminalNames.length][];
+        buildUsageIndex();
+        epsilonRule = computeNullable();
+        productive = computeProductive();
+        reachable = computeReachable();
+        lineage = new Object();
+        baseVersion = version;
+        addedRules = new int[0];
+        addedVersions = new long[0];
+    }
+
+    /**
+     * Indica si unas tablas guardadas coinciden con las calculadas a partir de las reglas:
+     * los mismos productivos y alcanzables, y una regla ε para cada anulable (no
+     * necesariamente la misma testigo) cuyo lado izquierdo es el no terminal y cuyo lado
+     * derecho solo tiene anulables
+     * @param epsilonRule Regla ε de cada no terminal (-1 si no es anulable)
+     * @param productive Indica si cada no terminal es productivo
+     * @param reachable Indica si cada no terminal es alcanzable
+     * @return true si las tablas son coherentes con la gramática
+     */
+    boolean hasTables(int[] epsilonRule, boolean[] productive, boolean[] reachable) {
+        if (!Arrays.equals(productive, this.productive) || !Arrays.equals(reachable, this.reachable)
+                || epsilonRule.length != this.epsilonRule.length) {
+            return false;
+        }
+        for (int a = 0; a < epsilonRule.length; a++) {
+            int rule = epsilonRule[a];
+            if ((rule >= 0) != (this.epsilonRule[a] >= 0)) {
+                return false;
+            }
+            if (rule >= 0) {
+                if (rule >= ruleLhs.length || ruleLhs[rule] != a) {
+                    return false;
+                }
+                for (int symbol : ruleRhs[rule]) {
+                    if (symbol < 0 || this.epsilonRule[symbol] < 0) {
+                        return false;
+                    }
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Agrupa las reglas por su lado izquierdo conservando su orden
+     */
+    private static int[][] groupRules(int[] ruleLhs, int nonTerminals) {
+        int[] counts = new int[nonTerminals];
+        for (int lhs : ruleLhs) {
+            counts[lhs]++;
+        }
+        int[][] groups = new int[nonTerminals][];
+        for (int a = 0; a < nonTerminals; a++) {
+            groups[a] = new int[counts[a]];
+            counts[a] = 0;
+        }
+        for (int rule = 0; rule < ruleLhs.length; rule++) {
+            groups[ruleLhs[rule]][counts[ruleLhs[rule]]++] = rule;
+        }
+        return groups;
+    }
+
+    /**
+     * Construye el índice inverso: para cada símbolo, las reglas que lo usan (sin repetir)
+     */
+    private void buildUsageIndex() {
+        int[] nonTerminalCounts = new int[nonTerminalNames.length];
+        int[] terminalCounts = new int[terminalNames.length];
+        int[] lastRule = new int[nonTerminalNames.length + terminalNames.length];
+        Arrays.fill(lastRule, -1);
+        for (int pass = 0; pass < 2; pass++) {
+            if (pass == 1) {
+                for (int a = 0; a < nonTerminalCounts.length; a++) {
+                    rulesUsingNonTerminal[a] = new int[nonTerminalCounts[a]];
+                    nonTerminalCounts[a] = 0;
+                }
+                for (int t = 0; t < terminalCounts.length; t++) {
+                    rulesUsingTerminal[t] = new int[terminalCounts[t]];
+                    terminalCounts[t] = 0;
+                }
+                Arrays.fill(lastRule, -1);
+            }
+            for (int rule = 0; rule < ruleLhs.length; rule++) {
+                for (int symbol : ruleRhs[rule]) {
+                    int slot = symbol >= 0 ? symbol : nonTerminalNames.length + ~symbol;
+                    if (lastRule[slot] == rule) {
+                        continue;
+                    }
+                    lastRule[slot] = rule;
+                    if (symbol >= 0) {
+                        if (pass == 1) {
+                            rulesUsingNonTerminal[symbol][nonTerminalCounts[symbol]] = rule;
+                        }
+                        nonTerminalCounts[symbol]++;
+                    } else {
+                        if (pass == 1) {
+                            rulesUsingTerminal[~symbol][terminalCounts[~symbol]] = rule;
+                        }
+                        terminalCounts[~symbol]++;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Calcula los no terminales anulables junto con una regla testigo para cada uno
+     */
+    private int[] computeNullable() {
+        int[] witness = new int[nonTerminalNames.length];
+        Arrays.fill(witness, -1);
+
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (int rule = 0; rule < ruleLhs.length; rule++) {
+                if (witness[ruleLhs[rule]] >= 0) {
+                    continue;
+                }
+                boolean nullable = true;
+                for (int symbol : ruleRhs[rule]) {
+                    if (symbol < 0 || witness[symbol] < 0) {
+                        nullable = false;
+                        break;
+                    }
+                }
+                if (nullable) {
+                    witness[ruleLhs[rule]] = rule;
+                    changed = true;
+                }
+            }
+        }
+        return witness;
+    }
+
+    /**
+     * Calcula los no terminales productivos con una lista de trabajo sobre el índice inverso:
+     * una regla es productiva cuando todos los no terminales de su lado derecho lo son
+     */
+    private boolean[] computeProductive() {
+        boolean[] result = new boolean[nonTerminalNames.length];
+        int[] pending = new int[ruleLhs.length]; // No terminales aún no productivos de cada regla
+        Deque<Integer> worklist = new ArrayDeque<>();
+        for (int rule = 0; rule < ruleLhs.length; rule++) {
+            for (int symbol : ruleRhs[rule]) {
+                if (symbol >= 0) {
+                    pending[rule]++;
+                }
+            }
+            if (pending[rule] == 0 && !result[ruleLhs[rule]]) {
+                result[ruleLhs[rule]] = true;
+                worklist.add(ruleLhs[rule]);
+            }
+        }
+        while (!worklist.isEmpty()) {
+            int a = worklist.poll();
+            for (int rule : rulesUsingNonTerminal[a]) {
+                for (int symbol : ruleRhs[rule]) {
+                    if (symbol == a) {
+                        pending[rule]--;
+                    }
+                }
+                if (pending[rule] == 0 && !result[ruleLhs[rule]]) {
+                    result[ruleLhs[rule]] = true;
+                    worklist.add(ruleLhs[rule]);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Calcula los no terminales alcanzables desde el símbolo inicial
+     */
+    private boolean[] computeReachable() {
+        boolean[] result = new boolean[nonTerminalNames.length];
+        if (startSymbol < 0) {
+            return result;
+        }
+        Deque<Integer> worklist = new ArrayDeque<>();
+        result[startSymbol] = true;
+        worklist.add(startSymbol);
+        while (!worklist.isEmpty()) {
+            for (int rule : rulesFor[worklist.poll()]) {
+                for (int symbol : ruleRhs[rule]) {
+                    if (symbol >= 0 && !result[symbol]) {
+                        result[symbol] = true;
+                        worklist.add(symbol);
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Marca los no terminales que pasan a ser anulables por una regla nueva, propagando
+     * por el índice inverso solo desde su lado izquierdo
+     */
+    private void extendNullable(int newRule) {
+        Deque<Integer> worklist = new ArrayDeque<>();
+        if (epsilonRule[ruleLhs[newRule]] < 0 && derivesEpsilon(newRule)) {
+            epsilonRule[ruleLhs[newRule]] = newRule;
+            worklist.add(ruleLhs[newRule]);
+        }
+        while (!worklist.isEmpty()) {
+            for (int rule : rulesUsingNonTerminal[worklist.poll()]) {
+                if (epsilonRule[ruleLhs[rule]] < 0 && derivesEpsilon(rule)) {
+                    epsilonRule[ruleLhs[rule]] = rule;
+                    worklist.add(ruleLhs[rule]);
+                }
+            }
+        }
+    }
+
+    private boolean derivesEpsilon(int rule) {
+        for (int symbol : ruleRhs[rule]) {
+            if (symbol < 0 || epsilonRule[symbol] < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Marca los no terminales que pasan a ser productivos por una regla nueva
+     */
+    private void extendProductive(int newRule) {
+        Deque<Integer> worklist = new ArrayDeque<>();
+        if (!productive[ruleLhs[newRule]] && isProductiveRule(newRule)) {
+            productive[ruleLhs[newRule]] = true;
+            worklist.add(ruleLhs[newRule]);
+        }
+        while (!worklist.isEmpty()) {
+            for (int rule : rulesUsingNonTerminal[worklist.poll()]) {
+                if (!productive[ruleLhs[rule]] && isProductiveRule(rule)) {
+                    productive[ruleLhs[rule]] = true;
+                    worklist.add(ruleLhs[rule]);
+                }
+            }
+        }
+    }
+
+    private boolean isProductiveRule(int rule) {
+        for (int symbol : ruleRhs[rule]) {
+            if (symbol >= 0 && !productive[symbol]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Marca los no terminales que pasan a ser alcanzables por una regla nueva
+     */
+    private void extendReachable(int newRule) {
+        if (!reachable[ruleLhs[newRule]]) {
+            return;
+        }
+        Deque<Integer> worklist = new ArrayDeque<>();
+        for (int symbol : ruleRhs[newRule]) {
+            if (symbol >= 0 && !reachable[symbol]) {
+                reachable[symbol] = true;
+                worklist.add(symbol);
+            }
+        }
+        while (!worklist.isEmpty()) {
+            for (int rule : rulesFor[worklist.poll()]) {
+                for (int symbol : ruleRhs[rule]) {
+                    if (symbol >= 0 && !reachable[symbol]) {
+                        reachable[symbol] = true;
+                        worklist.add(symbol);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Reglas agregadas desde otra instantánea de la misma gramática, si esta se derivó de
+     * aquella solo agregando producciones (sin cambiar símbolos ni el símbolo inicial)
+     * @param previous Instantánea anterior
+     * @return Índices de las reglas agregadas (en esta instantánea) en orden creciente,
+     *         o null si esta instantánea no es una extensión de la anterior
+     */
+    public int[] getRulesAddedSince(CompiledGrammar previous) {
+        if (previous == this) {
+            return new int[0];
+        }
+        if (previous.lineage != lineage || previous.version < baseVersion || previous.version > version) {
+            return null;
+        }
+        int count = 0;
+        for (long added : addedVersions) {
+            if (added > previous.version) {
+                count++;
+            }
+        }
+        if (ruleLhs.length - count != previous.ruleLhs.length) {
+            return null;
+        }
+        int[] rules = new int[count];
+        count = 0;
+        for (int i = 0; i < addedRules.length; i++) {
+            if (addedVersions[i] > previous.version) {
+                rules[count++] = addedRules[i];
+            }
+        }
+        Arrays.sort(rules);
+        return rules;
+    }
+
+    /**
+     * Indica si una regla puede usarse en alguna derivación de una palabra: su lado
+     * izquierdo es alcanzable y todos los no terminales de su lado derecho son productivos
+     * (agregar reglas que no cumplen esto no cambia el lenguaje)
+     * @param rule Índice de la regla
+     * @return true si la regla es útil
+     */
+    public boolean isUsefulRule(int rule) {
+        return reachable[ruleLhs[rule]] && isProductiveRule(rule);
+    }
+
+    /**
+     * Obtiene la gramática con los mismos símbolos y solo las reglas útiles (ver
+     * {@link #isUsefulRule(int)}), que genera el mismo lenguaje con los mismos árboles
+     * @return Gramática reducida, o esta misma si todas sus reglas son útiles
+     */
+    public CompiledGrammar withoutUselessRules() {
+        int count = 0;
+        for (int rule = 0; rule < ruleLhs.length; rule++) {
+            if (isUsefulRule(rule)) {
+                count++;
+            }
+        }
+        if (count == ruleLhs.length) {
+            return this;
+        }
+        int[] usefulLhs = new int[count];
+        int[][] usefulRhs = new int[count][];
+        count = 0;
+        for (int rule = 0; rule < ruleLhs.length; rule++) {
+            if (isUsefulRule(rule)) {
+                usefulLhs[count] = ruleLhs[rule];
+                usefulRhs[count++] = ruleRhs[rule];
+            }
+        }
+        return new CompiledGrammar(this, usefulLhs, usefulRhs);
+    }
+
+    /**
+     * Codifica una producción o forma sentencial como arreglo de símbolos
+     * Los símbolos pueden ir separados por espacios o juntos ("aSb", "id + E")
+     * @param production Producción ("ε" o cadena vacía para la producción vacía)
+     * @return Símbolos codificados o null si contiene símbolos desconocidos
+     */
+    public int[] encodeProduction(String production) {
+        if (production.equals(EPSILON)) {
+            return new int[0];
+        }
+        return symbolTrie.tokenize(production);
+    }
+
+    /**
+     * Codifica una palabra como secuencia de identificadores de terminales
+     * @param word Palabra a codificar (los espacios en blanco solo separan terminales)
+     * @return Identificadores o null si la palabra contiene símbolos que no son terminales
+     */
+    public int[] encodeWord(CharSequence word) {
+        return terminalTrie.tokenize(word);
+    }
+
+    /**
+     * Obtiene el trie de terminales, cuyos códigos son los identificadores de terminal
+     * @return Trie de terminales
+     */
+    public SymbolTrie getTerminalTrie() {
+        return terminalTrie;
+    }
+
+    /**
+     * Nombre de un símbolo codificado
+     * @param symbol Símbolo codificado
+     * @return Nombre del terminal o no terminal
+     */
+    public String symbolName(int symbol) {
+        return symbol >= 0 ? nonTerminalNames[symbol] : terminalNames[~symbol];
+    }
+
+    /**
+     * Representación de una regla en la forma A -> α
+     * @param rule Índice de la regla
+     * @return Regla en texto
+     */
+    public String ruleToString(int rule) {
+        return nonTerminalNames[ruleLhs[rule]] + " -> " + formToString(ruleRhs[rule]);
+    }
+
+    /**
+     * Representación de una forma sentencial codificada
+     * Los símbolos se separan con espacios si algún símbolo de la gramática tiene más de un
+     * carácter, de modo que todas las formas de una derivación se escriben igual
+     * @param form Símbolos codificados
+     * @return Forma en texto ("ε" si está vacía)
+     */
+    public String formToString(int[] form) {
+        if (form.length == 0) {
+            return EPSILON;
+        }
+
+        StringBuilder sb = new StringBuilder();
+        for (int symbol : form) {
+            if (spacedForms && sb.length() > 0) {
+                sb.append(' ');
+            }
+            sb.append(symbolName(symbol));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Indica si algún nombre de símbolo tiene más de un carácter
+     */
+    private static boolean hasLongNames(String[] nonTerminalNames, String[] terminalNames) {
+        for (String name : nonTerminalNames) {
+            if (name.length() > 1) {
+                return true;
+            }
+        }
+        for (String name : terminalNames) {
+            if (name.length() > 1) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Busca un no terminal por su nombre
+     * @param name Nombre del no terminal
+     * @return Identificador o -1 si no existe
+     */
+    public int getNonTerminalId(String name) {
+        return nonTerminalIds.getOrDefault(name, -1);
+    }
+
+    /**
+     * Indica si un nombre ya se usa como terminal o no terminal
+     * @param name Nombre a consultar
+     * @return true si el nombre pertenece a algún símbolo
+     */
+    public boolean hasSymbol(String name) {
+        return nonTerminalIds.containsKey(name) || terminalIds.containsKey(name);
+    }
+
+    /**
+     * Busca un terminal por su nombre
+     * @param name Nombre del terminal
+     * @return Identificador o -1 si no existe
+     */
+    public int getTerminalId(String name) {
+        return terminalIds.getOrDefault(name, -1);
+    }
+
+    // Getters
+
+    public int getNonTerminalCount() {
+        return nonTerminalNames.length;
+    }
+
+    public int getTerminalCount() {
+        return terminalNames.length;
+    }
+
+    public String getNonTerminalName(int nonTerminal) {
+        return nonTerminalNames[nonTerminal];
+    }
+
+    public String getTerminalName(int terminal) {
+        return terminalNames[terminal];
+    }
+
+    /**
+     * Obtiene el símbolo inicial
+     * @return Identificador del símbolo inicial o -1 si no está definido
+     */
+    public int getStartSymbol() {
+        return startSymbol;
+    }
+
+    /**
+     * Obtiene la versión de la gramática a partir de la cual se compiló
+     * Las instantáneas de una misma gramática tienen versiones crecientes
+     * @return Versión de la gramática
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    public int getRuleCount() {
+        return ruleLhs.length;
+    }
+
+    public int getRuleLhs(int rule) {
+        return ruleLhs[rule];
+    }
+
+    public int[] getRuleRhs(int rule) {
+        return ruleRhs[rule];
+    }
+
+    public int[] getRulesFor(int nonTerminal) {
+        return rulesFor[nonTerminal];
+    }
+
+    /**
+     * Obtiene las reglas en cuyo lado derecho aparece un símbolo
+     * @param symbol Símbolo codificado (no terminal o ~terminal)
+     * @return Índices de las reglas, sin repetir y en orden creciente
+     */
+    public int[] getRulesUsing(int symbol) {
+        return symbol >= 0 ? rulesUsingNonTerminal[symbol] : rulesUsingTerminal[~symbol];
+    }
+
+    /**
+     * Indica si un no terminal deriva la palabra vacía
+     * @param nonTerminal No terminal
+     * @return true si es anulable
+     */
+    public boolean isNullable(int nonTerminal) {
+        return epsilonRule[nonTerminal] >= 0;
+    }
+
+    /**
+     * Obtiene una regla con la que un no terminal anulable deriva ε
+     * (todos los símbolos de su lado derecho son anulables)
+     * @param nonTerminal No terminal
+     * @return Índice de la regla o -1 si el no terminal no es anulable
+     */
+    public int getEpsilonRule(int nonTerminal) {
+        return epsilonRule[nonTerminal];
+    }
+
+    /**
+     * Indica si un no terminal deriva al menos una palabra de terminales
+     * @param nonTerminal No terminal
+     * @return true si es productivo
+     */
+    public boolean isProductive(int nonTerminal) {
+        return productive[nonTerminal];
+    }
+
+    /**
+     * Indica si un no terminal aparece en alguna forma sentencial derivada del símbolo inicial
+     * @param nonTerminal No terminal
+     * @return true si es alcanzable
+     */
+    public boolean isReachable(int nonTerminal) {
+        return reachable[nonTerminal];
+    }
+}
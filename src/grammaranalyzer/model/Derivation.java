@@ -0,0 +1,277 @@
+package grammaranalyzer.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Derivación codificada de forma compacta: la secuencia de pasos como pares (posición
+ * del no terminal expandido, regla aplicada) sobre una {@link CompiledGrammar}, en un
+ * solo arreglo int[]. Los analizadores la registran sin crear texto ni nodos; las formas
+ * sentenciales y el árbol se generan solo cuando se piden, repitiendo los pasos desde el
+ * símbolo inicial, y el texto puede pedirse por páginas
+ *
+ * Sirve para cualquier orden de expansión (más a la izquierda, más a la derecha o el del
+ * camino que encontró la búsqueda), ya que cada paso indica su posición
+ */
+public final class Derivation {
+    private static final String EPSILON = "ε";
+
+    private final CompiledGrammar grammar;
+    private final int[] steps; // steps[2i] = posición, steps[2i + 1] = regla del paso i
+
+    // Última forma generada por appendSteps, para que la página siguiente continúe desde ella
+    private int[] pageForm;
+    private int pageStep;
+
+    /**
+     * Constructor
+     * @param grammar Gramática de las reglas
+     * @param positions Posición del no terminal expandido en cada paso
+     * @param rules Regla aplicada en cada paso
+     * @param count Número de pasos (se copian los count primeros)
+     */
+    public Derivation(CompiledGrammar grammar, int[] positions, int[] rules, int count) {
+        this.grammar = grammar;
+        steps = new int[2 * count];
+        for (int i = 0; i < count; i++) {
+            steps[2 * i] = positions[i];
+            steps[2 * i + 1] = rules[i];
+        }
+    }
+
+    /**
+     * Constructor a partir de los pares ya intercalados
+     * @param grammar Gramática de las reglas
+     * @param steps Pares (posición, regla); se usa el arreglo tal cual
+     */
+    private Derivation(CompiledGrammar grammar, int[] steps) {
+        this.grammar = grammar;
+        this.steps = steps;
+    }
+
+    /**
+     * Codifica la derivación más a la izquierda (o más a la derecha) de un árbol
+     * Cada nodo se asocia con la regla de la gramática cuyo lado derecho coincide con
+     * sus hijos (un único hijo ε representa el lado derecho vacío)
+     *
+     * @param grammar Gramática del árbol
+     * @param root Raíz del árbol de derivación (el símbolo inicial)
+     * @param rightmost true para la derivación más a la derecha
+     * @return Derivación, o null si algún nodo no corresponde a una regla de la gramática
+     */
+    public static Derivation fromTree(CompiledGrammar grammar, TreeNode root, boolean rightmost) {
+        int[] steps = new int[16];
+        int count = 0;
+
+        // Forma sentencial como lista de nodos; se expande siempre el extremo elegido
+        List<TreeNode> form = new ArrayList<>();
+        form.add(root);
+        while (true) {
+            int position = rightmost ? lastExpandable(form) : firstExpandable(form);
+            if (position < 0) {
+                return new Derivation(grammar, Arrays.copyOf(steps, 2 * count));
+            }
+            TreeNode node = form.remove(position);
+            int rule = findRule(grammar, node);
+            if (rule < 0) {
+                return null;
+            }
+            if (2 * count + 2 > steps.length) {
+                steps = Arrays.copyOf(steps, steps.length * 2);
+            }
+            steps[2 * count] = position;
+            steps[2 * count + 1] = rule;
+            count++;
+            if (grammar.getRuleRhs(rule).length > 0) {
+                form.addAll(position, node.getChildren());
+            }
+        }
+    }
+
+    private static int firstExpandable(List<TreeNode> form) {
+        for (int i = 0; i < form.size(); i++) {
+            if (!form.get(i).isTerminal() && !form.get(i).isLeaf()) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int lastExpandable(List<TreeNode> form) {
+        for (int i = form.size() - 1; i >= 0; i--) {
+            if (!form.get(i).isTerminal() && !form.get(i).isLeaf()) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Busca la regla que aplica un nodo del árbol
+     * @return Índice de la regla o -1 si no hay ninguna
+     */
+    private static int findRule(CompiledGrammar grammar, TreeNode node) {
+        int lhs = grammar.getNonTerminalId(node.getValue());
+        if (lhs < 0) {
+            return -1;
+        }
+        List<TreeNode> children = node.getChildren();
+        boolean empty = children.size() == 1 && children.get(0).isTerminal()
+                && children.get(0).getValue().equals(EPSILON);
+        for (int rule : grammar.getRulesFor(lhs)) {
+            int[] rhs = grammar.getRuleRhs(rule);
+            if (empty ? rhs.length == 0 : matches(grammar, rhs, children)) {
+                return rule;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean matches(CompiledGrammar grammar, int[] rhs, List<TreeNode> children) {
+        if (rhs.length != children.size()) {
+            return false;
+        }
+        for (int i = 0; i < rhs.length; i++) {
+            if (!grammar.symbolName(rhs[i]).equals(children.get(i).getValue())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Número de pasos (reglas aplicadas); las formas sentenciales son uno más
+     * @return Número de pasos
+     */
+    public int getStepCount() {
+        return steps.length / 2;
+    }
+
+    public int getPosition(int step) {
+        return steps[2 * step];
+    }
+
+    public int getRule(int step) {
+        return steps[2 * step + 1];
+    }
+
+    public CompiledGrammar getGrammar() {
+        return grammar;
+    }
+
+    /**
+     * Agrega las líneas de un rango de formas sentenciales, con el formato
+     * "i. forma" y " (Éxito!)" en la última (la palabra)
+     * Las formas anteriores al rango se recorren sin generar texto, salvo que el rango
+     * continúe una página anterior: entonces se parte de la última forma generada, y
+     * recorrer todas las páginas cuesta lo mismo que generar todo el texto de una vez.
+     * Esa forma se libera al llegar a la palabra
+     *
+     * @param out Destino del texto
+     * @param from Primera forma (0 es el símbolo inicial)
+     * @param to Forma siguiente a la última (como máximo getStepCount() + 1)
+     */
+    public synchronized void appendSteps(StringBuilder out, int from, int to) {
+        int count = getStepCount();
+        to = Math.min(to, count + 1);
+        int[] form = {grammar.getStartSymbol()};
+        int step = 0;
+        if (pageForm != null && pageStep <= from) {
+            form = pageForm;
+            step = pageStep;
+        }
+        for (; step < to; step++) {
+            if (step >= from) {
+                out.append(step).append(". ").append(grammar.formToString(form));
+                out.append(step == count ? " (Éxito!)\n" : "\n");
+            }
+            if (step < count) {
+                form = apply(form, steps[2 * step], grammar.getRuleRhs(steps[2 * step + 1]));
+            }
+        }
+        pageForm = step <= count ? form : null;
+        pageStep = step;
+    }
+
+    /**
+     * Reemplaza el símbolo de una posición de la forma por el lado derecho de una regla
+     */
+    private static int[] apply(int[] form, int position, int[] rhs) {
+        int[] next = new int[form.length - 1 + rhs.length];
+        System.arraycopy(form, 0, next, 0, position);
+        System.arraycopy(rhs, 0, next, position, rhs.length);
+        System.arraycopy(form, position + 1, next, position + rhs.length, form.length - position - 1);
+        return next;
+    }
+
+    /**
+     * Construye el árbol de derivación repitiendo los pasos
+     * @return Raíz del árbol (el símbolo inicial)
+     */
+    public TreeNode toTree() {
+        TreeNode root = new TreeNode(grammar.getNonTerminalName(grammar.getStartSymbol()));
+        List<TreeNode> form = new ArrayList<>();
+        form.add(root);
+        for (int step = 0; step < getStepCount(); step++) {
+            int position = steps[2 * step];
+            TreeNode node = form.remove(position);
+            int[] rhs = grammar.getRuleRhs(steps[2 * step + 1]);
+            if (rhs.length == 0) {
+                node.addChild(EPSILON, true);
+                continue;
+            }
+            for (int i = 0; i < rhs.length; i++) {
+                form.add(position + i, node.addChild(grammar.symbolName(rhs[i]), rhs[i] < 0));
+            }
+        }
+        return root;
+    }
+
+    /**
+     * Estimación de la memoria que ocupa la derivación (la gramática se comparte)
+     * @return Tamaño aproximado en bytes
+     */
+    public long estimatedSize() {
+        return estimatedSize(getStepCount());
+    }
+
+    /**
+     * Estimación de la memoria que ocupa una derivación con el número de pasos indicado
+     * @param stepCount Número de pasos
+     * @return Tamaño aproximado en bytes
+     */
+    public static long estimatedSize(int stepCount) {
+        return 32 + 8L * stepCount;
+    }
+
+    /**
+     * Estimación de la memoria que ocupa el árbol que construye {@link #toTree()}, sin
+     * construirlo: unos 64 bytes por nodo más su valor, con el mismo criterio que
+     * {@link DerivationResult#estimatedSize()}
+     * @return Tamaño aproximado en bytes
+     */
+    public long estimatedTreeSize() {
+        long size = 64 + 2L * grammar.getNonTerminalName(grammar.getStartSymbol()).length();
+        for (int step = 0; step < getStepCount(); step++) {
+            int[] rhs = grammar.getRuleRhs(steps[2 * step + 1]);
+            if (rhs.length == 0) {
+                size += 64 + 2L * EPSILON.length();
+            }
+            for (int symbol : rhs) {
+                size += 64 + 2L * grammar.symbolName(symbol).length();
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Pasos de la derivación en formato textual
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        appendSteps(sb, 0, getStepCount() + 1);
+        return sb.toString();
+    }
+}
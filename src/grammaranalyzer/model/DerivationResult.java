@@ -1,15 +1,35 @@
 package grammaranalyzer.model;
 
+import java.util.ArrayDeque;
+import java.util.Deque;
+
 /**
  * Clase que representa el resultado de una derivación
  * Contiene información sobre si una palabra pertenece al lenguaje
  * y los árboles de derivación asociados
+ *
+ * Los pasos de derivación no se guardan como texto: se guarda la derivación compacta
+ * (ver {@link Derivation}) o el árbol, y el texto se genera solo cuando se pide, completo
+ * o por páginas ({@link #getDerivationSteps(int, int)}); el informe y la representación
+ * en cadena muestran como máximo {@link #MAX_REPORTED_STEPS} pasos. Si el analizador
+ * registró la derivación compacta, el árbol también se construye al pedirlo
  */
 public class DerivationResult {
+    /**
+     * Pasos que muestran como máximo {@link #toString()} y {@link #generateDetailedReport()}
+     */
+    public static final int MAX_REPORTED_STEPS = 500;
+
     private String word;             // Palabra analizada
     private boolean belongsToLanguage; // Indica si pertenece al lenguaje
-    private TreeNode derivationTree; // Árbol de derivación específico para la palabra
-    private String derivationSteps;  // Pasos de derivación en formato textual
+    private TreeNode derivationTree; // Árbol de derivación específico para la palabra (null hasta pedirlo si hay derivación)
+    private Derivation derivation;   // Derivación compacta (null hasta pedirla si solo hay árbol)
+    private CompiledGrammar grammar; // Gramática del árbol, para codificar la derivación al pedirla
+    private boolean rightmost;       // Orden de la derivación que se codifica a partir del árbol
+    private String derivationSteps;  // Pasos en formato textual dados explícitamente (null si se generan)
+    private ParseForest parseForest; // Bosque con todos los árboles de derivación (si el algoritmo lo genera)
+    private long memoHits;           // Formas descartadas por la tabla de formas fallidas
+    private long memoMisses;         // Formas consultadas que no estaban en la tabla
 
     /**
      * Constructor
@@ -38,6 +58,34 @@ public class DerivationResult {
         this.derivationSteps = derivationSteps;
     }
 
+    /**
+     * Constructor de una palabra aceptada a partir de su árbol de derivación; la derivación
+     * compacta y sus pasos se generan al pedirlos
+     * @param word Palabra analizada
+     * @param derivationTree Árbol de derivación
+     * @param grammar Gramática del árbol
+     * @param rightmost true si los pasos deben mostrar la derivación más a la derecha
+     */
+    public DerivationResult(String word, TreeNode derivationTree, CompiledGrammar grammar, boolean rightmost) {
+        this.word = word;
+        this.belongsToLanguage = true;
+        this.derivationTree = derivationTree;
+        this.grammar = grammar;
+        this.rightmost = rightmost;
+    }
+
+    /**
+     * Constructor de una palabra aceptada a partir de su derivación compacta; el árbol
+     * y los pasos se generan al pedirlos
+     * @param word Palabra analizada
+     * @param derivation Derivación de la palabra
+     */
+    public DerivationResult(String word, Derivation derivation) {
+        this.word = word;
+        this.belongsToLanguage = true;
+        this.derivation = derivation;
+    }
+
     /**
      * Obtiene la palabra analizada
      * @return Palabra analizada
@@ -55,37 +103,206 @@ public class DerivationResult {
     }
 
     /**
-     * Obtiene el árbol de derivación
+     * Obtiene el árbol de derivación (se construye la primera vez si solo hay derivación
+     * compacta; los métodos que lo construyen están sincronizados porque el resultado puede
+     * compartirse entre hilos, por ejemplo desde la {@code ResultCache})
      * @return Árbol de derivación o null si no existe
      */
-    public TreeNode getDerivationTree() {
+    public synchronized TreeNode getDerivationTree() {
+        if (derivationTree == null && derivation != null) {
+            derivationTree = derivation.toTree();
+        }
         return derivationTree;
     }
 
+    /**
+     * Obtiene la derivación compacta (se codifica la primera vez si solo hay árbol)
+     * @return Derivación o null si no existe
+     */
+    public synchronized Derivation getDerivation() {
+        if (derivation == null && grammar != null && derivationTree != null) {
+            derivation = Derivation.fromTree(grammar, derivationTree, rightmost);
+        }
+        return derivation;
+    }
+
     /**
      * Establece el árbol de derivación
      * @param derivationTree Árbol de derivación
      */
-    public void setDerivationTree(TreeNode derivationTree) {
+    public synchronized void setDerivationTree(TreeNode derivationTree) {
         this.derivationTree = derivationTree;
     }
 
     /**
-     * Obtiene los pasos de derivación
+     * Obtiene los pasos de derivación (se generan en cada llamada, ver {@link #getDerivationSteps(int, int)})
      * @return Pasos de derivación en formato textual
      */
     public String getDerivationSteps() {
-        return derivationSteps;
+        return getDerivationSteps(0, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Obtiene una página de los pasos de derivación
+     * @param from Primer paso (0 es el símbolo inicial)
+     * @param count Número máximo de pasos
+     * @return Pasos del rango en formato textual, uno por línea
+     */
+    public String getDerivationSteps(int from, int count) {
+        int to = (int) Math.min((long) from + count, Integer.MAX_VALUE);
+        if (derivationSteps != null) {
+            return textLines(from, to);
+        }
+        StringBuilder sb = new StringBuilder();
+        Derivation steps = getDerivation();
+        if (steps != null) {
+            steps.appendSteps(sb, from, to);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Número de pasos de derivación (formas sentenciales, desde el símbolo inicial hasta la palabra)
+     * @return Número de pasos, 0 si no hay derivación
+     */
+    public int getStepCount() {
+        if (derivationSteps != null) {
+            int lines = 0;
+            for (int i = 0; i < derivationSteps.length(); i++) {
+                if (derivationSteps.charAt(i) == '\n') {
+                    lines++;
+                }
+            }
+            return lines;
+        }
+        Derivation steps = getDerivation();
+        return steps == null ? 0 : steps.getStepCount() + 1;
+    }
+
+    /**
+     * Líneas [from, to) del texto de los pasos dado explícitamente
+     */
+    private String textLines(int from, int to) {
+        if (from >= to) {
+            return "";
+        }
+        int line = 0;
+        int start = -1;
+        for (int i = 0; i < derivationSteps.length() && line < to; i++) {
+            if (line == from && start < 0) {
+                start = i;
+            }
+            if (derivationSteps.charAt(i) == '\n') {
+                line++;
+                if (line == to) {
+                    return derivationSteps.substring(start, i + 1);
+                }
+            }
+        }
+        return start < 0 ? "" : derivationSteps.substring(start);
     }
 
     /**
-     * Establece los pasos de derivación
+     * Agrega los pasos de derivación, como máximo MAX_REPORTED_STEPS
+     */
+    private void appendReportedSteps(StringBuilder sb) {
+        sb.append(getDerivationSteps(0, MAX_REPORTED_STEPS));
+        int total = getStepCount();
+        if (total > MAX_REPORTED_STEPS) {
+            sb.append("... (").append(total - MAX_REPORTED_STEPS).append(" pasos más)\n");
+        }
+    }
+
+    /**
+     * Establece los pasos de derivación como texto (por ejemplo, las formas exploradas
+     * en el modo de depuración)
      * @param derivationSteps Pasos de derivación
      */
     public void setDerivationSteps(String derivationSteps) {
         this.derivationSteps = derivationSteps;
     }
 
+    /**
+     * Obtiene el bosque compartido de análisis con todos los árboles de derivación
+     * @return Bosque de análisis o null si el algoritmo usado no lo genera
+     */
+    public ParseForest getParseForest() {
+        return parseForest;
+    }
+
+    /**
+     * Establece el bosque compartido de análisis
+     * @param parseForest Bosque de análisis
+     */
+    public void setParseForest(ParseForest parseForest) {
+        this.parseForest = parseForest;
+    }
+
+    /**
+     * Obtiene los aciertos de la tabla de formas fallidas de la búsqueda de derivaciones
+     * @return Número de formas descartadas sin volver a explorarlas
+     */
+    public long getMemoHits() {
+        return memoHits;
+    }
+
+    /**
+     * Obtiene los fallos de la tabla de formas fallidas de la búsqueda de derivaciones
+     * @return Número de formas consultadas que hubo que explorar
+     */
+    public long getMemoMisses() {
+        return memoMisses;
+    }
+
+    /**
+     * Establece las estadísticas de la tabla de formas fallidas
+     * @param memoHits Aciertos
+     * @param memoMisses Fallos
+     */
+    public void setMemoStatistics(long memoHits, long memoMisses) {
+        this.memoHits = memoHits;
+        this.memoMisses = memoMisses;
+    }
+
+    /**
+     * Estimación de la memoria que ocupa el resultado: palabra, pasos en texto, derivación
+     * compacta, árbol de derivación (unos 64 bytes por nodo más su valor) y bosque, si lo hay
+     * El árbol y la derivación compacta se cuentan aunque todavía no se hayan construido
+     * (se estiman a partir del otro), de modo que el tamaño no crece al pedirlos después,
+     * por ejemplo mientras el resultado está en la {@code ResultCache}
+     * @return Tamaño aproximado en bytes
+     */
+    public synchronized long estimatedSize() {
+        long size = 64 + 2L * word.length() + (derivationSteps != null ? 2L * derivationSteps.length() : 0);
+        if (derivationTree != null) {
+            int innerNodes = 0;
+            Deque<TreeNode> pending = new ArrayDeque<>();
+            pending.push(derivationTree);
+            while (!pending.isEmpty()) {
+                TreeNode node = pending.pop();
+                size += 64 + 2L * node.getValue().length();
+                if (!node.getChildren().isEmpty()) {
+                    innerNodes++;
+                }
+                for (TreeNode child : node.getChildren()) {
+                    pending.push(child);
+                }
+            }
+            if (derivation == null && grammar != null) {
+                size += Derivation.estimatedSize(innerNodes); // Un paso por nodo interno
+            }
+        } else if (derivation != null) {
+            size += derivation.estimatedTreeSize();
+        }
+        if (derivation != null) {
+            size += derivation.estimatedSize();
+        }
+        if (parseForest != null) {
+            size += parseForest.estimatedSize();
+        }
+        return size;
+    }
+
     /**
      * Representación en cadena del resultado
      */
@@ -97,9 +314,9 @@ public class DerivationResult {
         sb.append("Pertenencia al lenguaje: ");
         sb.append(belongsToLanguage ? "SÍ pertenece" : "NO pertenece").append("\n");
 
-        if (belongsToLanguage && !derivationSteps.isEmpty()) {
+        if (belongsToLanguage && getStepCount() > 0) {
             sb.append("\nPasos de derivación:\n");
-            sb.append(derivationSteps);
+            appendReportedSteps(sb);
         }
 
         return sb.toString();
@@ -119,12 +336,17 @@ public class DerivationResult {
         if (belongsToLanguage) {
             sb.append("La palabra SÍ pertenece al lenguaje.\n\n");
 
-            if (!derivationSteps.isEmpty()) {
+            if (getStepCount() > 0) {
                 sb.append("Derivación:\n");
-                sb.append(derivationSteps).append("\n");
+                appendReportedSteps(sb);
+                sb.append("\n");
+            }
+
+            if (parseForest != null) {
+                sb.append(parseForest).append("\n\n");
             }
 
-            if (derivationTree != null) {
+            if (getDerivationTree() != null) {
                 sb.append("Árbol de derivación horizontal:\n");
                 sb.append(derivationTree.toStringHorizontal()).append("\n");
             }
@@ -133,6 +355,11 @@ public class DerivationResult {
             sb.append("No existe una secuencia de derivación que genere esta palabra.\n");
         }
 
+        if (memoHits + memoMisses > 0) {
+            sb.append("\nTabla de formas fallidas: ").append(memoHits).append(" aciertos, ")
+                    .append(memoMisses).append(" fallos\n");
+        }
+
         return sb.toString();
     }
 }
\ No newline at end of file
@@ -11,10 +11,21 @@ import java.util.*;
  * - P: conjunto de producciones
  */
 public class Grammar {
+    /**
+     * Producciones agregadas a partir de las cuales es preferible compilar todo de nuevo
+     * en lugar de derivar la instantánea regla por regla
+     */
+    private static final int MAX_INCREMENTAL_PRODUCTIONS = 64;
+
     private Set<String> terminals;         // Símbolos terminales (ΣT)
     private Set<String> nonTerminals;      // Símbolos no terminales (ΣNT)
     private String startSymbol;            // Símbolo inicial (S)
     private Map<String, List<String>> productions; // Producciones (P)
+    private long version;                  // Contador de modificaciones
+    private CompiledGrammar compiled;      // Última forma compilada (válida para su versión)
+    private SymbolTrie validationTrie;     // Símbolos para validar producciones (null si cambiaron)
+    private List<String[]> addedProductions; // Producciones agregadas desde la compilación (null si
+                                             // hubo otros cambios y hay que compilar todo)
 
     /**
      * Constructor por defecto
@@ -28,20 +39,39 @@ public class Grammar {
 
     /**
      * Agrega un símbolo terminal al conjunto ΣT
+     * Los símbolos pueden tener varios caracteres ("id", "num") pero no espacios
      * @param terminal Símbolo terminal a agregar
-     * @return true si se agregó correctamente, false si ya existía
+     * @return true si se agregó correctamente, false si ya existía o no es válido
      */
     public boolean addTerminal(String terminal) {
-        return terminals.add(terminal);
+        return isValidSymbol(terminal) && markSymbolsModified(terminals.add(terminal));
     }
 
     /**
      * Agrega un símbolo no terminal al conjunto ΣNT
+     * Los símbolos pueden tener varios caracteres ("E'", "Expr") pero no espacios
      * @param nonTerminal Símbolo no terminal a agregar
-     * @return true si se agregó correctamente, false si ya existía
+     * @return true si se agregó correctamente, false si ya existía o no es válido
      */
     public boolean addNonTerminal(String nonTerminal) {
-        return nonTerminals.add(nonTerminal);
+        return isValidSymbol(nonTerminal) && markSymbolsModified(nonTerminals.add(nonTerminal));
+    }
+
+    /**
+     * Verifica que un símbolo no sea vacío, no sea ε y no contenga espacios en blanco
+     * @param symbol Símbolo a validar
+     * @return true si el símbolo es válido
+     */
+    private boolean isValidSymbol(String symbol) {
+        if (symbol.isEmpty() || symbol.equals("ε")) {
+            return false;
+        }
+        for (int i = 0; i < symbol.length(); i++) {
+            if (Character.isWhitespace(symbol.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
     }
 
     /**
@@ -52,7 +82,8 @@ public class Grammar {
     public boolean setStartSymbol(String symbol) {
         if (nonTerminals.contains(symbol)) {
             startSymbol = symbol;
-            return true;
+            addedProductions = null;
+            return markModified(true);
         }
         return false;
     }
@@ -78,11 +109,47 @@ public class Grammar {
         }
 
         productions.get(nonTerminal).add(production);
-        return true;
+        if (addedProductions != null) {
+            if (addedProductions.size() < MAX_INCREMENTAL_PRODUCTIONS) {
+                addedProductions.add(new String[]{nonTerminal, production});
+            } else {
+                addedProductions = null;
+            }
+        }
+        return markModified(true);
+    }
+
+    /**
+     * Incrementa la versión de la gramática si hubo una modificación
+     * @param modified Indica si la operación modificó la gramática
+     * @return El mismo valor recibido
+     */
+    private boolean markModified(boolean modified) {
+        if (modified) {
+            version++;
+        }
+        return modified;
+    }
+
+    /**
+     * Marca una modificación de los símbolos, que invalida además el trie de validación
+     * @param modified Indica si la operación modificó la gramática
+     * @return El mismo valor recibido
+     */
+    private boolean markSymbolsModified(boolean modified) {
+        if (modified) {
+            validationTrie = null;
+            addedProductions = null;
+        }
+        return markModified(modified);
     }
 
     /**
      * Verifica si una producción contiene solo símbolos válidos
+     * Los símbolos pueden escribirse separados por espacios ("if E then S") o juntos
+     * ("aSb"); en ese caso se toma siempre el símbolo más largo que coincida
+     * El trie de símbolos se construye una sola vez mientras no se agreguen símbolos, de
+     * modo que agregar muchas producciones seguidas no lo reconstruye en cada una
      * @param production Producción a validar
      * @return true si la producción es válida, false en caso contrario
      */
@@ -92,15 +159,81 @@ public class Grammar {
             return true;
         }
 
-        // Verificar cada carácter de la producción
-        for (int i = 0; i < production.length(); i++) {
-            String symbol = production.substring(i, i + 1);
-            if (!terminals.contains(symbol) && !nonTerminals.contains(symbol)) {
-                return false;
+        if (validationTrie == null) {
+            validationTrie = new SymbolTrie();
+            for (String symbol : terminals) {
+                validationTrie.add(symbol, 0);
+            }
+            for (String symbol : nonTerminals) {
+                validationTrie.add(symbol, 0);
             }
         }
+        return validationTrie.tokenize(production) != null;
+    }
 
-        return true;
+    /**
+     * Compila la gramática a su forma con identificadores enteros
+     * El resultado es una instantánea inmutable que se conserva mientras la gramática no
+     * se modifique; los analizadores trabajan sobre ella aunque la gramática siga cambiando
+     * Si desde la última compilación solo se agregaron producciones, la nueva instantánea
+     * se deriva de la anterior agregando sus reglas, lo que permite a los analizadores
+     * actualizar sus tablas en lugar de recalcularlas (ver {@link CompiledGrammar#getRulesAddedSince})
+     * @return Gramática compilada correspondiente a la versión actual
+     */
+    public CompiledGrammar compile() {
+        if (compiled == null || compiled.getVersion() != version) {
+            if (compiled != null && addedProductions != null) {
+                for (String[] production : addedProductions) {
+                    compiled = compiled.withProduction(compiled.getVersion() + 1, production[0], production[1]);
+                }
+            } else {
+                compiled = new CompiledGrammar(this);
+            }
+            addedProductions = new ArrayList<>();
+        }
+        return compiled;
+    }
+
+    /**
+     * Crea una gramática a partir de su forma compilada (por ejemplo, cargada de un archivo)
+     * sin volver a validar cada producción; la forma compilada queda como instantánea de
+     * la versión actual, por lo que no se recompila hasta que la gramática cambie
+     * @param compiled Gramática compilada
+     * @return Gramática equivalente
+     */
+    public static Grammar fromCompiled(CompiledGrammar compiled) {
+        Grammar grammar = new Grammar();
+        boolean spaced = false;
+        for (int t = 0; t < compiled.getTerminalCount(); t++) {
+            grammar.terminals.add(compiled.getTerminalName(t));
+            spaced |= compiled.getTerminalName(t).length() > 1;
+        }
+        for (int a = 0; a < compiled.getNonTerminalCount(); a++) {
+            grammar.nonTerminals.add(compiled.getNonTerminalName(a));
+            spaced |= compiled.getNonTerminalName(a).length() > 1;
+        }
+        if (compiled.getStartSymbol() >= 0) {
+            grammar.startSymbol = compiled.getNonTerminalName(compiled.getStartSymbol());
+        }
+
+        // Con símbolos de varios caracteres se separan con espacios para que la división sea exacta
+        for (int rule = 0; rule < compiled.getRuleCount(); rule++) {
+            int[] rhs = compiled.getRuleRhs(rule);
+            StringBuilder production = new StringBuilder();
+            for (int symbol : rhs) {
+                if (spaced && production.length() > 0) {
+                    production.append(' ');
+                }
+                production.append(compiled.symbolName(symbol));
+            }
+            grammar.productions.computeIfAbsent(compiled.getNonTerminalName(compiled.getRuleLhs(rule)),
+                    k -> new ArrayList<>()).add(rhs.length == 0 ? "ε" : production.toString());
+        }
+
+        grammar.version = compiled.getVersion();
+        grammar.compiled = compiled;
+        grammar.addedProductions = new ArrayList<>();
+        return grammar;
     }
 
     /**
@@ -128,6 +261,15 @@ public class Grammar {
         return startSymbol;
     }
 
+    /**
+     * Obtiene la versión actual de la gramática. Cambia cada vez que
+     * la gramática se modifica, por lo que permite invalidar cálculos derivados
+     * @return Versión de la gramática
+     */
+    public long getVersion() {
+        return version;
+    }
+
     public Map<String, List<String>> getProductions() {
         // Retornar una copia profunda para evitar modificaciones externas
         Map<String, List<String>> copy = new HashMap<>();
@@ -0,0 +1,461 @@
+package grammaranalyzer.model;
+
+import java.util.*;
+
+/**
+ * Clase que contiene una gramática compilada (ver {@link CompiledGrammar}) junto con
+ * los conjuntos que usan los analizadores sintácticos: anulables, FIRST y FOLLOW
+ * (además de LAST y la longitud mínima de las palabras derivables), calculados por punto
+ * fijo con una lista de trabajo sobre las reglas
+ * Los no terminales se identifican con enteros 0..N-1 y los terminales con 0..T-1;
+ * en los lados derechos de las reglas un símbolo s >= 0 es el no terminal s
+ * y un símbolo s < 0 es el terminal ~s
+ */
+public class GrammarAnalysis {
+    private static final String EPSILON = "ε";
+
+    private final CompiledGrammar grammar;
+    private final int nonTerminalCount;
+    private final int terminalCount;
+    private final int startSymbol;
+
+    private final int[] ruleLhs;
+    private final int[][] ruleRhs;
+
+    private int[] epsilonWitness;  // Regla que deriva ε para cada anulable (-1 si no lo es)
+    // Los conjuntos pueden compartirse con el análisis del que se derivó (no se modifican después de construirse)
+    private BitSet[] first;        // FIRST de cada no terminal (sobre terminales)
+    private BitSet[] follow;       // FOLLOW de cada no terminal (el índice T representa el fin $)
+    private BitSet[] last;         // LAST de cada no terminal: terminales con los que puede terminar
+    private int[] minYield;        // Longitud mínima de las palabras que deriva (MAX_VALUE si ninguna)
+
+    /**
+     * Constructor
+     * @param grammar Gramática a analizar
+     */
+    public GrammarAnalysis(Grammar grammar) {
+        this(grammar.compile());
+    }
+
+    /**
+     * Constructor a partir de una gramática ya compilada
+     * Las reglas se comparten con la gramática compilada, no se copian
+     * @param grammar Gramática compilada a analizar
+     */
+    public GrammarAnalysis(CompiledGrammar grammar) {
+        this(null, grammar);
+    }
+
+    /**
+     * Constructor incremental: si la gramática se derivó de la del análisis anterior
+     * agregando producciones (ver {@link CompiledGrammar#getRulesAddedSince}), los conjuntos
+     * parten de los anteriores y la lista de trabajo se siembra solo con las reglas nuevas y
+     * las que usan no terminales que pasaron a ser anulables; como agregar reglas solo agranda
+     * FIRST, FOLLOW y LAST y solo reduce la longitud mínima, el punto fijo alcanzado es el
+     * mismo que al calcular todo. Los conjuntos que no cambian se comparten con el análisis
+     * anterior, que no se modifica. En otro caso se calcula todo
+     * @param previous Análisis de una instantánea anterior (puede ser null)
+     * @param grammar Gramática compilada a analizar
+     */
+    public GrammarAnalysis(GrammarAnalysis previous, CompiledGrammar grammar) {
+        this.grammar = grammar;
+        nonTerminalCount = grammar.getNonTerminalCount();
+        terminalCount = grammar.getTerminalCount();
+        startSymbol = grammar.getStartSymbol();
+
+        ruleLhs = new int[grammar.getRuleCount()];
+        ruleRhs = new int[ruleLhs.length][];
+        for (int rule = 0; rule < ruleLhs.length; rule++) {
+            ruleLhs[rule] = grammar.getRuleLhs(rule);
+            ruleRhs[rule] = grammar.getRuleRhs(rule);
+        }
+
+        computeNullable();
+        int[] addedRules = previous != null ? grammar.getRulesAddedSince(previous.grammar) : null;
+        if (addedRules != null) {
+            updateSets(previous, addedRules);
+        } else {
+            computeSets();
+        }
+    }
+
+    /**
+     * Toma los no terminales anulables y sus reglas testigo de la gramática compilada
+     */
+    private void computeNullable() {
+        epsilonWitness = new int[nonTerminalCount];
+        for (int a = 0; a < nonTerminalCount; a++) {
+            epsilonWitness[a] = grammar.getEpsilonRule(a);
+        }
+    }
+
+    /**
+     * Calcula FIRST, FOLLOW, LAST y la longitud mínima de cada no terminal evaluando
+     * todas las reglas con la lista de trabajo
+     * Los no terminales improductivos quedan con longitud mínima Integer.MAX_VALUE
+     */
+    private void computeSets() {
+        first = emptySets(terminalCount);
+        follow = emptySets(terminalCount + 1); // El índice T representa el fin $
+        last = emptySets(terminalCount);
+        minYield = new int[nonTerminalCount];
+        Arrays.fill(minYield, Integer.MAX_VALUE);
+        if (startSymbol >= 0) {
+            follow[startSymbol].set(terminalCount);
+        }
+
+        RuleWorklist worklist = new RuleWorklist(false);
+        for (int rule = 0; rule < ruleLhs.length; rule++) {
+            worklist.add(rule);
+        }
+        worklist.run();
+    }
+
+    /**
+     * Actualiza los conjuntos de un análisis anterior con las reglas agregadas
+     */
+    private void updateSets(GrammarAnalysis previous, int[] addedRules) {
+        first = previous.first.clone();
+        follow = previous.follow.clone();
+        last = previous.last.clone();
+        minYield = previous.minYield.clone();
+
+        RuleWorklist worklist = new RuleWorklist(true);
+        for (int rule : addedRules) {
+            worklist.add(rule);
+        }
+        for (int a = 0; a < nonTerminalCount; a++) {
+            if (isNullable(a) != previous.isNullable(a)) {
+                worklist.addUsers(a);
+            }
+        }
+        worklist.run();
+    }
+
+    private BitSet[] emptySets(int size) {
+        BitSet[] sets = new BitSet[nonTerminalCount];
+        for (int a = 0; a < sets.length; a++) {
+            sets[a] = new BitSet(size);
+        }
+        return sets;
+    }
+
+    /**
+     * Lista de trabajo sobre las reglas para el punto fijo de FIRST, FOLLOW, LAST y la
+     * longitud mínima: al evaluar A -> X1..Xn se agregan sus aportes a FIRST(A), LAST(A),
+     * la longitud mínima de A y FOLLOW de cada Xi. Si cambia algún valor de A se vuelven
+     * a evaluar las reglas que usan A; si cambia FOLLOW(Xi), las reglas de Xi
+     */
+    private final class RuleWorklist {
+        private final int[] queue = new int[Math.max(1, ruleLhs.length)]; // Cola circular
+        private final boolean[] queued = new boolean[ruleLhs.length];
+        private int head;
+        private int size;
+        private final BitSet scratch = new BitSet(terminalCount + 1);
+
+        // Conjuntos aún compartidos con el análisis anterior (se copian al modificarlos)
+        private final boolean[] sharedFirst;
+        private final boolean[] sharedFollow;
+        private final boolean[] sharedLast;
+
+        RuleWorklist(boolean shared) {
+            sharedFirst = shared ? allTrue() : null;
+            sharedFollow = shared ? allTrue() : null;
+            sharedLast = shared ? allTrue() : null;
+        }
+
+        private boolean[] allTrue() {
+            boolean[] flags = new boolean[nonTerminalCount];
+            Arrays.fill(flags, true);
+            return flags;
+        }
+
+        void add(int rule) {
+            if (!queued[rule]) {
+                queued[rule] = true;
+                queue[(head + size++) % queue.length] = rule;
+            }
+        }
+
+        void addUsers(int nonTerminal) {
+            for (int rule : grammar.getRulesUsing(nonTerminal)) {
+                add(rule);
+            }
+        }
+
+        void run() {
+            while (size > 0) {
+                int rule = queue[head];
+                head = (head + 1) % queue.length;
+                size--;
+                queued[rule] = false;
+                evaluate(rule);
+            }
+        }
+
+        private void evaluate(int rule) {
+            int lhs = ruleLhs[rule];
+            int[] rhs = ruleRhs[rule];
+
+            scratch.clear();
+            firstOfSequence(rhs, 0, scratch);
+            boolean changed = addTo(first, sharedFirst, lhs);
+
+            scratch.clear();
+            for (int i = rhs.length - 1; i >= 0; i--) {
+                if (rhs[i] < 0) {
+                    scratch.set(~rhs[i]);
+                    break;
+                }
+                scratch.or(last[rhs[i]]);
+                if (!isNullable(rhs[i])) {
+                    break;
+                }
+            }
+            changed |= addTo(last, sharedLast, lhs);
+
+            long length = 0;
+            for (int symbol : rhs) {
+                length += symbol < 0 ? 1 : minYield[symbol];
+            }
+            if (length < minYield[lhs]) {
+                minYield[lhs] = (int) length;
+                changed = true;
+            }
+            if (changed) {
+                addUsers(lhs);
+            }
+
+            for (int i = 0; i < rhs.length; i++) {
+                if (rhs[i] < 0) {
+                    continue;
+                }
+                scratch.clear();
+                if (firstOfSequence(rhs, i + 1, scratch)) {
+                    scratch.or(follow[lhs]);
+                }
+                if (addTo(follow, sharedFollow, rhs[i])) {
+                    for (int dependent : grammar.getRulesFor(rhs[i])) {
+                        add(dependent);
+                    }
+                }
+            }
+        }
+
+        /**
+         * Agrega los terminales de scratch al conjunto de un no terminal
+         * @return true si el conjunto cambió
+         */
+        private boolean addTo(BitSet[] sets, boolean[] shared, int nonTerminal) {
+            scratch.andNot(sets[nonTerminal]);
+            if (scratch.isEmpty()) {
+                return false;
+            }
+            if (shared != null && shared[nonTerminal]) {
+                sets[nonTerminal] = (BitSet) sets[nonTerminal].clone();
+                shared[nonTerminal] = false;
+            }
+            sets[nonTerminal].or(scratch);
+            return true;
+        }
+    }
+
+    /**
+     * Agrega FIRST de una secuencia de símbolos a un conjunto
+     *
+     * @param symbols Secuencia de símbolos codificados
+     * @param from Posición inicial dentro de la secuencia
+     * @param out Conjunto donde se agregan los terminales
+     * @return true si la secuencia (desde la posición indicada) es anulable
+     */
+    public boolean firstOfSequence(int[] symbols, int from, BitSet out) {
+        for (int i = from; i < symbols.length; i++) {
+            int symbol = symbols[i];
+            if (symbol < 0) {
+                out.set(~symbol);
+                return false;
+            }
+            out.or(first[symbol]);
+            if (!isNullable(symbol)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Codifica una forma sentencial (no terminales y terminales de un carácter)
+     * @param form Forma sentencial
+     * @return Símbolos codificados o null si contiene símbolos desconocidos
+     */
+    public int[] encodeForm(String form) {
+        return form.isEmpty() ? new int[0] : grammar.encodeProduction(form);
+    }
+
+    /**
+     * Indica si un símbolo codificado puede empezar por el terminal indicado
+     * @param symbol Símbolo codificado
+     * @param terminal Terminal
+     * @return true si el terminal pertenece a FIRST del símbolo
+     */
+    public boolean canStartWith(int symbol, int terminal) {
+        return symbol < 0 ? ~symbol == terminal : first[symbol].get(terminal);
+    }
+
+    /**
+     * Indica si un símbolo codificado puede terminar con el terminal indicado
+     * @param symbol Símbolo codificado
+     * @param terminal Terminal
+     * @return true si el terminal pertenece a LAST del símbolo
+     */
+    public boolean canEndWith(int symbol, int terminal) {
+        return symbol < 0 ? ~symbol == terminal : last[symbol].get(terminal);
+    }
+
+    /**
+     * Longitud mínima de las palabras derivables desde un símbolo codificado
+     * @param symbol Símbolo codificado
+     * @return Longitud mínima, o Integer.MAX_VALUE si el símbolo es improductivo
+     */
+    public int getMinYield(int symbol) {
+        return symbol < 0 ? 1 : minYield[symbol];
+    }
+
+    /**
+     * Indica si un símbolo codificado deriva la palabra vacía
+     * @param symbol Símbolo codificado
+     * @return true si es un no terminal anulable
+     */
+    public boolean isNullable(int symbol) {
+        return symbol >= 0 && epsilonWitness[symbol] >= 0;
+    }
+
+    /**
+     * Codifica una palabra como secuencia de identificadores de terminales
+     * @param word Palabra a codificar
+     * @return Identificadores o null si la palabra contiene símbolos que no son terminales
+     */
+    public int[] encodeWord(String word) {
+        return grammar.encodeWord(word);
+    }
+
+    /**
+     * Construye la derivación de ε para un no terminal anulable
+     * @param nonTerminal No terminal anulable
+     * @return Árbol cuyas hojas son todas ε
+     */
+    public TreeNode epsilonTree(int nonTerminal) {
+        TreeNode node = new TreeNode(grammar.getNonTerminalName(nonTerminal));
+        int[] rhs = ruleRhs[epsilonWitness[nonTerminal]];
+        if (rhs.length == 0) {
+            node.addChild(EPSILON, true);
+        }
+        for (int symbol : rhs) {
+            node.addChild(epsilonTree(symbol));
+        }
+        return node;
+    }
+
+    /**
+     * Nombre de un símbolo codificado
+     * @param symbol Símbolo codificado
+     * @return Nombre del terminal o no terminal
+     */
+    public String symbolName(int symbol) {
+        return grammar.symbolName(symbol);
+    }
+
+    /**
+     * Representación de una regla en la forma A -> α
+     * @param rule Índice de la regla
+     * @return Regla en texto
+     */
+    public String ruleToString(int rule) {
+        return grammar.ruleToString(rule);
+    }
+
+    // Getters
+
+    public int getNonTerminalCount() {
+        return nonTerminalCount;
+    }
+
+    public int getTerminalCount() {
+        return terminalCount;
+    }
+
+    public String getNonTerminalName(int nonTerminal) {
+        return grammar.getNonTerminalName(nonTerminal);
+    }
+
+    public String getTerminalName(int terminal) {
+        return grammar.getTerminalName(terminal);
+    }
+
+    /**
+     * Obtiene el símbolo inicial
+     * @return Identificador del símbolo inicial o -1 si no está definido
+     */
+    public int getStartSymbol() {
+        return startSymbol;
+    }
+
+    public int getRuleCount() {
+        return ruleLhs.length;
+    }
+
+    public int getRuleLhs(int rule) {
+        return ruleLhs[rule];
+    }
+
+    public int[] getRuleRhs(int rule) {
+        return ruleRhs[rule];
+    }
+
+    public int[] getRulesFor(int nonTerminal) {
+        return grammar.getRulesFor(nonTerminal);
+    }
+
+    /**
+     * Obtiene la gramática compilada sobre la que se calcularon los conjuntos
+     * @return Gramática compilada
+     */
+    public CompiledGrammar getGrammar() {
+        return grammar;
+    }
+
+    public BitSet getFirst(int nonTerminal) {
+        return (BitSet) first[nonTerminal].clone();
+    }
+
+    public BitSet getFollow(int nonTerminal) {
+        return (BitSet) follow[nonTerminal].clone();
+    }
+
+    public BitSet getLast(int nonTerminal) {
+        return (BitSet) last[nonTerminal].clone();
+    }
+
+    /**
+     * Representación en cadena de los conjuntos anulables, FIRST y FOLLOW
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (int a = 0; a < nonTerminalCount; a++) {
+            sb.append(grammar.getNonTerminalName(a));
+            sb.append(isNullable(a) ? " (anulable)" : "").append('\n');
+            sb.append("  FIRST = ").append(setToString(first[a])).append('\n');
+            sb.append("  FOLLOW = ").append(setToString(follow[a])).append('\n');
+        }
+        return sb.toString();
+    }
+
+    private String setToString(BitSet set) {
+        StringJoiner joiner = new StringJoiner(", ", "{", "}");
+        for (int t = set.nextSetBit(0); t >= 0; t = set.nextSetBit(t + 1)) {
+            joiner.add(t == terminalCount ? "$" : grammar.getTerminalName(t));
+        }
+        return joiner.toString();
+    }
+}
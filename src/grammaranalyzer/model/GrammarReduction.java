@@ -0,0 +1,294 @@
+package grammaranalyzer.model;
+
+import java.util.*;
+
+/**
+ * Gramática reducida equivalente a la original (salvo por la palabra vacía), obtenida
+ * eliminando producciones ε, producciones unitarias y símbolos inútiles, en ese orden:
+ * - Producciones ε: cada regla se reemplaza por sus variantes no vacías en las que se
+ *   omite cualquier subconjunto de los no terminales anulables
+ * - Producciones unitarias: A -> α se agrega por cada cadena A -> B -> ... -> C -> α
+ * - Símbolos inútiles: se quitan las reglas con no terminales improductivos y luego las
+ *   de los no terminales inalcanzables desde el símbolo inicial
+ * Sin producciones ε ni unitarias cada paso de derivación alarga la forma o produce un
+ * terminal, por lo que una palabra de longitud n se deriva en a lo sumo 2n - 1 pasos.
+ * Cada regla reducida conserva su origen (cadena unitaria y regla original con las
+ * posiciones conservadas) para reescribir los árboles con las producciones originales
+ */
+public class GrammarReduction {
+    /**
+     * Máximo de no terminales anulables en una regla (cada uno duplica sus variantes)
+     */
+    public static final int MAX_NULLABLE_OCCURRENCES = 12;
+
+    private final GrammarAnalysis original;
+    private final CompiledGrammar reduced;
+    private final GrammarAnalysis analysis;
+    private final Variant[] ruleVariant;    // Variante de la regla original de cada regla reducida
+    private final Variant[][] ruleUnitPath; // Producciones unitarias aplicadas antes de la variante
+
+    /**
+     * Variante de una regla original en la que se omiten algunos no terminales anulables
+     */
+    private static final class Variant {
+        final int source;     // Regla original
+        final int[] kept;     // Posiciones conservadas del lado derecho original
+        final int[] symbols;  // Símbolos conservados
+
+        Variant(int source, int[] kept, int[] symbols) {
+            this.source = source;
+            this.kept = kept;
+            this.symbols = symbols;
+        }
+
+        boolean isUnit() {
+            return symbols.length == 1 && symbols[0] >= 0;
+        }
+    }
+
+    private GrammarReduction(GrammarAnalysis original, CompiledGrammar reduced,
+                             Variant[] ruleVariant, Variant[][] ruleUnitPath) {
+        this.original = original;
+        this.reduced = reduced;
+        this.analysis = new GrammarAnalysis(reduced);
+        this.ruleVariant = ruleVariant;
+        this.ruleUnitPath = ruleUnitPath;
+    }
+
+    /**
+     * Reduce una gramática
+     * @param original Análisis de la gramática original
+     * @return Gramática reducida, o null si alguna regla tiene más de
+     *         MAX_NULLABLE_OCCURRENCES no terminales anulables
+     */
+    public static GrammarReduction reduce(GrammarAnalysis original) {
+        CompiledGrammar grammar = original.getGrammar();
+        int nonTerminals = grammar.getNonTerminalCount();
+
+        // Eliminación de producciones ε: variantes no vacías de cada regla
+        List<List<Variant>> variants = new ArrayList<>();
+        for (int a = 0; a < nonTerminals; a++) {
+            variants.add(new ArrayList<>());
+        }
+        for (int rule = 0; rule < grammar.getRuleCount(); rule++) {
+            if (!addVariants(original, rule, variants.get(grammar.getRuleLhs(rule)))) {
+                return null;
+            }
+        }
+
+        // Eliminación de producciones unitarias: se recorren las cadenas A -> B -> ... en anchura
+        List<Integer> lhsList = new ArrayList<>();
+        List<Variant> variantList = new ArrayList<>();
+        List<Variant[]> pathList = new ArrayList<>();
+        for (int a = 0; a < nonTerminals; a++) {
+            Map<Integer, Variant[]> paths = new LinkedHashMap<>();
+            paths.put(a, new Variant[0]);
+            Deque<Integer> queue = new ArrayDeque<>();
+            queue.add(a);
+            Set<List<Integer>> seen = new HashSet<>();
+            while (!queue.isEmpty()) {
+                int b = queue.poll();
+                Variant[] path = paths.get(b);
+                for (Variant variant : variants.get(b)) {
+                    if (variant.isUnit()) {
+                        int c = variant.symbols[0];
+                        if (!paths.containsKey(c)) {
+                            Variant[] extended = Arrays.copyOf(path, path.length + 1);
+                            extended[path.length] = variant;
+                            paths.put(c, extended);
+                            queue.add(c);
+                        }
+                    } else if (seen.add(toList(variant.symbols))) {
+                        lhsList.add(a);
+                        variantList.add(variant);
+                        pathList.add(path);
+                    }
+                }
+            }
+        }
+
+        // Eliminación de símbolos inútiles: improductivos y luego inalcanzables
+        int count = lhsList.size();
+        int[] lhs = lhsList.stream().mapToInt(Integer::intValue).toArray();
+        int[][] rhs = new int[count][];
+        for (int rule = 0; rule < count; rule++) {
+            rhs[rule] = variantList.get(rule).symbols;
+        }
+        CompiledGrammar candidate = new CompiledGrammar(grammar, lhs, rhs);
+        boolean[] keep = new boolean[count];
+        for (int rule = 0; rule < count; rule++) {
+            keep[rule] = candidate.isProductive(lhs[rule]);
+            for (int symbol : rhs[rule]) {
+                keep[rule] &= symbol < 0 || candidate.isProductive(symbol);
+            }
+        }
+        candidate = new CompiledGrammar(grammar, filter(lhs, keep), filter(rhs, keep));
+        for (int rule = 0; rule < count; rule++) {
+            if (keep[rule]) {
+                keep[rule] = candidate.isReachable(lhs[rule]);
+            }
+        }
+
+        Variant[] ruleVariant = filter(variantList.toArray(new Variant[0]), keep);
+        Variant[][] ruleUnitPath = filter(pathList.toArray(new Variant[0][]), keep);
+        CompiledGrammar reduced = new CompiledGrammar(grammar, filter(lhs, keep), filter(rhs, keep));
+        return new GrammarReduction(original, reduced, ruleVariant, ruleUnitPath);
+    }
+
+    /**
+     * Agrega las variantes no vacías de una regla, omitiendo cada subconjunto de sus
+     * no terminales anulables (sin repetir lados derechos)
+     * @return false si la regla tiene demasiados no terminales anulables
+     */
+    private static boolean addVariants(GrammarAnalysis original, int rule, List<Variant> out) {
+        int[] symbols = original.getRuleRhs(rule);
+        int[] nullablePositions = new int[symbols.length];
+        int nullableCount = 0;
+        for (int i = 0; i < symbols.length; i++) {
+            if (original.isNullable(symbols[i])) {
+                nullablePositions[nullableCount++] = i;
+            }
+        }
+        if (nullableCount > MAX_NULLABLE_OCCURRENCES) {
+            return false;
+        }
+
+        for (int omitted = 0; omitted < (1 << nullableCount); omitted++) {
+            boolean[] omit = new boolean[symbols.length];
+            for (int j = 0; j < nullableCount; j++) {
+                omit[nullablePositions[j]] = (omitted & (1 << j)) != 0;
+            }
+            int size = symbols.length - Integer.bitCount(omitted);
+            if (size == 0) {
+                continue;
+            }
+
+            int[] kept = new int[size];
+            int[] keptSymbols = new int[size];
+            for (int i = 0, k = 0; i < symbols.length; i++) {
+                if (!omit[i]) {
+                    kept[k] = i;
+                    keptSymbols[k++] = symbols[i];
+                }
+            }
+            boolean duplicate = false;
+            for (Variant variant : out) {
+                duplicate |= Arrays.equals(variant.symbols, keptSymbols);
+            }
+            if (!duplicate) {
+                out.add(new Variant(rule, kept, keptSymbols));
+            }
+        }
+        return true;
+    }
+
+    private static List<Integer> toList(int[] symbols) {
+        List<Integer> list = new ArrayList<>(symbols.length);
+        for (int symbol : symbols) {
+            list.add(symbol);
+        }
+        return list;
+    }
+
+    private static int[] filter(int[] values, boolean[] keep) {
+        int[] result = new int[values.length];
+        int count = 0;
+        for (int i = 0; i < values.length; i++) {
+            if (keep[i]) {
+                result[count++] = values[i];
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    private static <T> T[] filter(T[] values, boolean[] keep) {
+        T[] result = Arrays.copyOf(values, values.length);
+        int count = 0;
+        for (int i = 0; i < values.length; i++) {
+            if (keep[i]) {
+                result[count++] = values[i];
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    /**
+     * Reescribe una derivación de la gramática reducida como árbol de derivación
+     * con las producciones originales: agrega los pasos unitarios y las derivaciones
+     * de ε de los no terminales omitidos
+     *
+     * @param positions Posición del no terminal expandido en cada paso
+     * @param rules Regla reducida aplicada en cada paso
+     * @param length Número de pasos
+     * @return Árbol de derivación en términos de la gramática original
+     */
+    public TreeNode restoreTree(int[] positions, int[] rules, int length) {
+        CompiledGrammar grammar = original.getGrammar();
+        TreeNode root = new TreeNode(grammar.getNonTerminalName(grammar.getStartSymbol()));
+        List<TreeNode> form = new ArrayList<>();
+        form.add(root);
+
+        for (int step = 0; step < length; step++) {
+            int position = positions[step];
+            TreeNode node = form.remove(position);
+            for (Variant unit : ruleUnitPath[rules[step]]) {
+                node = expand(node, unit).get(0);
+            }
+            form.addAll(position, expand(node, ruleVariant[rules[step]]));
+        }
+        return root;
+    }
+
+    /**
+     * Aplica a un nodo la regla original de una variante
+     * @return Nodos de los símbolos conservados, en orden
+     */
+    private List<TreeNode> expand(TreeNode node, Variant variant) {
+        int[] symbols = original.getRuleRhs(variant.source);
+        List<TreeNode> keptNodes = new ArrayList<>(variant.kept.length);
+        int k = 0;
+        for (int i = 0; i < symbols.length; i++) {
+            if (k < variant.kept.length && variant.kept[k] == i) {
+                keptNodes.add(node.addChild(original.symbolName(symbols[i]), symbols[i] < 0));
+                k++;
+            } else {
+                node.addChild(original.epsilonTree(symbols[i]));
+            }
+        }
+        return keptNodes;
+    }
+
+    /**
+     * Obtiene la gramática reducida
+     * @return Gramática compilada con los mismos símbolos que la original
+     */
+    public CompiledGrammar getGrammar() {
+        return reduced;
+    }
+
+    /**
+     * Obtiene el análisis (anulables, FIRST, FOLLOW, LAST) de la gramática reducida
+     * @return Análisis de la gramática reducida
+     */
+    public GrammarAnalysis getAnalysis() {
+        return analysis;
+    }
+
+    /**
+     * Representación en cadena de las reglas reducidas junto con su origen
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("Gramática reducida: ")
+                .append(reduced.getRuleCount()).append(" reglas (original: ")
+                .append(original.getRuleCount()).append(")\n");
+        for (int rule = 0; rule < reduced.getRuleCount(); rule++) {
+            sb.append(reduced.ruleToString(rule)).append("   [");
+            for (Variant unit : ruleUnitPath[rule]) {
+                sb.append(original.ruleToString(unit.source)).append(", ");
+            }
+            sb.append(original.ruleToString(ruleVariant[rule].source)).append("]\n");
+        }
+        return sb.toString();
+    }
+}
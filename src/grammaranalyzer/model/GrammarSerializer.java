@@ -0,0 +1,447 @@
+package grammaranalyzer.model;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+/**
+ * Lectura y escritura de gramáticas en dos formatos:
+ *
+ * - Binario (versionado): la gramática compilada tal cual, con la tabla de símbolos, las
+ *   reglas codificadas como enteros y las tablas de anulables, productivos y alcanzables.
+ *   Se carga proyectando el archivo en memoria (FileChannel.map) y leyendo los enteros
+ *   directamente a los arreglos de la gramática compilada, sin dividir ni validar cada
+ *   producción; las tablas se recalculan a partir de las reglas y un archivo cuyas tablas
+ *   guardadas no coinciden se rechaza como dañado. Estructura (enteros big-endian):
+ *   MAGIC, FORMAT_VERSION, versión de la gramática (long), N, T, reglas, símbolo inicial,
+ *   nombres (longitud en bytes + UTF-8; primero los N no terminales y luego los T
+ *   terminales), reglas (lado izquierdo, longitud y símbolos codificados), regla ε de
+ *   cada no terminal (-1 si no es anulable) y un byte por no terminal con los bits
+ *   productivo (1) y alcanzable (2)
+ *
+ * - Texto BNF: una regla por no terminal, con los no terminales entre ángulos y los
+ *   terminales entre comillas; ε (o nada) es la alternativa vacía y # inicia un comentario.
+ *   El símbolo inicial es el de la primera regla. Ejemplo:
+ *   <E> ::= <E> "+" <T> | <T>
+ *   Dentro de los ángulos y las comillas, \ escapa el carácter siguiente
+ */
+public final class GrammarSerializer {
+    /**
+     * Identificador de los archivos binarios ("GRAM")
+     */
+    public static final int MAGIC = 0x4752414D;
+
+    /**
+     * Versión del formato binario
+     */
+    public static final int FORMAT_VERSION = 1;
+
+    private static final String EPSILON = "ε";
+
+    private GrammarSerializer() {
+    }
+
+    /**
+     * Guarda una gramática compilada en formato binario
+     * @param grammar Gramática compilada
+     * @param path Archivo de destino (se reemplaza si existe)
+     * @throws IOException Si no se puede escribir el archivo
+     */
+    public static void writeBinary(CompiledGrammar grammar, Path path) throws IOException {
+        int nonTerminals = grammar.getNonTerminalCount();
+        int terminals = grammar.getTerminalCount();
+        byte[][] names = new byte[nonTerminals + terminals][];
+        long size = 4L * 6 + 8 + 5L * nonTerminals;
+        for (int i = 0; i < names.length; i++) {
+            String name = i < nonTerminals ? grammar.getNonTerminalName(i) : grammar.getTerminalName(i - nonTerminals);
+            names[i] = name.getBytes(StandardCharsets.UTF_8);
+            size += 4 + names[i].length;
+        }
+        for (int rule = 0; rule < grammar.getRuleCount(); rule++) {
+            size += 8 + 4L * grammar.getRuleRhs(rule).length;
+        }
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("La gramática es demasiado grande para el formato binario");
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate((int) size);
+        buffer.putInt(MAGIC).putInt(FORMAT_VERSION).putLong(grammar.getVersion());
+        buffer.putInt(nonTerminals).putInt(terminals).putInt(grammar.getRuleCount()).putInt(grammar.getStartSymbol());
+        for (byte[] name : names) {
+            buffer.putInt(name.length).put(name);
+        }
+        for (int rule = 0; rule < grammar.getRuleCount(); rule++) {
+            int[] rhs = grammar.getRuleRhs(rule);
+            buffer.putInt(grammar.getRuleLhs(rule)).putInt(rhs.length);
+            for (int symbol : rhs) {
+                buffer.putInt(symbol);
+            }
+        }
+        for (int a = 0; a < nonTerminals; a++) {
+            buffer.putInt(grammar.getEpsilonRule(a));
+        }
+        for (int a = 0; a < nonTerminals; a++) {
+            buffer.put((byte) ((grammar.isProductive(a) ? 1 : 0) | (grammar.isReachable(a) ? 2 : 0)));
+        }
+
+        buffer.flip();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+    }
+
+    /**
+     * Carga una gramática compilada guardada en formato binario
+     * @param path Archivo a leer
+     * @return Gramática compilada (ver {@link Grammar#fromCompiled(CompiledGrammar)})
+     * @throws IOException Si no se puede leer el archivo o su contenido no es válido
+     */
+    public static CompiledGrammar readBinary(Path path) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+
+        try {
+            if (buffer.getInt() != MAGIC) {
+                throw new IOException("El archivo no contiene una gramática binaria");
+            }
+            int format = buffer.getInt();
+            if (format != FORMAT_VERSION) {
+                throw new IOException("Versión de formato no soportada: " + format);
+            }
+            long version = buffer.getLong();
+            int nonTerminals = checkCount(buffer.getInt(), buffer);
+            int terminals = checkCount(buffer.getInt(), buffer);
+            int rules = checkCount(buffer.getInt(), buffer);
+            int startSymbol = buffer.getInt();
+            check(startSymbol >= -1 && startSymbol < nonTerminals);
+
+            String[] nonTerminalNames = new String[nonTerminals];
+            String[] terminalNames = new String[terminals];
+            Set<String> seen = new HashSet<>();
+            for (int i = 0; i < nonTerminals + terminals; i++) {
+                byte[] bytes = new byte[checkCount(buffer.getInt(), buffer)];
+                buffer.get(bytes);
+                String name = new String(bytes, StandardCharsets.UTF_8);
+                check(!name.isEmpty() && seen.add(name));
+                if (i < nonTerminals) {
+                    nonTerminalNames[i] = name;
+                } else {
+                    terminalNames[i - nonTerminals] = name;
+                }
+            }
+
+            int[] ruleLhs = new int[rules];
+            int[][] ruleRhs = new int[rules][];
+            for (int rule = 0; rule < rules; rule++) {
+                ruleLhs[rule] = buffer.getInt();
+                check(ruleLhs[rule] >= 0 && ruleLhs[rule] < nonTerminals);
+                int[] rhs = new int[checkCount(buffer.getInt(), buffer)];
+                buffer.asIntBuffer().get(rhs);
+                buffer.position(buffer.position() + 4 * rhs.length);
+                for (int symbol : rhs) {
+                    check(symbol >= 0 ? symbol < nonTerminals : ~symbol < terminals);
+                }
+                ruleRhs[rule] = rhs;
+            }
+
+            int[] epsilonRule = new int[nonTerminals];
+            for (int a = 0; a < nonTerminals; a++) {
+                epsilonRule[a] = buffer.getInt();
+                check(epsilonRule[a] >= -1 && epsilonRule[a] < rules);
+            }
+            boolean[] productive = new boolean[nonTerminals];
+            boolean[] reachable = new boolean[nonTerminals];
+            for (int a = 0; a < nonTerminals; a++) {
+                byte flags = buffer.get();
+                productive[a] = (flags & 1) != 0;
+                reachable[a] = (flags & 2) != 0;
+            }
+            CompiledGrammar grammar = new CompiledGrammar(version, nonTerminalNames, terminalNames,
+                    startSymbol, ruleLhs, ruleRhs);
+            check(grammar.hasTables(epsilonRule, productive, reachable));
+            return grammar;
+        } catch (BufferUnderflowException e) {
+            throw new IOException("El archivo de gramática está incompleto");
+        }
+    }
+
+    /**
+     * Escribe una gramática compilada en formato BNF
+     * @param grammar Gramática compilada
+     * @return Texto BNF (el símbolo inicial en la primera regla)
+     */
+    public static String toBnf(CompiledGrammar grammar) {
+        StringBuilder sb = new StringBuilder();
+        int start = grammar.getStartSymbol();
+        if (start >= 0) {
+            appendBnfRule(grammar, start, sb);
+        }
+        for (int a = 0; a < grammar.getNonTerminalCount(); a++) {
+            if (a != start) {
+                appendBnfRule(grammar, a, sb);
+            }
+        }
+        return sb.toString();
+    }
+
+    private static void appendBnfRule(CompiledGrammar grammar, int nonTerminal, StringBuilder sb) {
+        int[] rules = grammar.getRulesFor(nonTerminal);
+        if (rules.length == 0) {
+            return;
+        }
+        appendQuoted(grammar.getNonTerminalName(nonTerminal), '<', '>', sb);
+        sb.append(" ::=");
+        for (int i = 0; i < rules.length; i++) {
+            if (i > 0) {
+                sb.append(" |");
+            }
+            int[] rhs = grammar.getRuleRhs(rules[i]);
+            if (rhs.length == 0) {
+                sb.append(' ').append(EPSILON);
+            }
+            for (int symbol : rhs) {
+                sb.append(' ');
+                if (symbol >= 0) {
+                    appendQuoted(grammar.getNonTerminalName(symbol), '<', '>', sb);
+                } else {
+                    appendQuoted(grammar.getTerminalName(~symbol), '"', '"', sb);
+                }
+            }
+        }
+        sb.append('\n');
+    }
+
+    private static void appendQuoted(String name, char open, char close, StringBuilder sb) {
+        sb.append(open);
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (c == close || c == '\\') {
+                sb.append('\\');
+            }
+            sb.append(c);
+        }
+        sb.append(close);
+    }
+
+    /**
+     * Lee una gramática en formato BNF
+     * Los no terminales son los que aparecen entre ángulos y los terminales los que
+     * aparecen entre comillas (o sin delimitar); el símbolo inicial es el de la primera regla
+     *
+     * @param text Texto BNF
+     * @return Gramática equivalente
+     * @throws IllegalArgumentException Si el texto no es BNF válido, usa símbolos no válidos,
+     *                                  usa un nombre como terminal y como no terminal o repite
+     *                                  una alternativa
+     */
+    public static Grammar fromBnf(String text) {
+        List<BnfToken> tokens = tokenizeBnf(text);
+        Grammar grammar = new Grammar();
+        Map<String, List<List<BnfToken>>> rules = new LinkedHashMap<>();
+        Map<String, Integer> ruleLines = new HashMap<>();
+        Map<List<BnfToken>, Integer> alternativeLines = new IdentityHashMap<>();
+
+        int i = 0;
+        while (i < tokens.size()) {
+            BnfToken lhs = tokens.get(i);
+            if (lhs.kind != BnfToken.NON_TERMINAL || i + 1 >= tokens.size()
+                    || tokens.get(i + 1).kind != BnfToken.DEFINES) {
+                throw bnfError(lhs.line, "se esperaba <no terminal> ::=");
+            }
+            i += 2;
+            ruleLines.putIfAbsent(lhs.text, lhs.line);
+            List<List<BnfToken>> alternatives = rules.computeIfAbsent(lhs.text, k -> new ArrayList<>());
+            List<BnfToken> current = new ArrayList<>();
+            alternatives.add(current);
+            alternativeLines.put(current, lhs.line);
+            // La regla termina donde empieza la siguiente (<no terminal> ::=) o al final
+            while (i < tokens.size() && !(tokens.get(i).kind == BnfToken.NON_TERMINAL
+                    && i + 1 < tokens.size() && tokens.get(i + 1).kind == BnfToken.DEFINES)) {
+                BnfToken token = tokens.get(i++);
+                if (token.kind == BnfToken.ALTERNATIVE) {
+                    current = new ArrayList<>();
+                    alternatives.add(current);
+                    alternativeLines.put(current, token.line);
+                } else if (token.kind == BnfToken.DEFINES) {
+                    throw bnfError(token.line, "::= inesperado");
+                } else if (token.kind != BnfToken.EMPTY) {
+                    current.add(token);
+                }
+            }
+        }
+        if (rules.isEmpty()) {
+            throw bnfError(1, "no hay reglas");
+        }
+
+        Set<String> nonTerminals = new HashSet<>();
+        Set<String> terminals = new HashSet<>();
+        for (String nonTerminal : rules.keySet()) {
+            addSymbol(grammar, nonTerminal, true, nonTerminals, terminals, ruleLines.get(nonTerminal));
+        }
+        for (List<List<BnfToken>> alternatives : rules.values()) {
+            for (List<BnfToken> alternative : alternatives) {
+                for (BnfToken token : alternative) {
+                    boolean nonTerminal = token.kind == BnfToken.NON_TERMINAL;
+                    addSymbol(grammar, token.text, nonTerminal, nonTerminal ? nonTerminals : terminals,
+                            nonTerminal ? terminals : nonTerminals, token.line);
+                }
+            }
+        }
+        grammar.setStartSymbol(rules.keySet().iterator().next());
+
+        for (Map.Entry<String, List<List<BnfToken>>> entry : rules.entrySet()) {
+            Set<String> productions = new HashSet<>();
+            for (List<BnfToken> alternative : entry.getValue()) {
+                StringBuilder production = new StringBuilder();
+                for (BnfToken token : alternative) {
+                    if (production.length() > 0) {
+                        production.append(' ');
+                    }
+                    production.append(token.text);
+                }
+                String body = alternative.isEmpty() ? EPSILON : production.toString();
+                int line = alternativeLines.get(alternative);
+                if (!productions.add(body)) {
+                    throw bnfError(line, "alternativa repetida de <" + entry.getKey() + ">: " + body);
+                }
+                if (!grammar.addProduction(entry.getKey(), body)) {
+                    throw bnfError(line, "producción no válida de <" + entry.getKey() + ">: " + body);
+                }
+            }
+        }
+        return grammar;
+    }
+
+    private static void addSymbol(Grammar grammar, String symbol, boolean nonTerminal, Set<String> added,
+                                  Set<String> otherKind, int line) {
+        if (otherKind.contains(symbol)) {
+            throw bnfError(line, "'" + symbol + "' se usa como terminal y como no terminal");
+        }
+        if (added.add(symbol) && !(nonTerminal ? grammar.addNonTerminal(symbol) : grammar.addTerminal(symbol))) {
+            throw bnfError(line, "símbolo no válido '" + symbol + "' (no puede estar vacío ni contener espacios)");
+        }
+    }
+
+    /**
+     * Elemento del texto BNF con la línea en la que aparece
+     */
+    private static final class BnfToken {
+        static final int NON_TERMINAL = 0;
+        static final int TERMINAL = 1;
+        static final int DEFINES = 2;
+        static final int ALTERNATIVE = 3;
+        static final int EMPTY = 4;
+
+        final int kind;
+        final String text;
+        final int line;
+
+        BnfToken(int kind, String text, int line) {
+            this.kind = kind;
+            this.text = text;
+            this.line = line;
+        }
+    }
+
+    private static List<BnfToken> tokenizeBnf(String text) {
+        List<BnfToken> tokens = new ArrayList<>();
+        int line = 1;
+        int i = 0;
+        while (i < text.length()) {
+            char c = text.charAt(i);
+            if (c == '\n') {
+                line++;
+                i++;
+            } else if (Character.isWhitespace(c)) {
+                i++;
+            } else if (c == '#') {
+                while (i < text.length() && text.charAt(i) != '\n') {
+                    i++;
+                }
+            } else if (c == '<' || c == '"') {
+                char close = c == '<' ? '>' : '"';
+                StringBuilder symbol = new StringBuilder();
+                int start = line;
+                i++;
+                while (i < text.length() && text.charAt(i) != close) {
+                    if (text.charAt(i) == '\\' && i + 1 < text.length()) {
+                        i++;
+                    }
+                    if (text.charAt(i) == '\n') {
+                        line++;
+                    }
+                    symbol.append(text.charAt(i++));
+                }
+                if (i >= text.length()) {
+                    throw bnfError(start, "falta el cierre " + close);
+                }
+                i++;
+                tokens.add(new BnfToken(c == '<' ? BnfToken.NON_TERMINAL : BnfToken.TERMINAL, symbol.toString(), start));
+            } else if (text.startsWith("::=", i)) {
+                tokens.add(new BnfToken(BnfToken.DEFINES, "::=", line));
+                i += 3;
+            } else if (c == '|') {
+                tokens.add(new BnfToken(BnfToken.ALTERNATIVE, "|", line));
+                i++;
+            } else {
+                // Terminal sin delimitar (o ε) hasta el siguiente espacio o delimitador
+                int start = i;
+                while (i < text.length() && !Character.isWhitespace(text.charAt(i))
+                        && "<\"|#".indexOf(text.charAt(i)) < 0 && !text.startsWith("::=", i)) {
+                    i++;
+                }
+                String symbol = text.substring(start, i);
+                tokens.add(new BnfToken(symbol.equals(EPSILON) ? BnfToken.EMPTY : BnfToken.TERMINAL, symbol, line));
+            }
+        }
+        return tokens;
+    }
+
+    private static IllegalArgumentException bnfError(int line, String message) {
+        return new IllegalArgumentException("Error de sintaxis BNF en la línea " + line + ": " + message);
+    }
+
+    /**
+     * Guarda una gramática compilada en un archivo BNF (UTF-8)
+     * @param grammar Gramática compilada
+     * @param path Archivo de destino
+     * @throws IOException Si no se puede escribir el archivo
+     */
+    public static void writeBnf(CompiledGrammar grammar, Path path) throws IOException {
+        Files.writeString(path, toBnf(grammar), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Lee una gramática de un archivo BNF (UTF-8)
+     * @param path Archivo a leer
+     * @return Gramática equivalente
+     * @throws IOException Si no se puede leer el archivo
+     * @throws IllegalArgumentException Si el texto no es BNF válido
+     */
+    public static Grammar readBnf(Path path) throws IOException {
+        return fromBnf(Files.readString(path, StandardCharsets.UTF_8));
+    }
+
+    private static int checkCount(int count, ByteBuffer buffer) throws IOException {
+        check(count >= 0 && count <= buffer.remaining());
+        return count;
+    }
+
+    private static void check(boolean condition) throws IOException {
+        if (!condition) {
+            throw new IOException("El archivo de gramática está dañado");
+        }
+    }
+}
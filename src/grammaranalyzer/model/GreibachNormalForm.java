@@ -0,0 +1,115 @@
+package grammaranalyzer.model;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Gramática en Forma Normal de Greibach (FNG): toda regla tiene la forma A -> a B1 ... Bk,
+ * por lo que cada paso de una derivación más a la izquierda produce exactamente un terminal
+ * y una palabra de longitud n se deriva en exactamente n pasos. Las reglas se indexan por
+ * (no terminal, terminal inicial): en cada paso las candidatas son las reglas del no
+ * terminal más a la izquierda que empiezan por el siguiente terminal de la palabra.
+ *
+ * La conversión (ver {@link PredictiveTransform}) conserva el origen de cada regla, de modo
+ * que los árboles se reescriben con las producciones originales. La FNG no genera la
+ * palabra vacía; esta se resuelve con los anulables de la gramática original
+ */
+public class GreibachNormalForm {
+    private static final int[] NO_RULES = new int[0];
+
+    private final PredictiveTransform transform;
+    private final CompiledGrammar grammar;
+    private final int terminalCount;
+    private final int[][] rulesByTerminal; // Reglas de cada (no terminal, terminal inicial)
+
+    private GreibachNormalForm(PredictiveTransform transform) {
+        this.transform = transform;
+        this.grammar = transform.getGrammar();
+        this.terminalCount = grammar.getTerminalCount();
+
+        int[] counts = new int[grammar.getNonTerminalCount() * terminalCount];
+        for (int rule = 0; rule < grammar.getRuleCount(); rule++) {
+            counts[slot(grammar.getRuleLhs(rule), ~grammar.getRuleRhs(rule)[0])]++;
+        }
+        rulesByTerminal = new int[counts.length][];
+        for (int i = 0; i < counts.length; i++) {
+            rulesByTerminal[i] = counts[i] == 0 ? NO_RULES : new int[counts[i]];
+            counts[i] = 0;
+        }
+        for (int rule = 0; rule < grammar.getRuleCount(); rule++) {
+            int slot = slot(grammar.getRuleLhs(rule), ~grammar.getRuleRhs(rule)[0]);
+            rulesByTerminal[slot][counts[slot]++] = rule;
+        }
+    }
+
+    private int slot(int nonTerminal, int terminal) {
+        return nonTerminal * terminalCount + terminal;
+    }
+
+    /**
+     * Convierte una gramática a la Forma Normal de Greibach
+     * @param original Análisis de la gramática original
+     * @return Gramática en FNG, o null si la conversión supera el límite de reglas
+     */
+    public static GreibachNormalForm fromGrammar(GrammarAnalysis original) {
+        PredictiveTransform transform = PredictiveTransform.greibach(original);
+        return transform == null ? null : new GreibachNormalForm(transform);
+    }
+
+    /**
+     * Reglas de un no terminal que empiezan por un terminal
+     * @param nonTerminal Identificador del no terminal
+     * @param terminal Identificador del terminal (sin codificar)
+     * @return Índices de las reglas (no debe modificarse)
+     */
+    public int[] getRules(int nonTerminal, int terminal) {
+        return rulesByTerminal[slot(nonTerminal, terminal)];
+    }
+
+    /**
+     * Reescribe una derivación más a la izquierda de la FNG como árbol de derivación con
+     * las producciones originales
+     *
+     * @param rules Regla aplicada en cada paso (el paso i produce el terminal i de la palabra)
+     * @param length Número de pasos
+     * @return Árbol de derivación en términos de la gramática original
+     */
+    public TreeNode restoreTree(int[] rules, int length) {
+        TreeNode root = new TreeNode(grammar.getNonTerminalName(grammar.getStartSymbol()));
+        Deque<TreeNode> pending = new ArrayDeque<>();
+        pending.push(root);
+        for (int step = 0; step < length; step++) {
+            TreeNode node = pending.pop();
+            int[] rhs = grammar.getRuleRhs(rules[step]);
+            TreeNode[] children = new TreeNode[rhs.length];
+            for (int i = 0; i < rhs.length; i++) {
+                children[i] = node.addChild(grammar.symbolName(rhs[i]), rhs[i] < 0);
+            }
+            for (int i = rhs.length - 1; i > 0; i--) {
+                pending.push(children[i]);
+            }
+        }
+        return transform.restoreTree(root);
+    }
+
+    /**
+     * Obtiene la gramática en FNG
+     * @return Gramática compilada con los no terminales nuevos al final
+     */
+    public CompiledGrammar getGrammar() {
+        return grammar;
+    }
+
+    /**
+     * Representación en cadena de las reglas en FNG
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("Forma Normal de Greibach: ")
+                .append(grammar.getRuleCount()).append(" reglas\n");
+        for (int rule = 0; rule < grammar.getRuleCount(); rule++) {
+            sb.append(grammar.ruleToString(rule)).append('\n');
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,466 @@
+package grammaranalyzer.model;
+
+import java.math.BigInteger;
+import java.util.*;
+
+/**
+ * Bosque compartido de análisis (SPPF) con todos los árboles de derivación de una palabra
+ * Cada nodo de símbolo (A, i, j) representa todas las derivaciones de A sobre la
+ * subcadena [i, j) y se comparte entre todos los árboles que lo usan. Sus alternativas
+ * (nodos empaquetados) son las producciones que lo derivan; las producciones largas se
+ * binarizan con nodos intermedios que representan prefijos de la parte derecha, de modo
+ * que el bosque ocupa espacio polinómico aunque la palabra tenga exponencialmente
+ * muchos árboles. Los árboles se cuentan sin construirlos y se generan uno a uno a
+ * partir de su número de orden.
+ * Si la gramática tiene derivaciones cíclicas (A ⇒+ A) hay infinitos árboles; en ese
+ * caso, dentro de cada ciclo solo se conservan las alternativas que reducen la altura
+ * mínima del nodo, y el conteo y la enumeración se refieren a esos árboles
+ */
+public class ParseForest implements Iterable<TreeNode> {
+    private static final String EPSILON = "ε";
+
+    /**
+     * Marca de hijo ausente en una alternativa
+     */
+    public static final int NONE = Integer.MIN_VALUE;
+
+    private final GrammarAnalysis analysis;
+
+    // Nodos: los de símbolo guardan su no terminal; los intermedios, -1
+    private int nodeCount;
+    private int[] nodeSymbol = new int[16];
+    private int[] nodeStart = new int[16];
+    private int[] nodeEnd = new int[16];
+    private int[] firstAlternative = new int[16];
+    private int[] lastAlternative = new int[16];
+
+    // Alternativas: en un nodo de símbolo, regla y cuerpo (en "right"); en uno
+    // intermedio, prefijo sin el último símbolo ("left") y último símbolo ("right").
+    // Los hijos son nodos (>= 0), terminales codificados (~t) o NONE
+    private int alternativeCount;
+    private int[] alternativeRule = new int[16];
+    private int[] alternativeLeft = new int[16];
+    private int[] alternativeRight = new int[16];
+    private int[] nextAlternative = new int[16];
+    private boolean[] disabled;
+
+    private int root = -1;
+    private boolean cyclic;
+    private BigInteger[] counts;
+
+    /**
+     * Constructor: crea un bosque vacío que los analizadores completan con
+     * {@link #addNode}, {@link #addAlternative} y {@link #setRoot}
+     * @param analysis Gramática codificada
+     */
+    public ParseForest(GrammarAnalysis analysis) {
+        this.analysis = analysis;
+    }
+
+    /**
+     * Agrega un nodo al bosque
+     *
+     * @param nonTerminal No terminal del nodo, o -1 para un nodo intermedio
+     * @param start Posición inicial de la subcadena
+     * @param end Posición final (exclusiva) de la subcadena
+     * @return Identificador del nodo
+     */
+    public int addNode(int nonTerminal, int start, int end) {
+        if (nodeCount == nodeSymbol.length) {
+            int capacity = nodeCount * 2;
+            nodeSymbol = Arrays.copyOf(nodeSymbol, capacity);
+            nodeStart = Arrays.copyOf(nodeStart, capacity);
+            nodeEnd = Arrays.copyOf(nodeEnd, capacity);
+            firstAlternative = Arrays.copyOf(firstAlternative, capacity);
+            lastAlternative = Arrays.copyOf(lastAlternative, capacity);
+        }
+        nodeSymbol[nodeCount] = nonTerminal;
+        nodeStart[nodeCount] = start;
+        nodeEnd[nodeCount] = end;
+        firstAlternative[nodeCount] = -1;
+        lastAlternative[nodeCount] = -1;
+        return nodeCount++;
+    }
+
+    /**
+     * Agrega una alternativa (nodo empaquetado) a un nodo
+     *
+     * @param node Nodo al que pertenece la alternativa
+     * @param rule Regla aplicada (solo en nodos de símbolo; -1 en los intermedios)
+     * @param left Prefijo de la parte derecha (solo en nodos intermedios) o NONE
+     * @param right Cuerpo de la regla o último símbolo del prefijo, o NONE para ε
+     */
+    public void addAlternative(int node, int rule, int left, int right) {
+        if (alternativeCount == alternativeRule.length) {
+            int capacity = alternativeCount * 2;
+            alternativeRule = Arrays.copyOf(alternativeRule, capacity);
+            alternativeLeft = Arrays.copyOf(alternativeLeft, capacity);
+            alternativeRight = Arrays.copyOf(alternativeRight, capacity);
+            nextAlternative = Arrays.copyOf(nextAlternative, capacity);
+        }
+        alternativeRule[alternativeCount] = rule;
+        alternativeLeft[alternativeCount] = left;
+        alternativeRight[alternativeCount] = right;
+        nextAlternative[alternativeCount] = -1;
+        if (lastAlternative[node] < 0) {
+            firstAlternative[node] = alternativeCount;
+        } else {
+            nextAlternative[lastAlternative[node]] = alternativeCount;
+        }
+        lastAlternative[node] = alternativeCount++;
+    }
+
+    /**
+     * Establece la raíz del bosque y calcula el número de árboles de cada nodo
+     * @param node Nodo raíz (símbolo inicial sobre toda la palabra)
+     */
+    public void setRoot(int node) {
+        this.root = node;
+        disabled = new boolean[alternativeCount];
+        counts = new BigInteger[nodeCount];
+        countTreesByComponent();
+    }
+
+    /**
+     * Recorre las componentes fuertemente conexas (Tarjan, con pila explícita) de los
+     * hijos hacia los padres; en las componentes cíclicas descarta las alternativas que
+     * no reducen la altura mínima y luego cuenta los árboles de cada nodo
+     */
+    private void countTreesByComponent() {
+        int[] index = new int[nodeCount];
+        int[] lowLink = new int[nodeCount];
+        int[] rank = new int[nodeCount];
+        int[] component = new int[nodeCount];
+        boolean[] onStack = new boolean[nodeCount];
+        Arrays.fill(index, -1);
+        Arrays.fill(rank, Integer.MAX_VALUE);
+
+        int[] sccStack = new int[nodeCount];
+        int sccTop = 0;
+        int[] callNode = new int[nodeCount];
+        int[] callAlternative = new int[nodeCount];
+        int[] callSide = new int[nodeCount];
+        int callTop = 0;
+        int nextIndex = 0;
+        int components = 0;
+
+        for (int start = 0; start < nodeCount; start++) {
+            if (index[start] >= 0) {
+                continue;
+            }
+            index[start] = lowLink[start] = nextIndex++;
+            sccStack[sccTop++] = start;
+            onStack[start] = true;
+            callNode[callTop] = start;
+            callAlternative[callTop] = firstAlternative[start];
+            callSide[callTop++] = 0;
+
+            while (callTop > 0) {
+                int node = callNode[callTop - 1];
+                int alternative = callAlternative[callTop - 1];
+
+                if (alternative >= 0) {
+                    int side = callSide[callTop - 1];
+                    int child = side == 0 ? alternativeLeft[alternative] : alternativeRight[alternative];
+                    if (side == 0) {
+                        callSide[callTop - 1] = 1;
+                    } else {
+                        callSide[callTop - 1] = 0;
+                        callAlternative[callTop - 1] = nextAlternative[alternative];
+                    }
+                    if (child < 0) {
+                        continue;
+                    }
+                    if (index[child] < 0) {
+                        index[child] = lowLink[child] = nextIndex++;
+                        sccStack[sccTop++] = child;
+                        onStack[child] = true;
+                        callNode[callTop] = child;
+                        callAlternative[callTop] = firstAlternative[child];
+                        callSide[callTop++] = 0;
+                    } else if (onStack[child]) {
+                        lowLink[node] = Math.min(lowLink[node], index[child]);
+                    }
+                    continue;
+                }
+
+                callTop--;
+                if (callTop > 0) {
+                    int parent = callNode[callTop - 1];
+                    lowLink[parent] = Math.min(lowLink[parent], lowLink[node]);
+                }
+                if (lowLink[node] == index[node]) {
+                    int first = sccTop;
+                    do {
+                        first--;
+                        onStack[sccStack[first]] = false;
+                        component[sccStack[first]] = components;
+                    } while (sccStack[first] != node);
+                    int[] members = Arrays.copyOfRange(sccStack, first, sccTop);
+                    sccTop = first;
+                    processComponent(members, components++, component, rank);
+                }
+            }
+        }
+    }
+
+    /**
+     * Calcula la altura mínima de los nodos de una componente, descarta las alternativas
+     * que cierran ciclos y cuenta los árboles de sus nodos
+     */
+    private void processComponent(int[] members, int id, int[] component, int[] rank) {
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (int node : members) {
+                for (int a = firstAlternative[node]; a >= 0; a = nextAlternative[a]) {
+                    int height = Math.max(childRank(alternativeLeft[a], rank), childRank(alternativeRight[a], rank));
+                    if (height != Integer.MAX_VALUE && height + 1 < rank[node]) {
+                        rank[node] = height + 1;
+                        changed = true;
+                    }
+                }
+            }
+        }
+
+        for (int node : members) {
+            for (int a = firstAlternative[node]; a >= 0; a = nextAlternative[a]) {
+                if (closesCycle(node, alternativeLeft[a], id, component, rank)
+                        || closesCycle(node, alternativeRight[a], id, component, rank)) {
+                    disabled[a] = true;
+                    cyclic = true;
+                }
+            }
+        }
+
+        // Dentro de la componente las alternativas restantes van hacia alturas menores
+        Integer[] order = new Integer[members.length];
+        for (int i = 0; i < members.length; i++) {
+            order[i] = members[i];
+        }
+        Arrays.sort(order, Comparator.comparingInt(node -> rank[node]));
+        for (int node : order) {
+            BigInteger total = BigInteger.ZERO;
+            for (int a = firstAlternative[node]; a >= 0; a = nextAlternative[a]) {
+                if (!disabled[a]) {
+                    total = total.add(count(alternativeLeft[a]).multiply(count(alternativeRight[a])));
+                }
+            }
+            counts[node] = total;
+        }
+    }
+
+    private int childRank(int child, int[] rank) {
+        return child < 0 ? 0 : rank[child];
+    }
+
+    private boolean closesCycle(int node, int child, int id, int[] component, int[] rank) {
+        return child >= 0 && component[child] == id && rank[child] >= rank[node];
+    }
+
+    private BigInteger count(int child) {
+        return child < 0 ? BigInteger.ONE : counts[child];
+    }
+
+    /**
+     * Obtiene el número de árboles de derivación representados por el bosque
+     * @return Número de árboles (si el bosque es cíclico, los que no recorren ciclos)
+     */
+    public BigInteger countTrees() {
+        return root < 0 ? BigInteger.ZERO : counts[root];
+    }
+
+    /**
+     * Indica si la palabra tiene más de un árbol de derivación
+     * @return true si la palabra es ambigua
+     */
+    public boolean isAmbiguous() {
+        return cyclic || countTrees().compareTo(BigInteger.ONE) > 0;
+    }
+
+    /**
+     * Estimación de la memoria que ocupa el bosque (arreglos de nodos, alternativas y conteos)
+     * @return Tamaño aproximado en bytes
+     */
+    public long estimatedSize() {
+        long size = 5L * 4 * nodeSymbol.length + 4L * 4 * alternativeRule.length;
+        if (disabled != null) {
+            size += disabled.length;
+        }
+        if (counts != null) {
+            size += 40L * counts.length;
+        }
+        return size;
+    }
+
+    /**
+     * Indica si el bosque tiene derivaciones cíclicas (infinitos árboles)
+     * @return true si hay ciclos
+     */
+    public boolean isCyclic() {
+        return cyclic;
+    }
+
+    /**
+     * Construye el árbol de derivación con el número de orden indicado
+     *
+     * @param treeIndex Número de orden, entre 0 y {@link #countTrees()} - 1
+     * @return Árbol de derivación
+     * @throws IndexOutOfBoundsException si el número de orden está fuera de rango
+     */
+    public TreeNode getTree(BigInteger treeIndex) {
+        if (treeIndex.signum() < 0 || treeIndex.compareTo(countTrees()) >= 0) {
+            throw new IndexOutOfBoundsException("No existe el árbol " + treeIndex);
+        }
+
+        TreeNode rootNode = new TreeNode(analysis.getNonTerminalName(nodeSymbol[root]));
+
+        // Pila explícita de nodos de símbolo pendientes: nodo del bosque, número de orden y nodo del árbol
+        Deque<Object[]> pending = new ArrayDeque<>();
+        pending.push(new Object[]{root, treeIndex, rootNode});
+        Deque<Object[]> children = new ArrayDeque<>();
+
+        while (!pending.isEmpty()) {
+            Object[] entry = pending.pop();
+            int node = (Integer) entry[0];
+            BigInteger rest = (BigInteger) entry[1];
+            TreeNode treeNode = (TreeNode) entry[2];
+
+            int alternative = selectAlternative(node, rest);
+            rest = rest.subtract(offsetOf(node, alternative));
+            int body = alternativeRight[alternative];
+            if (body == NONE) {
+                treeNode.addChild(EPSILON, true);
+                continue;
+            }
+
+            // Desplegar la cadena de nodos intermedios de derecha a izquierda
+            children.clear();
+            int current = body;
+            while (current >= 0 && nodeSymbol[current] < 0) {
+                int a = selectAlternative(current, rest);
+                rest = rest.subtract(offsetOf(current, a));
+                BigInteger[] split = rest.divideAndRemainder(count(alternativeRight[a]));
+                children.push(new Object[]{alternativeRight[a], split[1]});
+                current = alternativeLeft[a];
+                rest = split[0];
+            }
+            children.push(new Object[]{current, rest});
+
+            List<Object[]> expand = new ArrayList<>();
+            for (Object[] child : children) {
+                int symbol = (Integer) child[0];
+                if (symbol < 0) {
+                    treeNode.addChild(analysis.getTerminalName(~symbol), true);
+                } else {
+                    TreeNode childNode = new TreeNode(analysis.getNonTerminalName(nodeSymbol[symbol]));
+                    treeNode.addChild(childNode);
+                    expand.add(new Object[]{symbol, child[1], childNode});
+                }
+            }
+            for (int i = expand.size() - 1; i >= 0; i--) {
+                pending.push(expand.get(i));
+            }
+        }
+        return rootNode;
+    }
+
+    /**
+     * Construye el árbol de derivación con el número de orden indicado
+     * @param treeIndex Número de orden
+     * @return Árbol de derivación
+     */
+    public TreeNode getTree(long treeIndex) {
+        return getTree(BigInteger.valueOf(treeIndex));
+    }
+
+    /**
+     * Construye los primeros árboles de derivación del bosque
+     * @param limit Número máximo de árboles
+     * @return Lista con a lo sumo limit árboles
+     */
+    public List<TreeNode> getTrees(int limit) {
+        List<TreeNode> trees = new ArrayList<>();
+        Iterator<TreeNode> iterator = iterator();
+        while (trees.size() < limit && iterator.hasNext()) {
+            trees.add(iterator.next());
+        }
+        return trees;
+    }
+
+    /**
+     * Itera perezosamente todos los árboles: cada uno se construye al pedirlo
+     */
+    @Override
+    public Iterator<TreeNode> iterator() {
+        return new Iterator<TreeNode>() {
+            private BigInteger next = BigInteger.ZERO;
+
+            @Override
+            public boolean hasNext() {
+                return next.compareTo(countTrees()) < 0;
+            }
+
+            @Override
+            public TreeNode next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                TreeNode tree = getTree(next);
+                next = next.add(BigInteger.ONE);
+                return tree;
+            }
+        };
+    }
+
+    /**
+     * Elige la alternativa del nodo que contiene el árbol con el número de orden dado
+     */
+    private int selectAlternative(int node, BigInteger treeIndex) {
+        BigInteger offset = BigInteger.ZERO;
+        int selected = -1;
+        for (int a = firstAlternative[node]; a >= 0; a = nextAlternative[a]) {
+            if (disabled[a]) {
+                continue;
+            }
+            selected = a;
+            offset = offset.add(count(alternativeLeft[a]).multiply(count(alternativeRight[a])));
+            if (treeIndex.compareTo(offset) < 0) {
+                return a;
+            }
+        }
+        return selected;
+    }
+
+    /**
+     * Número de árboles de las alternativas anteriores a la indicada
+     */
+    private BigInteger offsetOf(int node, int alternative) {
+        BigInteger offset = BigInteger.ZERO;
+        for (int a = firstAlternative[node]; a != alternative; a = nextAlternative[a]) {
+            if (!disabled[a]) {
+                offset = offset.add(count(alternativeLeft[a]).multiply(count(alternativeRight[a])));
+            }
+        }
+        return offset;
+    }
+
+    // Getters
+
+    public int getNodeCount() {
+        return nodeCount;
+    }
+
+    public int getAlternativeCount() {
+        return alternativeCount;
+    }
+
+    /**
+     * Representación en cadena del tamaño del bosque
+     */
+    @Override
+    public String toString() {
+        return "Bosque de análisis: " + nodeCount + " nodos, " + alternativeCount + " alternativas, "
+                + (cyclic ? "infinitos árboles (" + countTrees() + " sin ciclos)" : countTrees() + " árbol(es)");
+    }
+}
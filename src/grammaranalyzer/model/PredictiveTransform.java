@@ -0,0 +1,896 @@
+package grammaranalyzer.model;
+
+import java.util.*;
+
+/**
+ * Transformación de una gramática para el análisis predictivo: elimina la recursión
+ * por la izquierda directa e indirecta (algoritmo de Paull, solo entre no terminales
+ * que son recursivos entre sí) y factoriza por la izquierda los prefijos comunes.
+ * La gramática resultante genera el mismo lenguaje y puede ser LL(1) aunque la original
+ * no lo sea.
+ *
+ * Con las mismas piezas construye también la forma normal de Greibach (ver
+ * {@link GreibachNormalForm}).
+ *
+ * Cada regla transformada lleva una acción que indica cómo reconstruir, a partir de su
+ * subárbol, el subárbol de la gramática original. Los no terminales nuevos reciben
+ * nodos ya construidos (heredados): A' recibe el árbol de A acumulado hasta el momento
+ * y el no terminal de una factorización recibe los nodos del prefijo común
+ */
+public class PredictiveTransform {
+    private static final String EPSILON = "ε";
+
+    /**
+     * Máximo de reglas de la gramática transformada (las sustituciones pueden multiplicarlas)
+     */
+    public static final int MAX_RULES = 5000;
+
+    // Tipos de acción
+    private static final int SYMBOL = 0;     // Nodo del símbolo i del lado derecho
+    private static final int INHERITED = 1;  // Nodo heredado i
+    private static final int BUILD = 2;      // Nodo de la regla original con los hijos indicados
+    private static final int CALL = 3;       // Nodo del símbolo i, pasándole los nodos heredados indicados
+    private static final int EMPTY = 4;      // Derivación de ε del no terminal i (omitido por ser anulable)
+
+    private final GrammarAnalysis original;
+    private final CompiledGrammar transformed;
+    private final GrammarAnalysis analysis;
+    private final Action[] ruleAction;
+    private final int recursionsRemoved;
+    private final int factorizations;
+
+    /**
+     * Acción de reconstrucción: una expresión que produce un nodo del árbol original
+     */
+    private static final class Action {
+        final int kind;
+        final int index;      // Símbolo (SYMBOL, CALL) o nodo heredado (INHERITED)
+        final int rule;       // Regla original (BUILD)
+        final Action[] args;  // Hijos (BUILD) o nodos heredados que se pasan (CALL)
+
+        Action(int kind, int index, int rule, Action[] args) {
+            this.kind = kind;
+            this.index = index;
+            this.rule = rule;
+            this.args = args;
+        }
+
+        static Action symbol(int index) {
+            return new Action(SYMBOL, index, -1, null);
+        }
+
+        static Action inherited(int index) {
+            return new Action(INHERITED, index, -1, null);
+        }
+    }
+
+    /**
+     * Regla en construcción con su acción
+     */
+    private static final class Rule {
+        final int lhs;
+        final int[] rhs;
+        final Action action;
+
+        Rule(int lhs, int[] rhs, Action action) {
+            this.lhs = lhs;
+            this.rhs = rhs;
+            this.action = action;
+        }
+    }
+
+    /**
+     * Reescritura de las referencias de una acción al moverla a otra regla
+     */
+    private interface Remap {
+        Action symbol(int index);
+
+        int call(int index);
+
+        Action inherited(int index);
+    }
+
+    private PredictiveTransform(GrammarAnalysis original, CompiledGrammar transformed, Action[] ruleAction,
+                                int recursionsRemoved, int factorizations) {
+        this.original = original;
+        this.transformed = transformed;
+        this.analysis = new GrammarAnalysis(transformed);
+        this.ruleAction = ruleAction;
+        this.recursionsRemoved = recursionsRemoved;
+        this.factorizations = factorizations;
+    }
+
+    /**
+     * Transforma una gramática
+     * La recursión por la izquierda oculta tras no terminales anulables (A -> B A x con B
+     * anulable) no se elimina; en ese caso la gramática transformada no será LL(1)
+     *
+     * @param original Análisis de la gramática original
+     * @return Gramática transformada, o null si supera MAX_RULES reglas
+     */
+    public static PredictiveTransform transform(GrammarAnalysis original) {
+        return new Builder(original).build();
+    }
+
+    /**
+     * Convierte una gramática a la forma normal de Greibach: sin producciones ε ni unitarias
+     * ni símbolos improductivos, sin recursión por la izquierda (A' -> α | α A', sin ε) y con
+     * cada regla de la forma A -> a B1 ... Bk. Los terminales que no van al inicio se
+     * reemplazan por un no terminal [a] -> a. La palabra vacía no se conserva
+     *
+     * @param original Análisis de la gramática original
+     * @return Gramática en forma normal de Greibach, o null si supera MAX_RULES reglas o
+     *         alguna regla tiene más de GrammarReduction.MAX_NULLABLE_OCCURRENCES anulables
+     */
+    static PredictiveTransform greibach(GrammarAnalysis original) {
+        return new Builder(original).buildGreibach();
+    }
+
+    /**
+     * Estado de la transformación: reglas de cada no terminal y nodos que hereda cada uno
+     */
+    private static final class Builder {
+        final GrammarAnalysis original;
+        final CompiledGrammar grammar;
+        final List<List<Rule>> rules = new ArrayList<>();
+        final List<String> newNames = new ArrayList<>();
+        final List<Integer> inheritedCount = new ArrayList<>();
+        int ruleCount;
+        int recursionsRemoved;
+        int factorizations;
+
+        Builder(GrammarAnalysis original) {
+            this.original = original;
+            this.grammar = original.getGrammar();
+            for (int a = 0; a < grammar.getNonTerminalCount(); a++) {
+                rules.add(new ArrayList<>());
+                inheritedCount.add(0);
+            }
+            for (int rule = 0; rule < grammar.getRuleCount(); rule++) {
+                int lhs = grammar.getRuleLhs(rule);
+                int[] rhs = grammar.getRuleRhs(rule);
+                if (rhs.length == 1 && rhs[0] == lhs) {
+                    continue; // A -> A no aporta palabras
+                }
+                Action[] children = new Action[rhs.length];
+                for (int i = 0; i < rhs.length; i++) {
+                    children[i] = Action.symbol(i);
+                }
+                rules.get(lhs).add(new Rule(lhs, rhs, new Action(BUILD, -1, rule, children)));
+                ruleCount++;
+            }
+        }
+
+        PredictiveTransform build() {
+            if (!removeLeftRecursion(leftCornerClosure(), false) || !leftFactor()) {
+                return null;
+            }
+            return assemble();
+        }
+
+        PredictiveTransform buildGreibach() {
+            if (!removeEpsilonRules() || !removeUnitRules()) {
+                return null;
+            }
+            removeUnproductive();
+            if (!removeLeftRecursion(null, true) || !substituteLeadingNonTerminals()) {
+                return null;
+            }
+            replaceInnerTerminals();
+            return assemble();
+        }
+
+        /**
+         * Algoritmo de Paull: sustituye A_j en A_i -> A_j γ (j < i) y elimina la recursión
+         * directa de A_i. Con leftReaches solo se sustituye si A_i y A_j se alcanzan
+         * mutuamente por la izquierda; sin él (null) se sustituye siempre, como exige la
+         * forma normal de Greibach
+         * @return false si la gramática supera MAX_RULES reglas
+         */
+        private boolean removeLeftRecursion(boolean[][] leftReaches, boolean epsilonFree) {
+            int n = grammar.getNonTerminalCount();
+            for (int i = 0; i < n; i++) {
+                for (int j = 0; j < i; j++) {
+                    if (leftReaches != null && (!leftReaches[j][i] || !leftReaches[i][j])) {
+                        continue;
+                    }
+                    List<Rule> updated = new ArrayList<>();
+                    for (Rule rule : rules.get(i)) {
+                        if (rule.rhs.length == 0 || rule.rhs[0] != j) {
+                            updated.add(rule);
+                            continue;
+                        }
+                        for (Rule replacement : rules.get(j)) {
+                            updated.add(substitute(rule, replacement));
+                        }
+                        ruleCount += rules.get(j).size() - 1;
+                    }
+                    rules.set(i, updated);
+                    if (ruleCount > MAX_RULES) {
+                        return false;
+                    }
+                }
+                eliminateImmediate(i, epsilonFree);
+            }
+            return true;
+        }
+
+        /**
+         * Elimina las producciones ε: cada regla se reemplaza por sus variantes no vacías
+         * en las que se omite cualquier subconjunto de los no terminales anulables; los
+         * omitidos se reconstruyen con su derivación de ε en la gramática original
+         * @return false si alguna regla tiene demasiados anulables o se superan MAX_RULES reglas
+         */
+        private boolean removeEpsilonRules() {
+            for (int a = 0; a < rules.size(); a++) {
+                List<Rule> updated = new ArrayList<>();
+                Set<List<Integer>> seen = new HashSet<>();
+                for (Rule rule : rules.get(a)) {
+                    int[] nullablePositions = new int[rule.rhs.length];
+                    int nullableCount = 0;
+                    for (int i = 0; i < rule.rhs.length; i++) {
+                        if (original.isNullable(rule.rhs[i])) {
+                            nullablePositions[nullableCount++] = i;
+                        }
+                    }
+                    if (nullableCount > GrammarReduction.MAX_NULLABLE_OCCURRENCES) {
+                        return false;
+                    }
+
+                    for (int omitted = 0; omitted < (1 << nullableCount); omitted++) {
+                        int[] newIndex = new int[rule.rhs.length];
+                        for (int j = 0; j < nullableCount; j++) {
+                            newIndex[nullablePositions[j]] = (omitted & (1 << j)) != 0 ? -1 : 0;
+                        }
+                        int size = 0;
+                        for (int i = 0; i < rule.rhs.length; i++) {
+                            if (newIndex[i] == 0) {
+                                newIndex[i] = size++;
+                            }
+                        }
+                        int[] rhs = new int[size];
+                        for (int i = 0; i < rule.rhs.length; i++) {
+                            if (newIndex[i] >= 0) {
+                                rhs[newIndex[i]] = rule.rhs[i];
+                            }
+                        }
+                        if (size == 0 || (size == 1 && rhs[0] == a) || !seen.add(toList(rhs))) {
+                            continue;
+                        }
+                        Action action = remap(rule.action, new Remap() {
+                            public Action symbol(int index) {
+                                return newIndex[index] < 0 ? new Action(EMPTY, rule.rhs[index], -1, null)
+                                        : Action.symbol(newIndex[index]);
+                            }
+
+                            public int call(int index) {
+                                return newIndex[index];
+                            }
+
+                            public Action inherited(int index) {
+                                return Action.inherited(index);
+                            }
+                        });
+                        updated.add(new Rule(a, rhs, action));
+                    }
+                }
+                ruleCount += updated.size() - rules.get(a).size();
+                rules.set(a, updated);
+                if (ruleCount > MAX_RULES) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Elimina las producciones unitarias: A -> α se agrega por cada cadena
+         * A -> B -> ... -> C -> α, recorriendo las cadenas en anchura
+         * @return false si la gramática supera MAX_RULES reglas
+         */
+        private boolean removeUnitRules() {
+            List<List<Rule>> base = new ArrayList<>(rules);
+            for (int a = 0; a < base.size(); a++) {
+                List<Rule> updated = new ArrayList<>();
+                Set<List<Integer>> seen = new HashSet<>();
+                boolean[] reached = new boolean[base.size()];
+                reached[a] = true;
+                Deque<Rule> chains = new ArrayDeque<>(); // Cadenas A -> B ya compuestas
+
+                Deque<Rule> pending = new ArrayDeque<>(base.get(a));
+                while (!pending.isEmpty() || !chains.isEmpty()) {
+                    if (pending.isEmpty()) {
+                        Rule chain = chains.poll();
+                        for (Rule next : base.get(chain.rhs[0])) {
+                            pending.add(substitute(chain, next));
+                        }
+                        continue;
+                    }
+                    Rule rule = pending.poll();
+                    if (rule.rhs.length == 1 && rule.rhs[0] >= 0) {
+                        if (!reached[rule.rhs[0]]) {
+                            reached[rule.rhs[0]] = true;
+                            chains.add(rule);
+                        }
+                    } else if (seen.add(toList(rule.rhs))) {
+                        updated.add(rule);
+                    }
+                }
+                ruleCount += updated.size() - rules.get(a).size();
+                rules.set(a, updated);
+                if (ruleCount > MAX_RULES) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Quita las reglas que usan no terminales improductivos
+         */
+        private void removeUnproductive() {
+            boolean[] productive = new boolean[rules.size()];
+            boolean changed = true;
+            while (changed) {
+                changed = false;
+                for (int a = 0; a < rules.size(); a++) {
+                    for (Rule rule : rules.get(a)) {
+                        if (!productive[a] && allProductive(rule, productive)) {
+                            productive[a] = true;
+                            changed = true;
+                        }
+                    }
+                }
+            }
+            for (int a = 0; a < rules.size(); a++) {
+                List<Rule> updated = new ArrayList<>();
+                for (Rule rule : rules.get(a)) {
+                    if (productive[a] && allProductive(rule, productive)) {
+                        updated.add(rule);
+                    }
+                }
+                ruleCount += updated.size() - rules.get(a).size();
+                rules.set(a, updated);
+            }
+        }
+
+        private static boolean allProductive(Rule rule, boolean[] productive) {
+            for (int symbol : rule.rhs) {
+                if (symbol >= 0 && !productive[symbol]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Tras Paull, las reglas de A_i empiezan por un terminal o por A_j con j > i: se
+         * sustituyen en orden descendente (y después en los no terminales nuevos) para que
+         * toda regla empiece por un terminal
+         * @return false si la gramática supera MAX_RULES reglas
+         */
+        private boolean substituteLeadingNonTerminals() {
+            int n = grammar.getNonTerminalCount();
+            boolean[] done = new boolean[rules.size()];
+            List<Integer> order = new ArrayList<>();
+            for (int a = n - 1; a >= 0; a--) {
+                order.add(a);
+            }
+            for (int a = n; a < rules.size(); a++) {
+                order.add(a);
+            }
+
+            for (int a : order) {
+                List<Rule> updated = new ArrayList<>();
+                for (Rule rule : rules.get(a)) {
+                    int first = rule.rhs[0];
+                    if (first < 0) {
+                        updated.add(rule);
+                        continue;
+                    }
+                    if (!done[first] || inheritedCount.get(first) > 0) {
+                        return false; // No ocurre tras Paull; se descarta la conversión por seguridad
+                    }
+                    for (Rule replacement : rules.get(first)) {
+                        updated.add(substitute(rule, replacement));
+                    }
+                }
+                ruleCount += updated.size() - rules.get(a).size();
+                rules.set(a, updated);
+                done[a] = true;
+                if (ruleCount > MAX_RULES) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Reemplaza los terminales que no van al inicio de una regla por un no terminal [a] -> a
+         */
+        private void replaceInnerTerminals() {
+            Map<Integer, Integer> terminalRules = new HashMap<>();
+            int count = rules.size();
+            for (int a = 0; a < count; a++) {
+                List<Rule> updated = new ArrayList<>();
+                for (Rule rule : rules.get(a)) {
+                    int[] rhs = rule.rhs.clone();
+                    for (int i = 1; i < rhs.length; i++) {
+                        if (rhs[i] < 0) {
+                            int terminal = rhs[i];
+                            Integer nonTerminal = terminalRules.get(terminal);
+                            if (nonTerminal == null) {
+                                nonTerminal = newNonTerminal("[" + grammar.symbolName(terminal) + "]", 0);
+                                rules.get(nonTerminal).add(new Rule(nonTerminal, new int[]{terminal}, Action.symbol(0)));
+                                terminalRules.put(terminal, nonTerminal);
+                                ruleCount++;
+                            }
+                            rhs[i] = nonTerminal;
+                        }
+                    }
+                    updated.add(new Rule(a, rhs, rule.action));
+                }
+                rules.set(a, updated);
+            }
+        }
+
+        private static List<Integer> toList(int[] symbols) {
+            List<Integer> list = new ArrayList<>(symbols.length);
+            for (int symbol : symbols) {
+                list.add(symbol);
+            }
+            return list;
+        }
+
+        /**
+         * Cierre transitivo de la relación "A puede empezar por B" (primer símbolo del lado derecho)
+         */
+        private boolean[][] leftCornerClosure() {
+            int n = grammar.getNonTerminalCount();
+            boolean[][] reaches = new boolean[n][n];
+            for (int a = 0; a < n; a++) {
+                Deque<Integer> queue = new ArrayDeque<>();
+                queue.add(a);
+                while (!queue.isEmpty()) {
+                    for (Rule rule : rules.get(queue.poll())) {
+                        if (rule.rhs.length > 0 && rule.rhs[0] >= 0 && !reaches[a][rule.rhs[0]]) {
+                            reaches[a][rule.rhs[0]] = true;
+                            queue.add(rule.rhs[0]);
+                        }
+                    }
+                }
+            }
+            return reaches;
+        }
+
+        /**
+         * Reemplaza el primer símbolo de A_i -> A_j γ por el lado derecho de A_j -> δ
+         */
+        private Rule substitute(Rule rule, Rule replacement) {
+            int shift = replacement.rhs.length - 1;
+            int[] rhs = new int[rule.rhs.length + shift];
+            System.arraycopy(replacement.rhs, 0, rhs, 0, replacement.rhs.length);
+            System.arraycopy(rule.rhs, 1, rhs, replacement.rhs.length, rule.rhs.length - 1);
+            Action action = remap(rule.action, new Remap() {
+                public Action symbol(int index) {
+                    return index == 0 ? replacement.action : Action.symbol(index + shift);
+                }
+
+                public int call(int index) {
+                    return index + shift;
+                }
+
+                public Action inherited(int index) {
+                    return Action.inherited(index);
+                }
+            });
+            return new Rule(rule.lhs, rhs, action);
+        }
+
+        /**
+         * Elimina la recursión directa: A -> A α | β pasa a A -> β A', A' -> α A' | ε
+         * o, sin producciones ε, a A -> β | β A', A' -> α | α A'
+         */
+        private void eliminateImmediate(int a, boolean epsilonFree) {
+            List<Rule> recursive = new ArrayList<>();
+            List<Rule> others = new ArrayList<>();
+            for (Rule rule : rules.get(a)) {
+                (rule.rhs.length > 0 && rule.rhs[0] == a ? recursive : others).add(rule);
+            }
+            if (recursive.isEmpty()) {
+                return;
+            }
+
+            int tail = newNonTerminal(name(a) + "'", 1);
+            List<Rule> updated = new ArrayList<>();
+            for (Rule rule : others) {
+                if (epsilonFree) {
+                    updated.add(rule);
+                }
+                int[] rhs = Arrays.copyOf(rule.rhs, rule.rhs.length + 1);
+                rhs[rule.rhs.length] = tail;
+                updated.add(new Rule(a, rhs, new Action(CALL, rule.rhs.length, -1, new Action[]{rule.action})));
+            }
+            rules.set(a, updated);
+
+            for (Rule rule : recursive) {
+                if (rule.rhs.length == 1) {
+                    continue; // A -> A (surgido de una sustitución) no aporta palabras
+                }
+                int[] rhs = Arrays.copyOfRange(rule.rhs, 1, rule.rhs.length + 1);
+                rhs[rhs.length - 1] = tail;
+                Action step = remap(rule.action, new Remap() {
+                    public Action symbol(int index) {
+                        return index == 0 ? Action.inherited(0) : Action.symbol(index - 1);
+                    }
+
+                    public int call(int index) {
+                        return index - 1;
+                    }
+
+                    public Action inherited(int index) {
+                        return Action.inherited(index);
+                    }
+                });
+                if (epsilonFree) {
+                    rules.get(tail).add(new Rule(tail, Arrays.copyOf(rhs, rhs.length - 1), step));
+                }
+                rules.get(tail).add(new Rule(tail, rhs, new Action(CALL, rhs.length - 1, -1, new Action[]{step})));
+            }
+            if (!epsilonFree) {
+                rules.get(tail).add(new Rule(tail, new int[0], Action.inherited(0)));
+            }
+            ruleCount += epsilonFree ? others.size() + recursive.size() : 1;
+            recursionsRemoved++;
+        }
+
+        /**
+         * Factoriza por la izquierda: A -> α β1 | α β2 pasa a A -> α A', A' -> β1 | β2
+         * El prefijo común no incluye no terminales que reciben nodos heredados
+         * @return false si la gramática supera MAX_RULES reglas
+         */
+        private boolean leftFactor() {
+            Deque<Integer> queue = new ArrayDeque<>();
+            for (int a = 0; a < rules.size(); a++) {
+                queue.add(a);
+            }
+            while (!queue.isEmpty()) {
+                int a = queue.poll();
+                List<Rule> own = rules.get(a);
+                for (int first = 0; first < own.size(); first++) {
+                    List<Rule> group = new ArrayList<>();
+                    int prefix = Integer.MAX_VALUE;
+                    for (Rule rule : own) {
+                        int common = commonPrefix(own.get(first), rule);
+                        if (common > 0) {
+                            group.add(rule);
+                            prefix = Math.min(prefix, common);
+                        }
+                    }
+                    if (group.size() < 2) {
+                        continue;
+                    }
+
+                    factor(a, group, prefix);
+                    queue.add(a);
+                    queue.add(rules.size() - 1);
+                    factorizations++;
+                    if (ruleCount > MAX_RULES) {
+                        return false;
+                    }
+                    break;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Longitud del prefijo común de dos reglas, sin incluir símbolos con nodos heredados
+         */
+        private int commonPrefix(Rule a, Rule b) {
+            int length = 0;
+            while (length < a.rhs.length && length < b.rhs.length && a.rhs[length] == b.rhs[length]
+                    && (a.rhs[length] < 0 || inheritedCount.get(a.rhs[length]) == 0)) {
+                length++;
+            }
+            return length;
+        }
+
+        private void factor(int a, List<Rule> group, int prefix) {
+            int inherited = inheritedCount.get(a);
+            int factored = newNonTerminal(name(a) + "'", inherited + prefix);
+            for (Rule rule : group) {
+                Action action = remap(rule.action, new Remap() {
+                    public Action symbol(int index) {
+                        return index < prefix ? Action.inherited(inherited + index) : Action.symbol(index - prefix);
+                    }
+
+                    public int call(int index) {
+                        return index - prefix;
+                    }
+
+                    public Action inherited(int index) {
+                        return Action.inherited(index);
+                    }
+                });
+                rules.get(factored).add(new Rule(factored, Arrays.copyOfRange(rule.rhs, prefix, rule.rhs.length), action));
+            }
+
+            int[] rhs = Arrays.copyOf(group.get(0).rhs, prefix + 1);
+            rhs[prefix] = factored;
+            Action[] passed = new Action[inherited + prefix];
+            for (int j = 0; j < inherited; j++) {
+                passed[j] = Action.inherited(j);
+            }
+            for (int i = 0; i < prefix; i++) {
+                passed[inherited + i] = Action.symbol(i);
+            }
+            Rule prefixRule = new Rule(a, rhs, new Action(CALL, prefix, -1, passed));
+
+            List<Rule> updated = new ArrayList<>();
+            for (Rule rule : rules.get(a)) {
+                if (rule == group.get(0)) {
+                    updated.add(prefixRule);
+                } else if (!group.contains(rule)) {
+                    updated.add(rule);
+                }
+            }
+            rules.set(a, updated);
+            ruleCount += 1;
+        }
+
+        private String name(int nonTerminal) {
+            int count = grammar.getNonTerminalCount();
+            return nonTerminal < count ? grammar.getNonTerminalName(nonTerminal) : newNames.get(nonTerminal - count);
+        }
+
+        /**
+         * Crea un no terminal con el nombre indicado o, si ya existe, seguido de apóstrofos
+         */
+        private int newNonTerminal(String name, int inherited) {
+            while (grammar.hasSymbol(name) || newNames.contains(name)) {
+                name += "'";
+            }
+            newNames.add(name);
+            rules.add(new ArrayList<>());
+            inheritedCount.add(inherited);
+            return rules.size() - 1;
+        }
+
+        private Action remap(Action action, Remap remap) {
+            switch (action.kind) {
+                case SYMBOL:
+                    return remap.symbol(action.index);
+                case INHERITED:
+                    return remap.inherited(action.index);
+                case EMPTY:
+                    return action;
+                default:
+                    Action[] args = new Action[action.args.length];
+                    for (int i = 0; i < args.length; i++) {
+                        args[i] = remap(action.args[i], remap);
+                    }
+                    int index = action.kind == CALL ? remap.call(action.index) : action.index;
+                    return new Action(action.kind, index, action.rule, args);
+            }
+        }
+
+        /**
+         * Construye la gramática compilada con las reglas de los no terminales alcanzables
+         * (tras las sustituciones algunos no terminales originales dejan de usarse)
+         */
+        private PredictiveTransform assemble() {
+            List<Integer> lhs = new ArrayList<>();
+            List<int[]> rhs = new ArrayList<>();
+            List<Action> actions = new ArrayList<>();
+            for (List<Rule> own : rules) {
+                for (Rule rule : own) {
+                    lhs.add(rule.lhs);
+                    rhs.add(rule.rhs);
+                    actions.add(rule.action);
+                }
+            }
+            String[] names = newNames.toArray(new String[0]);
+            int[] lhsArray = lhs.stream().mapToInt(Integer::intValue).toArray();
+            int[][] rhsArray = rhs.toArray(new int[0][]);
+            CompiledGrammar candidate = new CompiledGrammar(grammar, names, lhsArray, rhsArray);
+
+            List<Integer> kept = new ArrayList<>();
+            for (int rule = 0; rule < lhsArray.length; rule++) {
+                if (candidate.isReachable(lhsArray[rule])) {
+                    kept.add(rule);
+                }
+            }
+            int[] keptLhs = new int[kept.size()];
+            int[][] keptRhs = new int[kept.size()][];
+            Action[] keptActions = new Action[kept.size()];
+            for (int i = 0; i < kept.size(); i++) {
+                keptLhs[i] = lhsArray[kept.get(i)];
+                keptRhs[i] = rhsArray[kept.get(i)];
+                keptActions[i] = actions.get(kept.get(i));
+            }
+            CompiledGrammar transformed = new CompiledGrammar(grammar, names, keptLhs, keptRhs);
+            return new PredictiveTransform(original, transformed, keptActions, recursionsRemoved, factorizations);
+        }
+    }
+
+    /**
+     * Reescribe un árbol de la gramática transformada como árbol de la gramática original
+     * Las acciones se evalúan con una pila de tareas explícita y una pila de nodos ya
+     * construidos, sin recursión, de modo que la profundidad del árbol no está limitada
+     * por la pila de Java (una palabra de n símbolos puede dar un árbol de altura n)
+     *
+     * @param root Raíz del árbol obtenido con la gramática transformada
+     * @return Árbol de derivación con las producciones originales
+     */
+    public TreeNode restoreTree(TreeNode root) {
+        Deque<Task> tasks = new ArrayDeque<>();
+        Deque<TreeNode> values = new ArrayDeque<>();
+        tasks.push(Task.node(root, new TreeNode[0]));
+
+        while (!tasks.isEmpty()) {
+            Task task = tasks.pop();
+            switch (task.kind) {
+                case Task.NODE:
+                    List<TreeNode> children = symbolChildren(task.node);
+                    tasks.push(Task.evaluate(ruleAction[findRule(task.node, children)], children, task.inherited));
+                    break;
+                case Task.BUILD_DONE:
+                    TreeNode built = new TreeNode(original.getNonTerminalName(original.getRuleLhs(task.action.rule)));
+                    TreeNode[] parts = popValues(values, task.action.args.length);
+                    if (parts.length == 0) {
+                        built.addChild(EPSILON, true);
+                    }
+                    for (TreeNode part : parts) {
+                        built.addChild(part);
+                    }
+                    values.push(built);
+                    break;
+                case Task.CALL_DONE:
+                    tasks.push(Task.node(task.node, popValues(values, task.action.args.length)));
+                    break;
+                default:
+                    evaluate(task, tasks, values);
+            }
+        }
+        return values.pop();
+    }
+
+    /**
+     * Evalúa una acción: las que no dependen de otras dejan su nodo en la pila de valores;
+     * BUILD y CALL apilan su continuación y, encima, la evaluación de sus argumentos en
+     * orden inverso, para que sus resultados queden en la pila en orden
+     */
+    private void evaluate(Task task, Deque<Task> tasks, Deque<TreeNode> values) {
+        Action action = task.action;
+        switch (action.kind) {
+            case SYMBOL:
+                TreeNode child = task.children.get(action.index);
+                if (child.isTerminal()) {
+                    values.push(new TreeNode(child.getValue(), true));
+                } else {
+                    tasks.push(Task.node(child, new TreeNode[0]));
+                }
+                return;
+            case INHERITED:
+                values.push(task.inherited[action.index]);
+                return;
+            case EMPTY:
+                values.push(original.epsilonTree(action.index));
+                return;
+            case BUILD:
+                tasks.push(new Task(Task.BUILD_DONE, action, null, null, null));
+                break;
+            default:
+                tasks.push(new Task(Task.CALL_DONE, action, task.children.get(action.index), null, null));
+        }
+        for (int i = action.args.length - 1; i >= 0; i--) {
+            tasks.push(Task.evaluate(action.args[i], task.children, task.inherited));
+        }
+    }
+
+    /**
+     * Saca los últimos count nodos de la pila de valores, en el orden en que se apilaron
+     */
+    private static TreeNode[] popValues(Deque<TreeNode> values, int count) {
+        TreeNode[] nodes = new TreeNode[count];
+        for (int i = count - 1; i >= 0; i--) {
+            nodes[i] = values.pop();
+        }
+        return nodes;
+    }
+
+    /**
+     * Tarea pendiente de {@link #restoreTree(TreeNode)}
+     */
+    private static final class Task {
+        static final int EVALUATE = 0;   // Evaluar una acción con los hijos y heredados de su regla
+        static final int NODE = 1;       // Evaluar la acción de la regla aplicada en un nodo
+        static final int BUILD_DONE = 2; // Construir el nodo original con los argumentos ya evaluados
+        static final int CALL_DONE = 3;  // Pasar los argumentos ya evaluados como heredados de un nodo
+
+        final int kind;
+        final Action action;
+        final TreeNode node;
+        final List<TreeNode> children;
+        final TreeNode[] inherited;
+
+        Task(int kind, Action action, TreeNode node, List<TreeNode> children, TreeNode[] inherited) {
+            this.kind = kind;
+            this.action = action;
+            this.node = node;
+            this.children = children;
+            this.inherited = inherited;
+        }
+
+        static Task evaluate(Action action, List<TreeNode> children, TreeNode[] inherited) {
+            return new Task(EVALUATE, action, null, children, inherited);
+        }
+
+        static Task node(TreeNode node, TreeNode[] inherited) {
+            return new Task(NODE, null, node, null, inherited);
+        }
+    }
+
+    /**
+     * Hijos de un nodo sin la hoja ε de las producciones vacías
+     */
+    private static List<TreeNode> symbolChildren(TreeNode node) {
+        List<TreeNode> children = node.getChildren();
+        if (children.size() == 1 && children.get(0).isTerminal() && children.get(0).getValue().equals(EPSILON)) {
+            return Collections.emptyList();
+        }
+        return children;
+    }
+
+    /**
+     * Identifica la regla transformada aplicada en un nodo a partir de sus hijos
+     */
+    private int findRule(TreeNode node, List<TreeNode> children) {
+        int lhs = transformed.getNonTerminalId(node.getValue());
+        for (int rule : transformed.getRulesFor(lhs)) {
+            int[] rhs = transformed.getRuleRhs(rule);
+            boolean matches = rhs.length == children.size();
+            for (int i = 0; matches && i < rhs.length; i++) {
+                TreeNode child = children.get(i);
+                int symbol = child.isTerminal() ? ~transformed.getTerminalId(child.getValue())
+                        : transformed.getNonTerminalId(child.getValue());
+                matches = symbol == rhs[i];
+            }
+            if (matches) {
+                return rule;
+            }
+        }
+        throw new IllegalArgumentException("El árbol no corresponde a la gramática transformada");
+    }
+
+    /**
+     * Obtiene la gramática transformada
+     * @return Gramática compilada con los no terminales nuevos al final
+     */
+    public CompiledGrammar getGrammar() {
+        return transformed;
+    }
+
+    /**
+     * Obtiene el análisis (anulables, FIRST, FOLLOW) de la gramática transformada
+     * @return Análisis de la gramática transformada
+     */
+    public GrammarAnalysis getAnalysis() {
+        return analysis;
+    }
+
+    /**
+     * Representación en cadena de la gramática transformada
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("Gramática transformada (recursiones por la izquierda eliminadas: ")
+                .append(recursionsRemoved).append(", factorizaciones: ")
+                .append(factorizations).append("):\n");
+        for (int rule = 0; rule < transformed.getRuleCount(); rule++) {
+            sb.append(transformed.ruleToString(rule)).append('\n');
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,500 @@
+package grammaranalyzer.model;
+
+import java.util.*;
+
+/**
+ * Autómata finito determinista mínimo equivalente a una gramática regular
+ * Se detecta si la gramática es lineal por la derecha (A -> wB | w) o por la
+ * izquierda (A -> Bw | w), se construye el AFN correspondiente, se determiniza
+ * por construcción de subconjuntos y se minimiza con el algoritmo de Hopcroft.
+ * La tabla de transiciones es un arreglo int[] indexado por estado × terminal,
+ * de modo que verificar una palabra es una sola pasada sin crear objetos
+ */
+public class RegularAutomaton {
+    private static final String EPSILON = "ε";
+
+    private final GrammarAnalysis analysis;
+    private final boolean rightLinear;
+
+    // AFN: las aristas se guardan agrupadas por estado de origen
+    private int nfaStates;
+    private int nfaStart;
+    private int nfaFinal;
+    private int[] edgeStart;        // Aristas del estado q: edgeStart[q] .. edgeStart[q + 1] - 1
+    private int[] edgeTarget;
+    private int[] edgeLabel;        // Terminal, o -1 para transiciones ε
+    private int[] edgeRule;         // Regla que se completa al recorrer la arista, o -1
+
+    // AFD mínimo
+    private int terminals;
+    private int[] transitions;      // transitions[estado * terminales + terminal]
+    private boolean[] accepting;
+    private int startState;
+    private int deadState;
+
+    private RegularAutomaton(GrammarAnalysis analysis, boolean rightLinear) {
+        this.analysis = analysis;
+        this.rightLinear = rightLinear;
+    }
+
+    /**
+     * Construye el AFD mínimo de una gramática si esta es regular
+     *
+     * @param analysis Gramática codificada
+     * @return Autómata, o null si la gramática no es lineal por la derecha ni por la izquierda
+     */
+    public static RegularAutomaton fromGrammar(GrammarAnalysis analysis) {
+        if (analysis.getStartSymbol() < 0) {
+            return null;
+        }
+
+        boolean right = true;
+        boolean left = true;
+        for (int rule = 0; rule < analysis.getRuleCount(); rule++) {
+            int[] rhs = analysis.getRuleRhs(rule);
+            for (int i = 0; i < rhs.length; i++) {
+                if (rhs[i] >= 0) {
+                    right &= i == rhs.length - 1;
+                    left &= i == 0;
+                }
+            }
+        }
+        if (!right && !left) {
+            return null;
+        }
+
+        RegularAutomaton automaton = new RegularAutomaton(analysis, right);
+        automaton.buildNfa();
+        automaton.buildDfa();
+        return automaton;
+    }
+
+    /**
+     * Construye el AFN
+     * Lineal por la derecha: los estados son los no terminales más un estado final;
+     * A -> a1..ak B va de A a B leyendo a1..ak. Lineal por la izquierda: los estados
+     * son los no terminales más un estado inicial; A -> B a1..ak va de B a A, y el
+     * estado final es el símbolo inicial
+     */
+    private void buildNfa() {
+        int nonTerminals = analysis.getNonTerminalCount();
+        int extra = nonTerminals;
+        nfaStates = nonTerminals + 1;
+        if (rightLinear) {
+            nfaStart = analysis.getStartSymbol();
+            nfaFinal = extra;
+        } else {
+            nfaStart = extra;
+            nfaFinal = analysis.getStartSymbol();
+        }
+
+        List<int[]> edges = new ArrayList<>(); // {origen, destino, etiqueta, regla}
+        for (int rule = 0; rule < analysis.getRuleCount(); rule++) {
+            int[] rhs = analysis.getRuleRhs(rule);
+            int lhs = analysis.getRuleLhs(rule);
+
+            int from;
+            int to;
+            int firstTerminal;
+            int lastTerminal;
+            if (rightLinear) {
+                boolean hasNonTerminal = rhs.length > 0 && rhs[rhs.length - 1] >= 0;
+                from = lhs;
+                to = hasNonTerminal ? rhs[rhs.length - 1] : extra;
+                firstTerminal = 0;
+                lastTerminal = hasNonTerminal ? rhs.length - 1 : rhs.length;
+            } else {
+                boolean hasNonTerminal = rhs.length > 0 && rhs[0] >= 0;
+                from = hasNonTerminal ? rhs[0] : extra;
+                to = lhs;
+                firstTerminal = hasNonTerminal ? 1 : 0;
+                lastTerminal = rhs.length;
+            }
+
+            if (firstTerminal == lastTerminal) {
+                edges.add(new int[]{from, to, -1, rule});
+                continue;
+            }
+
+            int current = from;
+            for (int i = firstTerminal; i < lastTerminal; i++) {
+                boolean last = i == lastTerminal - 1;
+                int next = last ? to : nfaStates++;
+                edges.add(new int[]{current, next, ~rhs[i], last ? rule : -1});
+                current = next;
+            }
+        }
+
+        edges.sort(Comparator.comparingInt(edge -> edge[0]));
+        edgeStart = new int[nfaStates + 1];
+        edgeTarget = new int[edges.size()];
+        edgeLabel = new int[edges.size()];
+        edgeRule = new int[edges.size()];
+        for (int e = 0; e < edges.size(); e++) {
+            int[] edge = edges.get(e);
+            edgeStart[edge[0] + 1]++;
+            edgeTarget[e] = edge[1];
+            edgeLabel[e] = edge[2];
+            edgeRule[e] = edge[3];
+        }
+        for (int q = 0; q < nfaStates; q++) {
+            edgeStart[q + 1] += edgeStart[q];
+        }
+    }
+
+    /**
+     * Cierre ε de un conjunto de estados del AFN (en el mismo conjunto)
+     */
+    private void epsilonClosure(BitSet states) {
+        Deque<Integer> pending = new ArrayDeque<>();
+        for (int q = states.nextSetBit(0); q >= 0; q = states.nextSetBit(q + 1)) {
+            pending.push(q);
+        }
+        while (!pending.isEmpty()) {
+            int q = pending.pop();
+            for (int e = edgeStart[q]; e < edgeStart[q + 1]; e++) {
+                if (edgeLabel[e] < 0 && !states.get(edgeTarget[e])) {
+                    states.set(edgeTarget[e]);
+                    pending.push(edgeTarget[e]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Determiniza el AFN por construcción de subconjuntos y minimiza el resultado
+     */
+    private void buildDfa() {
+        terminals = analysis.getTerminalCount();
+
+        List<BitSet> subsets = new ArrayList<>();
+        Map<BitSet, Integer> ids = new HashMap<>();
+        BitSet dead = new BitSet();
+        subsets.add(dead);
+        ids.put(dead, 0);
+
+        BitSet initial = new BitSet();
+        initial.set(nfaStart);
+        epsilonClosure(initial);
+        ids.put(initial, subsets.size());
+        subsets.add(initial);
+
+        int[] delta = new int[16 * Math.max(terminals, 1)];
+        for (int state = 0; state < subsets.size(); state++) {
+            BitSet subset = subsets.get(state);
+            BitSet[] targets = new BitSet[terminals];
+            for (int q = subset.nextSetBit(0); q >= 0; q = subset.nextSetBit(q + 1)) {
+                for (int e = edgeStart[q]; e < edgeStart[q + 1]; e++) {
+                    int label = edgeLabel[e];
+                    if (label >= 0) {
+                        if (targets[label] == null) {
+                            targets[label] = new BitSet();
+                        }
+                        targets[label].set(edgeTarget[e]);
+                    }
+                }
+            }
+
+            if ((state + 1) * terminals > delta.length) {
+                delta = Arrays.copyOf(delta, delta.length * 2);
+            }
+            for (int t = 0; t < terminals; t++) {
+                BitSet target = targets[t] == null ? dead : targets[t];
+                epsilonClosure(target);
+                Integer id = ids.get(target);
+                if (id == null) {
+                    id = subsets.size();
+                    ids.put(target, id);
+                    subsets.add(target);
+                }
+                delta[state * terminals + t] = id;
+            }
+        }
+
+        boolean[] finals = new boolean[subsets.size()];
+        for (int state = 0; state < finals.length; state++) {
+            finals[state] = subsets.get(state).get(nfaFinal);
+        }
+        minimize(subsets.size(), delta, finals, ids.get(initial));
+    }
+
+    /**
+     * Minimiza un AFD completo con el algoritmo de Hopcroft (refinamiento de particiones)
+     */
+    private void minimize(int states, int[] delta, boolean[] finals, int initial) {
+        // Transiciones inversas en formato comprimido: predecesores de q por el terminal t
+        int[] inverseStart = new int[states * terminals + 1];
+        for (int p = 0; p < states; p++) {
+            for (int t = 0; t < terminals; t++) {
+                inverseStart[t * states + delta[p * terminals + t] + 1]++;
+            }
+        }
+        for (int i = 0; i < states * terminals; i++) {
+            inverseStart[i + 1] += inverseStart[i];
+        }
+        int[] inverse = new int[states * terminals];
+        int[] fill = Arrays.copyOf(inverseStart, inverseStart.length);
+        for (int p = 0; p < states; p++) {
+            for (int t = 0; t < terminals; t++) {
+                inverse[fill[t * states + delta[p * terminals + t]]++] = p;
+            }
+        }
+
+        // Particiones: los estados de cada bloque son contiguos en "elements"
+        int[] elements = new int[states];
+        int[] location = new int[states];
+        int[] blockOf = new int[states];
+        int[] blockFirst = new int[states];
+        int[] blockEnd = new int[states];
+        int[] marked = new int[states];
+        boolean[] inWorklist = new boolean[states];
+        int blocks = 0;
+
+        int position = 0;
+        for (boolean accept : new boolean[]{true, false}) {
+            int first = position;
+            for (int q = 0; q < states; q++) {
+                if (finals[q] == accept) {
+                    elements[position] = q;
+                    location[q] = position++;
+                    blockOf[q] = blocks;
+                }
+            }
+            if (position > first) {
+                blockFirst[blocks] = first;
+                blockEnd[blocks++] = position;
+            }
+        }
+
+        Deque<Integer> worklist = new ArrayDeque<>();
+        for (int b = 0; b < blocks; b++) {
+            worklist.add(b);
+            inWorklist[b] = true;
+        }
+
+        List<Integer> touched = new ArrayList<>();
+        while (!worklist.isEmpty()) {
+            int splitter = worklist.poll();
+            inWorklist[splitter] = false;
+            int[] splitterStates = Arrays.copyOfRange(elements, blockFirst[splitter], blockEnd[splitter]);
+
+            for (int t = 0; t < terminals; t++) {
+                touched.clear();
+                for (int q : splitterStates) {
+                    for (int i = inverseStart[t * states + q]; i < inverseStart[t * states + q + 1]; i++) {
+                        int p = inverse[i];
+                        int b = blockOf[p];
+                        int target = blockFirst[b] + marked[b];
+                        if (location[p] >= target) {
+                            // Mover p a la zona marcada de su bloque
+                            int other = elements[target];
+                            elements[location[p]] = other;
+                            location[other] = location[p];
+                            elements[target] = p;
+                            location[p] = target;
+                            if (marked[b]++ == 0) {
+                                touched.add(b);
+                            }
+                        }
+                    }
+                }
+
+                for (int b : touched) {
+                    int size = blockEnd[b] - blockFirst[b];
+                    if (marked[b] == size) {
+                        marked[b] = 0;
+                        continue;
+                    }
+
+                    int split = blocks++;
+                    blockFirst[split] = blockFirst[b];
+                    blockEnd[split] = blockFirst[b] + marked[b];
+                    blockFirst[b] = blockEnd[split];
+                    marked[b] = 0;
+                    for (int i = blockFirst[split]; i < blockEnd[split]; i++) {
+                        blockOf[elements[i]] = split;
+                    }
+
+                    if (inWorklist[b] || blockEnd[split] - blockFirst[split] <= blockEnd[b] - blockFirst[b]) {
+                        worklist.add(split);
+                        inWorklist[split] = true;
+                    } else {
+                        worklist.add(b);
+                        inWorklist[b] = true;
+                    }
+                }
+            }
+        }
+
+        transitions = new int[blocks * terminals];
+        accepting = new boolean[blocks];
+        for (int b = 0; b < blocks; b++) {
+            int representative = elements[blockFirst[b]];
+            accepting[b] = finals[representative];
+            for (int t = 0; t < terminals; t++) {
+                transitions[b * terminals + t] = blockOf[delta[representative * terminals + t]];
+            }
+        }
+        startState = blockOf[initial];
+        deadState = blockOf[0];
+    }
+
+    /**
+     * Verifica si una palabra pertenece al lenguaje recorriendo el AFD una sola vez
+     * Los terminales se leen con el trie de la gramática compilada, sin crear cadenas
+     * @param word Palabra a verificar (los espacios en blanco solo separan terminales)
+     * @return true si el AFD termina en un estado de aceptación
+     */
+    public boolean accepts(CharSequence word) {
+        SymbolTrie trie = analysis.getGrammar().getTerminalTrie();
+        int state = startState;
+        int i = 0;
+        while (i < word.length() && state != deadState) {
+            if (Character.isWhitespace(word.charAt(i))) {
+                i++;
+                continue;
+            }
+            int node = trie.match(word, i);
+            if (node < 0) {
+                return false;
+            }
+            state = transitions[state * terminals + trie.code(node)];
+            i += trie.length(node);
+        }
+        return accepting[state];
+    }
+
+    /**
+     * Construye el árbol de derivación de una palabra aceptada buscando un
+     * camino de aceptación en el AFN (cada arista final corresponde a una regla)
+     *
+     * @param word Palabra a derivar
+     * @return Árbol de derivación, o null si la palabra no pertenece al lenguaje
+     */
+    public TreeNode derivationTree(String word) {
+        int[] input = analysis.encodeWord(word);
+        if (input == null) {
+            return null;
+        }
+
+        // Recorrido en anchura sobre (posición, estado) guardando la arista de llegada
+        int n = input.length;
+        int[] viaEdge = new int[(n + 1) * nfaStates];
+        Arrays.fill(viaEdge, -2);
+        viaEdge[nfaStart] = -1;
+        Deque<Integer> current = new ArrayDeque<>();
+        current.add(nfaStart);
+
+        for (int position = 0; position <= n; position++) {
+            Deque<Integer> next = new ArrayDeque<>();
+            while (!current.isEmpty()) {
+                int q = current.poll();
+                for (int e = edgeStart[q]; e < edgeStart[q + 1]; e++) {
+                    int label = edgeLabel[e];
+                    int target = edgeTarget[e];
+                    if (label < 0 && viaEdge[position * nfaStates + target] == -2) {
+                        viaEdge[position * nfaStates + target] = e;
+                        current.add(target);
+                    } else if (label >= 0 && position < n && label == input[position]
+                            && viaEdge[(position + 1) * nfaStates + target] == -2) {
+                        viaEdge[(position + 1) * nfaStates + target] = e;
+                        next.add(target);
+                    }
+                }
+            }
+            current = next;
+        }
+
+        if (viaEdge[n * nfaStates + nfaFinal] == -2) {
+            return null;
+        }
+
+        // Recuperar las reglas del camino en el orden de la entrada
+        Deque<Integer> rules = new ArrayDeque<>();
+        int position = n;
+        int state = nfaFinal;
+        while (viaEdge[position * nfaStates + state] >= 0) {
+            int e = viaEdge[position * nfaStates + state];
+            if (edgeRule[e] >= 0) {
+                rules.addFirst(edgeRule[e]);
+            }
+            if (edgeLabel[e] >= 0) {
+                position--;
+            }
+            state = sourceOf(e);
+        }
+
+        // Lineal por la derecha: la primera regla es la más externa; por la izquierda, la última
+        TreeNode inner = null;
+        Iterator<Integer> order = rightLinear ? rules.descendingIterator() : rules.iterator();
+        while (order.hasNext()) {
+            int rule = order.next();
+            TreeNode node = new TreeNode(analysis.getNonTerminalName(analysis.getRuleLhs(rule)));
+            int[] rhs = analysis.getRuleRhs(rule);
+            if (rhs.length == 0) {
+                node.addChild(EPSILON, true);
+            }
+            for (int symbol : rhs) {
+                if (symbol >= 0) {
+                    node.addChild(inner);
+                } else {
+                    node.addChild(analysis.symbolName(symbol), true);
+                }
+            }
+            inner = node;
+        }
+        return inner;
+    }
+
+    private int sourceOf(int edge) {
+        int low = 0;
+        int high = nfaStates - 1;
+        while (low < high) {
+            int middle = (low + high + 1) >>> 1;
+            if (edgeStart[middle] <= edge) {
+                low = middle;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return low;
+    }
+
+    // Getters
+
+    /**
+     * Indica si la gramática de origen es lineal por la derecha
+     * @return true si es lineal por la derecha, false si es lineal por la izquierda
+     */
+    public boolean isRightLinear() {
+        return rightLinear;
+    }
+
+    public int getStateCount() {
+        return accepting.length;
+    }
+
+    /**
+     * Representación en cadena del AFD mínimo
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("AFD mínimo (gramática lineal por la ").append(rightLinear ? "derecha" : "izquierda")
+                .append("): ").append(getStateCount()).append(" estados\n");
+        for (int state = 0; state < accepting.length; state++) {
+            if (state == deadState) {
+                continue;
+            }
+            sb.append(state == startState ? "→" : " ").append(accepting[state] ? "*" : " ").append("q").append(state);
+            for (int t = 0; t < terminals; t++) {
+                int target = transitions[state * terminals + t];
+                if (target != deadState) {
+                    sb.append("  ").append(analysis.getTerminalName(t)).append("→q").append(target);
+                }
+            }
+            sb.append('\n');
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,143 @@
+package grammaranalyzer.model;
+
+import java.util.Arrays;
+
+/**
+ * Trie de nombres de símbolos para dividir un texto en símbolos de cualquier longitud
+ * La división toma siempre la coincidencia más larga (por ejemplo "id" antes que "i")
+ * y omite los espacios en blanco entre símbolos, de modo que "id+id" e "id + id" dan
+ * la misma secuencia. Cada nodo guarda sus caracteres de salida ordenados y la búsqueda
+ * no crea objetos, por lo que una palabra se codifica en una sola pasada
+ */
+public final class SymbolTrie {
+    private static final int NO_CODE = Integer.MIN_VALUE;
+
+    private char[][] keys = new char[16][];   // Caracteres de salida de cada nodo (ordenados)
+    private int[][] children = new int[16][]; // Nodo destino de cada carácter de salida
+    private int[] codes = new int[16];        // Código del símbolo que termina en el nodo
+    private int[] depths = new int[16];       // Longitud del prefijo que representa el nodo
+    private int size;
+
+    /**
+     * Constructor: trie vacío
+     */
+    public SymbolTrie() {
+        newNode(0);
+    }
+
+    private int newNode(int depth) {
+        if (size == codes.length) {
+            int capacity = size * 2;
+            keys = Arrays.copyOf(keys, capacity);
+            children = Arrays.copyOf(children, capacity);
+            codes = Arrays.copyOf(codes, capacity);
+            depths = Arrays.copyOf(depths, capacity);
+        }
+        keys[size] = new char[0];
+        children[size] = new int[0];
+        codes[size] = NO_CODE;
+        depths[size] = depth;
+        return size++;
+    }
+
+    /**
+     * Agrega un símbolo; si ya existía se reemplaza su código
+     * @param symbol Nombre del símbolo (no vacío)
+     * @param code Código asociado al símbolo
+     */
+    public void add(String symbol, int code) {
+        int node = 0;
+        for (int i = 0; i < symbol.length(); i++) {
+            char c = symbol.charAt(i);
+            int slot = Arrays.binarySearch(keys[node], c);
+            if (slot < 0) {
+                slot = -slot - 1;
+                int child = newNode(i + 1);
+                keys[node] = insert(keys[node], slot, c);
+                children[node] = insert(children[node], slot, child);
+            }
+            node = children[node][slot];
+        }
+        codes[node] = code;
+    }
+
+    private static char[] insert(char[] array, int slot, char value) {
+        char[] result = new char[array.length + 1];
+        System.arraycopy(array, 0, result, 0, slot);
+        result[slot] = value;
+        System.arraycopy(array, slot, result, slot + 1, array.length - slot);
+        return result;
+    }
+
+    private static int[] insert(int[] array, int slot, int value) {
+        int[] result = new int[array.length + 1];
+        System.arraycopy(array, 0, result, 0, slot);
+        result[slot] = value;
+        System.arraycopy(array, slot, result, slot + 1, array.length - slot);
+        return result;
+    }
+
+    /**
+     * Busca el símbolo más largo que empieza en una posición del texto
+     * @param text Texto
+     * @param from Posición inicial
+     * @return Nodo del símbolo encontrado (ver {@link #code(int)} y {@link #length(int)}), o -1 si ninguno
+     */
+    public int match(CharSequence text, int from) {
+        int node = 0;
+        int found = -1;
+        for (int i = from; i < text.length(); i++) {
+            int slot = Arrays.binarySearch(keys[node], text.charAt(i));
+            if (slot < 0) {
+                break;
+            }
+            node = children[node][slot];
+            if (codes[node] != NO_CODE) {
+                found = node;
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Código del símbolo encontrado por {@link #match(CharSequence, int)}
+     * @param node Nodo devuelto por match
+     * @return Código del símbolo
+     */
+    public int code(int node) {
+        return codes[node];
+    }
+
+    /**
+     * Longitud del símbolo encontrado por {@link #match(CharSequence, int)}
+     * @param node Nodo devuelto por match
+     * @return Número de caracteres del símbolo
+     */
+    public int length(int node) {
+        return depths[node];
+    }
+
+    /**
+     * Divide un texto en símbolos tomando siempre la coincidencia más larga
+     * @param text Texto a dividir (los espacios en blanco solo separan símbolos)
+     * @return Códigos de los símbolos, o null si alguna parte del texto no es un símbolo
+     */
+    public int[] tokenize(CharSequence text) {
+        int[] result = new int[text.length()];
+        int count = 0;
+        int i = 0;
+        while (i < text.length()) {
+            if (Character.isWhitespace(text.charAt(i))) {
+                i++;
+                continue;
+            }
+            int node = match(text, i);
+            if (node < 0) {
+                return null;
+            }
+            result[count++] = codes[node];
+            i += depths[node];
+        }
+        return count == result.length ? result : Arrays.copyOf(result, count);
+    }
+}
@@ -0,0 +1,96 @@
+package grammaranalyzer.controller;
+
+import grammaranalyzer.model.DerivationResult;
+import grammaranalyzer.model.Grammar;
+import grammaranalyzer.model.GrammarAnalysis;
+import grammaranalyzer.model.TreeNode;
+
+import java.util.List;
+
+/**
+ * Pruebas de {@link GLRParser}
+ * Se ejecutan sin bibliotecas externas: java grammaranalyzer.controller.GLRParserTest
+ */
+public class GLRParserTest {
+
+    public static void main(String[] args) {
+        parsesLongRightRecursiveWord();
+        matchesEarleyWithEpsilonRules();
+        System.out.println("GLRParserTest: OK");
+    }
+
+    /**
+     * S -> a S | a: al final de la palabra cada reducción agrega una arista a la misma cima,
+     * y no debe volver a recorrer todos los caminos de la posición
+     */
+    private static void parsesLongRightRecursiveWord() {
+        Grammar grammar = new Grammar();
+        grammar.addTerminal("a");
+        grammar.addNonTerminal("S");
+        grammar.setStartSymbol("S");
+        grammar.addProduction("S", "aS");
+        grammar.addProduction("S", "a");
+
+        GLRParser parser = new GLRParser(LRTable.build(new GrammarAnalysis(grammar), LRTable.Kind.LALR1));
+        int length = 50000;
+        StringBuilder word = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            word.append('a');
+        }
+        DerivationResult result = parser.analyzeWord(word.toString());
+        check(result.belongsToLanguage(), "la palabra debería pertenecer al lenguaje");
+
+        TreeNode node = result.getDerivationTree();
+        for (int depth = 1; depth < length; depth++) {
+            List<TreeNode> children = node.getChildren();
+            check(children.size() == 2 && children.get(0).getValue().equals("a"),
+                    "el nivel " + depth + " no corresponde a S -> a S");
+            node = children.get(1);
+        }
+        check(node.getChildren().size() == 1, "el último nivel no corresponde a S -> a");
+    }
+
+    /**
+     * Gramáticas ambiguas con reglas ε, en las que las reducciones agregan aristas a cimas
+     * ya procesadas: el resultado debe coincidir con Earley en todas las palabras cortas
+     */
+    private static void matchesEarleyWithEpsilonRules() {
+        String[][] grammars = {
+                {"S", "ASb", "S", "a", "A", "ε"},
+                {"S", "SS", "S", "a", "S", "ε", "A", "b"},
+                {"S", "AaA", "S", "SbS", "A", "ε", "A", "AA", "A", "b"},
+        };
+        for (String[] rules : grammars) {
+            Grammar grammar = new Grammar();
+            grammar.addTerminal("a");
+            grammar.addTerminal("b");
+            grammar.addNonTerminal("S");
+            grammar.addNonTerminal("A");
+            grammar.setStartSymbol("S");
+            for (int i = 0; i < rules.length; i += 2) {
+                grammar.addProduction(rules[i], rules[i + 1]);
+            }
+
+            GrammarAnalysis analysis = new GrammarAnalysis(grammar);
+            GLRParser parser = new GLRParser(LRTable.build(analysis, LRTable.Kind.LALR1));
+            EarleyParser earley = new EarleyParser(analysis);
+            for (int length = 0; length <= 6; length++) {
+                for (int mask = 0; mask < (1 << length); mask++) {
+                    StringBuilder word = new StringBuilder();
+                    for (int i = 0; i < length; i++) {
+                        word.append((mask >> i & 1) == 0 ? 'a' : 'b');
+                    }
+                    boolean expected = earley.analyzeWord(word.toString()).belongsToLanguage();
+                    check(parser.analyzeWord(word.toString()).belongsToLanguage() == expected,
+                            "GLR y Earley difieren en \"" + word + "\" con " + String.join(" ", rules));
+                }
+            }
+        }
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new AssertionError(message);
+        }
+    }
+}
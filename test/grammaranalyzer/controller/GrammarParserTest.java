@@ -0,0 +1,88 @@
+package grammaranalyzer.controller;
+
+import grammaranalyzer.model.DerivationResult;
+import grammaranalyzer.model.Grammar;
+import grammaranalyzer.model.TreeNode;
+
+import java.util.List;
+
+/**
+ * Pruebas de la búsqueda de derivaciones de {@link GrammarParser} sobre la FNG
+ * Se ejecutan sin bibliotecas externas: java grammaranalyzer.controller.GrammarParserTest
+ */
+public class GrammarParserTest {
+
+    public static void main(String[] args) {
+        derivesLongRightRecursiveWord();
+        derivesDeeplyNestedWord(false);
+        derivesDeeplyNestedWord(true);
+        System.out.println("GrammarParserTest: OK");
+    }
+
+    /**
+     * S -> a S | a: el árbol de una palabra de n símbolos tiene altura n y debe volver a la
+     * gramática original sin desbordar la pila de Java
+     */
+    private static void derivesLongRightRecursiveWord() {
+        Grammar grammar = new Grammar();
+        grammar.addTerminal("a");
+        grammar.addNonTerminal("S");
+        grammar.setStartSymbol("S");
+        grammar.addProduction("S", "aS");
+        grammar.addProduction("S", "a");
+
+        int length = 5000;
+        DerivationResult result = new GrammarParser(grammar).analyzeWord(repeat("a", length), ParsingAlgorithm.DERIVATION);
+        check(result.belongsToLanguage(), "la palabra debería pertenecer al lenguaje");
+        check(result.getStepCount() == length + 1, "la derivación debería tener un paso por símbolo");
+
+        TreeNode node = result.getDerivationTree();
+        for (int depth = 1; depth < length; depth++) {
+            List<TreeNode> children = node.getChildren();
+            check(node.getValue().equals("S") && children.size() == 2 && children.get(0).getValue().equals("a"),
+                    "el nivel " + depth + " no corresponde a S -> a S");
+            node = children.get(1);
+        }
+        check(node.getChildren().size() == 1, "el último nivel no corresponde a S -> a");
+    }
+
+    /**
+     * S -> ( S ) | x: cada paréntesis abierto deja un pendiente más, y los pasos no deben
+     * copiar todos los pendientes de la forma
+     */
+    private static void derivesDeeplyNestedWord(boolean parallel) {
+        Grammar grammar = new Grammar();
+        grammar.addTerminal("(");
+        grammar.addTerminal(")");
+        grammar.addTerminal("x");
+        grammar.addNonTerminal("S");
+        grammar.setStartSymbol("S");
+        grammar.addProduction("S", "(S)");
+        grammar.addProduction("S", "x");
+
+        int nesting = 20000;
+        GrammarParser parser = new GrammarParser(grammar);
+        parser.setParallelSearch(parallel);
+        DerivationResult result = parser.analyzeWord(repeat("(", nesting) + "x" + repeat(")", nesting),
+                ParsingAlgorithm.DERIVATION);
+        check(result.belongsToLanguage(), "la palabra anidada debería pertenecer al lenguaje");
+        check(result.getStepCount() == nesting + 2, "la derivación debería tener un paso por paréntesis abierto y uno por x");
+
+        result = parser.analyzeWord(repeat("(", nesting) + "x" + repeat(")", nesting - 1), ParsingAlgorithm.DERIVATION);
+        check(!result.belongsToLanguage(), "la palabra sin cerrar no debería pertenecer al lenguaje");
+    }
+
+    private static String repeat(String text, int count) {
+        StringBuilder builder = new StringBuilder(text.length() * count);
+        for (int i = 0; i < count; i++) {
+            builder.append(text);
+        }
+        return builder.toString();
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new AssertionError(message);
+        }
+    }
+}
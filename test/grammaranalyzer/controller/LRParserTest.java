@@ -0,0 +1,76 @@
+package grammaranalyzer.controller;
+
+import grammaranalyzer.model.Grammar;
+import grammaranalyzer.model.GrammarAnalysis;
+
+/**
+ * Pruebas de {@link LRParser} y {@link LRTable}
+ * Se ejecutan sin bibliotecas externas: java grammaranalyzer.controller.LRParserTest
+ */
+public class LRParserTest {
+
+    public static void main(String[] args) {
+        uselessRulesDoNotLoop();
+        acceptsExpressions();
+        System.out.println("LRParserTest: OK");
+    }
+
+    /**
+     * S -> A S a, A -> ε más reglas de B, que no es alcanzable: las reglas de B agregaban
+     * símbolos a FOLLOW(A) y el analizador SLR(1) reducía A -> ε sin fin con la palabra "a"
+     */
+    private static void uselessRulesDoNotLoop() {
+        Grammar grammar = new Grammar();
+        grammar.addTerminal("a");
+        grammar.addTerminal("b");
+        grammar.addNonTerminal("S");
+        grammar.addNonTerminal("A");
+        grammar.addNonTerminal("B");
+        grammar.setStartSymbol("S");
+        grammar.addProduction("S", "ASa");
+        grammar.addProduction("A", "ε");
+        grammar.addProduction("B", "Ab");
+        grammar.addProduction("B", "ε");
+        grammar.addProduction("B", "aAB");
+        grammar.addProduction("B", "bAA");
+
+        GrammarAnalysis analysis = new GrammarAnalysis(grammar);
+        for (LRTable.Kind kind : LRTable.Kind.values()) {
+            LRParser parser = new LRParser(LRTable.build(analysis, kind));
+            check(parser.isDeterministic(), kind + " debería no tener conflictos");
+            check(!parser.analyzeWord("a").belongsToLanguage(), kind + " aceptó \"a\"");
+            check(!parser.analyzeWord("").belongsToLanguage(), kind + " aceptó la palabra vacía");
+        }
+    }
+
+    /**
+     * E -> E + T | T, T -> id, con una regla inútil que no debe cambiar el resultado
+     */
+    private static void acceptsExpressions() {
+        Grammar grammar = new Grammar();
+        grammar.addTerminal("id");
+        grammar.addTerminal("+");
+        grammar.addNonTerminal("E");
+        grammar.addNonTerminal("T");
+        grammar.addNonTerminal("U");
+        grammar.setStartSymbol("E");
+        grammar.addProduction("E", "E+T");
+        grammar.addProduction("E", "T");
+        grammar.addProduction("T", "id");
+        grammar.addProduction("U", "T+");
+
+        GrammarAnalysis analysis = new GrammarAnalysis(grammar);
+        for (LRTable.Kind kind : new LRTable.Kind[]{LRTable.Kind.SLR1, LRTable.Kind.LALR1}) {
+            LRParser parser = new LRParser(LRTable.build(analysis, kind));
+            check(parser.isDeterministic(), kind + " debería no tener conflictos");
+            check(parser.analyzeWord("id+id+id").belongsToLanguage(), kind + " rechazó \"id+id+id\"");
+            check(!parser.analyzeWord("id+").belongsToLanguage(), kind + " aceptó \"id+\"");
+        }
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new AssertionError(message);
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package grammaranalyzer.controller;
+
+import grammaranalyzer.model.CompiledGrammar;
+import grammaranalyzer.model.DerivationResult;
+import grammaranalyzer.model.Grammar;
+
+import java.math.BigInteger;
+
+/**
+ * Pruebas de {@link ResultCache} al agregar producciones a la gramática
+ * Se ejecutan sin bibliotecas externas: java grammaranalyzer.controller.ResultCacheTest
+ */
+public class ResultCacheTest {
+
+    public static void main(String[] args) {
+        usefulRuleRefreshesTreeCount();
+        uselessRuleKeepsEntries();
+        System.out.println("ResultCacheTest: OK");
+    }
+
+    /**
+     * S -> a, A -> b: "a" tiene un árbol. Al agregar S -> A y A -> a tiene dos, y la caché
+     * no debe devolver el resultado anterior
+     */
+    private static void usefulRuleRefreshesTreeCount() {
+        Grammar grammar = grammar();
+        GrammarParser parser = new GrammarParser(grammar);
+        ResultCache cache = new ResultCache();
+        DerivationResult before = analyze(cache, parser, grammar, "a");
+        check(before.getParseForest().countTrees().equals(BigInteger.ONE), "un árbol antes de agregar reglas");
+
+        grammar.addProduction("S", "A");
+        grammar.addProduction("A", "a");
+        DerivationResult after = analyze(cache, parser, grammar, "a");
+        check(after != before, "la caché devolvió el resultado de la gramática anterior");
+        check(after.getParseForest().countTrees().equals(BigInteger.valueOf(2)), "dos árboles después de agregar reglas");
+        check(after.getParseForest().isAmbiguous(), "la palabra es ambigua después de agregar reglas");
+    }
+
+    /**
+     * Una regla inútil (de un no terminal no alcanzable) no cambia ningún resultado
+     */
+    private static void uselessRuleKeepsEntries() {
+        Grammar grammar = grammar();
+        GrammarParser parser = new GrammarParser(grammar);
+        ResultCache cache = new ResultCache();
+        DerivationResult before = analyze(cache, parser, grammar, "a");
+
+        grammar.addProduction("A", "a");
+        check(analyze(cache, parser, grammar, "a") == before, "se descartó una entrada que no cambió");
+    }
+
+    private static Grammar grammar() {
+        Grammar grammar = new Grammar();
+        grammar.addTerminal("a");
+        grammar.addTerminal("b");
+        grammar.addNonTerminal("S");
+        grammar.addNonTerminal("A");
+        grammar.setStartSymbol("S");
+        grammar.addProduction("S", "a");
+        grammar.addProduction("A", "b");
+        return grammar;
+    }
+
+    /**
+     * Verifica una palabra con Earley pasando por la caché, como GrammarController
+     */
+    private static DerivationResult analyze(ResultCache cache, GrammarParser parser, Grammar grammar, String word) {
+        CompiledGrammar snapshot = grammar.compile();
+        DerivationResult result = cache.get(snapshot, ParsingAlgorithm.EARLEY, word);
+        if (result == null) {
+            result = parser.analyzeWord(word, ParsingAlgorithm.EARLEY);
+            cache.put(snapshot, ParsingAlgorithm.EARLEY, word, result);
+        }
+        return result;
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new AssertionError(message);
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package grammaranalyzer.model;
+
+/**
+ * Pruebas de {@link Derivation}
+ * Se ejecutan sin bibliotecas externas: java grammaranalyzer.model.DerivationTest
+ */
+public class DerivationTest {
+
+    public static void main(String[] args) {
+        pagesMatchWholeText();
+        System.out.println("DerivationTest: OK");
+    }
+
+    /**
+     * Las páginas consecutivas continúan desde la última forma generada; en cualquier
+     * orden deben dar el mismo texto que todos los pasos de una vez
+     */
+    private static void pagesMatchWholeText() {
+        Grammar grammar = new Grammar();
+        grammar.addTerminal("a");
+        grammar.addTerminal("b");
+        grammar.addNonTerminal("S");
+        grammar.setStartSymbol("S");
+        grammar.addProduction("S", "aSb");
+        grammar.addProduction("S", "ε");
+
+        CompiledGrammar compiled = new GrammarAnalysis(grammar).getGrammar();
+        int count = 10;
+        int[] positions = new int[count + 1];
+        int[] rules = new int[count + 1];
+        for (int i = 0; i <= count; i++) {
+            positions[i] = i;
+            rules[i] = i < count ? 0 : 1;
+        }
+        Derivation derivation = new Derivation(compiled, positions, rules, count + 1);
+        String whole = derivation.toString();
+
+        for (int page = 1; page <= count + 2; page++) {
+            StringBuilder paged = new StringBuilder();
+            for (int from = 0; from <= derivation.getStepCount(); from += page) {
+                derivation.appendSteps(paged, from, from + page);
+            }
+            check(paged.toString().equals(whole), "las páginas de " + page + " pasos no coinciden con el texto completo");
+        }
+
+        StringBuilder tail = new StringBuilder();
+        derivation.appendSteps(tail, 5, 8);
+        StringBuilder head = new StringBuilder();
+        derivation.appendSteps(head, 0, 5);
+        derivation.appendSteps(head, 5, 8);
+        check(head.toString().endsWith(tail.toString()), "una página anterior a la última debería repetir los pasos");
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new AssertionError(message);
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package grammaranalyzer.model;
+
+import grammaranalyzer.controller.LL1Parser;
+
+import java.util.List;
+
+/**
+ * Pruebas de {@link PredictiveTransform}
+ * Se ejecutan sin bibliotecas externas: java grammaranalyzer.model.PredictiveTransformTest
+ */
+public class PredictiveTransformTest {
+
+    public static void main(String[] args) {
+        restoresDeepTree();
+        System.out.println("PredictiveTransformTest: OK");
+    }
+
+    /**
+     * S -> a S | a se factoriza como S -> a S', S' -> S | ε; el árbol de una palabra de n
+     * símbolos tiene altura n y debe reescribirse sin desbordar la pila de Java
+     */
+    private static void restoresDeepTree() {
+        Grammar grammar = new Grammar();
+        grammar.addTerminal("a");
+        grammar.addNonTerminal("S");
+        grammar.setStartSymbol("S");
+        grammar.addProduction("S", "aS");
+        grammar.addProduction("S", "a");
+
+        PredictiveTransform transform = PredictiveTransform.transform(new GrammarAnalysis(grammar));
+        LL1Parser parser = new LL1Parser(transform.getAnalysis());
+        check(parser.isLL1(), "la gramática transformada debería ser LL(1)");
+
+        int length = 20000;
+        StringBuilder word = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            word.append('a');
+        }
+        DerivationResult transformed = parser.analyzeWord(word.toString());
+        check(transformed.belongsToLanguage(), "la palabra debería pertenecer al lenguaje");
+
+        TreeNode node = transform.restoreTree(transformed.getDerivationTree());
+        for (int depth = 1; depth < length; depth++) {
+            List<TreeNode> children = node.getChildren();
+            check(node.getValue().equals("S") && children.size() == 2 && children.get(0).getValue().equals("a"),
+                    "el nivel " + depth + " no corresponde a S -> a S");
+            node = children.get(1);
+        }
+        List<TreeNode> children = node.getChildren();
+        check(children.size() == 1 && children.get(0).getValue().equals("a"), "el último nivel no corresponde a S -> a");
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new AssertionError(message);
+        }
+    }
+}